@@ -1,3 +1,5 @@
+import com.example.trave_app.build.PlacePackTask
+
 plugins {
     alias(libs.plugins.android.application)
     alias(libs.plugins.google.services)
@@ -30,6 +32,21 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    androidResources {
+        // Place packs are memory-mapped straight from the APK
+        noCompress += "pack"
+    }
+}
+
+// Binary packs of the bundled place lists, shipped as assets (see PlacePackStore)
+val placePacks = tasks.register<PlacePackTask>("placePacks") {
+    sources.from("src/main/res/raw/places_india.json", "src/main/res/raw/places_vashi.json")
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(placePacks, PlacePackTask::getOutputDir)
+    }
 }
 
 dependencies {
@@ -73,6 +90,8 @@ dependencies {
     implementation(libs.mlkit.smart.reply)
     
     testImplementation(libs.junit)
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.trave_app.database.TravelDatabase;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.SearchHistory;
@@ -109,8 +110,10 @@ public class MLInsightsActivity extends AppCompatActivity {
         
         executorService.execute(() -> {
             try {
-                // Learn from user behavior
-                mlEngine.learnFromUserBehavior(places, favorites, searchHistory);
+                // Learn from places the user actually stayed at; fall back to the catalog until
+                // the location service has recorded any visits
+                List<Place> visited = TravelDatabase.getDatabase(this).visitDao().getVisitedPlacesSync();
+                mlEngine.learnFromUserBehavior(visited.isEmpty() ? places : visited, favorites, searchHistory);
                 
                 // Get travel pattern insights
                 Map<String, Object> insights = mlEngine.analyzeTravelPatterns();
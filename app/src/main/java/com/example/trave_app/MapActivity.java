@@ -25,7 +25,6 @@ import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
-import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.libraries.places.api.Places;
 import com.google.android.libraries.places.api.model.Place;
@@ -33,21 +32,29 @@ import com.google.android.libraries.places.api.model.PlaceLikelihood;
 import com.google.android.libraries.places.api.net.FindCurrentPlaceRequest;
 import com.google.android.libraries.places.api.net.PlacesClient;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import com.example.trave_app.data.PlaceCatalog;
 import com.example.trave_app.data.VashiPlacesProvider;
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.geo.GridClusterer;
+import com.example.trave_app.geo.NearestPlaceService;
+import com.example.trave_app.map.ClusteredMarkerLayer;
 
 public class MapActivity extends AppCompatActivity implements OnMapReadyCallback {
 
     private GoogleMap mMap;
+    private ClusteredMarkerLayer markerLayer;
     private String searchType;
-    private static final double SEARCH_RADIUS_KM = 2.0;
+    private static final int CLOSEST_PLACES_COUNT = 5;
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1;
     private FusedLocationProviderClient fusedLocationClient;
     private PlacesClient placesClient;
     private TextView mapTitle;
     private ImageView backButton;
+    private LatLng notificationFocus;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -71,6 +78,14 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
 
         // Get search type from intent
         searchType = getIntent().getStringExtra("search_type");
+        if (searchType == null) {
+            // Opened from a nearby-place notification
+            searchType = getIntent().getStringExtra("category");
+        }
+        if (getIntent().hasExtra("latitude") && getIntent().hasExtra("longitude")) {
+            notificationFocus = new LatLng(getIntent().getDoubleExtra("latitude", 0),
+                    getIntent().getDoubleExtra("longitude", 0));
+        }
         if (searchType != null) {
             updateTitle(searchType);
         }
@@ -128,6 +143,8 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
     @Override
     public void onMapReady(@NonNull GoogleMap googleMap) {
         mMap = googleMap;
+        // All place markers go through the layer: clustered, culled to the viewport
+        markerLayer = new ClusteredMarkerLayer(mMap, getMarkerColor(searchType));
 
         // Enable zoom controls
         mMap.getUiSettings().setZoomControlsEnabled(true);
@@ -142,6 +159,11 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
                     new String[]{Manifest.permission.ACCESS_FINE_LOCATION},
                     LOCATION_PERMISSION_REQUEST_CODE);
         }
+
+        if (notificationFocus != null) {
+            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(notificationFocus, 15));
+            showClosestPlaces(notificationFocus);
+        }
     }
 
     private void enableMyLocation() {
@@ -158,8 +180,11 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
                     public void onSuccess(Location location) {
                         if (location != null) {
                             LatLng currentLocation = new LatLng(location.getLatitude(), location.getLongitude());
-                            mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(currentLocation, 14));
+                            if (notificationFocus == null) {
+                                mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(currentLocation, 14));
+                            }
                             searchNearbyPlaces();
+                            showSavedPlacesNear(currentLocation);
                         } else {
                             // Default to Vashi, Navi Mumbai if current location is not available
                             LatLng vashi = new LatLng(19.0771, 73.0007);
@@ -179,12 +204,15 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         FindCurrentPlaceRequest request = FindCurrentPlaceRequest.newInstance(placeFields);
 
         placesClient.findCurrentPlace(request).addOnSuccessListener((response) -> {
+            // Add every match in one batch; each addItem would re-cluster the whole layer
+            List<GridClusterer.Item> items = new ArrayList<>();
             for (PlaceLikelihood placeLikelihood : response.getPlaceLikelihoods()) {
                 Place place = placeLikelihood.getPlace();
                 if (place.getLatLng() != null && isPlaceTypeMatch(place.getPlaceTypes())) {
-                    addMarkerForPlace(place);
+                    items.add(toMapItem(place));
                 }
             }
+            markerLayer.addItems(items);
         }).addOnFailureListener((exception) -> {
             Toast.makeText(this, "Places search failed. Showing Vashi locations.", Toast.LENGTH_SHORT).show();
             addVashiMarkers();
@@ -220,37 +248,64 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         }
     }
 
-    private void addMarkerForPlace(Place place) {
-        if (place.getLatLng() != null) {
-            float markerColor = getMarkerColor(searchType);
-            mMap.addMarker(new MarkerOptions()
-                    .position(place.getLatLng())
-                    .title(place.getName())
-                    .icon(BitmapDescriptorFactory.defaultMarker(markerColor)));
-        }
+    private GridClusterer.Item toMapItem(Place place) {
+        return new GridClusterer.Item("g:" + place.getName() + "@" + place.getLatLng(),
+                place.getName(), place.getLatLng().latitude, place.getLatLng().longitude);
     }
 
     private void addVashiMarkers() {
-        float markerColor = getMarkerColor(searchType);
         List<com.example.trave_app.database.entity.Place> places;
         if (searchType != null) {
             places = VashiPlacesProvider.getPlacesByCategory(this, searchType);
         } else {
             places = VashiPlacesProvider.getAllPlaces(this);
         }
-        for (com.example.trave_app.database.entity.Place p : places) {
-            mMap.addMarker(new MarkerOptions()
-                    .position(new LatLng(p.getLatitude(), p.getLongitude()))
-                    .title(p.getName())
-                    .icon(BitmapDescriptorFactory.defaultMarker(markerColor)));
-        }
+        markerLayer.addItems(toMapItems(places));
         if (!places.isEmpty()) {
             LatLng focus = new LatLng(places.get(0).getLatitude(), places.get(0).getLongitude());
             mMap.moveCamera(CameraUpdateFactory.newLatLngZoom(focus, 14));
         }
     }
 
+    // Saved places around the camera within the user's configured radius, from the catalog's cell index
+    private void showSavedPlacesNear(LatLng center) {
+        TravelDatabase.databaseWriteExecutor.execute(() -> {
+            double radiusKm = TravelDatabase.getDatabase(this).notificationPreferenceDao().getLocationRadiusKmSync();
+            List<com.example.trave_app.database.entity.Place> places = PlaceCatalog.getInstance(this)
+                    .getPlacesWithinRadius(center.latitude, center.longitude, radiusKm, searchType);
+            if (places.isEmpty()) return;
+            runOnUiThread(() -> {
+                if (markerLayer == null || isFinishing()) return;
+                markerLayer.addItems(toMapItems(places));
+            });
+        });
+    }
+
+    // The N closest catalog places of the current type, answered by the KD-tree without a table scan
+    private void showClosestPlaces(LatLng center) {
+        TravelDatabase.databaseWriteExecutor.execute(() -> {
+            double radiusKm = TravelDatabase.getDatabase(this).notificationPreferenceDao().getLocationRadiusKmSync();
+            List<com.example.trave_app.database.entity.Place> places = NearestPlaceService.getInstance(this)
+                    .nearestWithin(center.latitude, center.longitude, CLOSEST_PLACES_COUNT, radiusKm, searchType);
+            if (places.isEmpty()) return;
+            runOnUiThread(() -> {
+                if (markerLayer == null || isFinishing()) return;
+                markerLayer.addItems(toMapItems(places));
+            });
+        });
+    }
+
+    // Keyed like the catalog so a place reported by several sources gets a single marker
+    private List<GridClusterer.Item> toMapItems(List<com.example.trave_app.database.entity.Place> places) {
+        List<GridClusterer.Item> items = new ArrayList<>(places.size());
+        for (com.example.trave_app.database.entity.Place p : places) {
+            items.add(new GridClusterer.Item(PlaceCatalog.keyOf(p), p.getName(), p.getLatitude(), p.getLongitude()));
+        }
+        return items;
+    }
+
     private float getMarkerColor(String searchType) {
+        if (searchType == null) return BitmapDescriptorFactory.HUE_RED;
         switch (searchType) {
             case "restaurants":
                 return BitmapDescriptorFactory.HUE_RED;
@@ -3,12 +3,15 @@ package com.example.trave_app;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class PlaceAdapter extends RecyclerView.Adapter<PlaceAdapter.VH> {
 
@@ -18,6 +21,7 @@ public class PlaceAdapter extends RecyclerView.Adapter<PlaceAdapter.VH> {
 
     private List<PlaceDirectoryActivity.PlaceItem> data;
     private final OnPlaceClickListener listener;
+    private Set<String> favoritePlaceIds = Collections.emptySet();
 
     public PlaceAdapter(List<PlaceDirectoryActivity.PlaceItem> data, OnPlaceClickListener listener) {
         this.data = data;
@@ -29,6 +33,14 @@ public class PlaceAdapter extends RecyclerView.Adapter<PlaceAdapter.VH> {
         notifyDataSetChanged();
     }
 
+    /**
+     * Marks rows whose placeId is in the set (e.g. FavoriteIndex.getFavoritePlaceIds()).
+     */
+    public void setFavoritePlaceIds(Set<String> placeIds) {
+        this.favoritePlaceIds = placeIds != null ? placeIds : Collections.emptySet();
+        notifyDataSetChanged();
+    }
+
     @NonNull
     @Override
     public VH onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -39,7 +51,9 @@ public class PlaceAdapter extends RecyclerView.Adapter<PlaceAdapter.VH> {
     @Override
     public void onBindViewHolder(@NonNull VH holder, int position) {
         PlaceDirectoryActivity.PlaceItem item = data.get(position);
+        boolean favorite = item.placeId != null && favoritePlaceIds.contains(item.placeId);
         holder.txtName.setText(item.name);
+        holder.imgFavorite.setVisibility(favorite ? View.VISIBLE : View.GONE);
         String meta = capitalize(item.category) + " • " + item.state +
                 String.format(" • %.4f, %.4f", item.latitude, item.longitude);
         holder.txtMeta.setText(meta);
@@ -59,11 +73,13 @@ public class PlaceAdapter extends RecyclerView.Adapter<PlaceAdapter.VH> {
 
     static class VH extends RecyclerView.ViewHolder {
         TextView txtName, txtMeta, txtAddress;
+        ImageView imgFavorite;
         VH(@NonNull View itemView) {
             super(itemView);
             txtName = itemView.findViewById(R.id.txtName);
             txtMeta = itemView.findViewById(R.id.txtMeta);
             txtAddress = itemView.findViewById(R.id.txtAddress);
+            imgFavorite = itemView.findViewById(R.id.imgFavorite);
         }
     }
 }
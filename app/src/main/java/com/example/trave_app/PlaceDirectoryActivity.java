@@ -12,18 +12,26 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.trave_app.data.FavoriteIndex;
+import com.example.trave_app.data.pack.PlacePack;
+import com.example.trave_app.data.pack.PlacePackStore;
+import com.example.trave_app.database.TravelDatabase;
 import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.RandomAccess;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -32,6 +40,7 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
     private RecyclerView recyclerView;
     private Spinner spinnerState, spinnerCategory;
     private PlaceAdapter adapter;
+    private PlacePack pack; // null when the pack could not be built; allPlaces then holds the JSON
     private List<PlaceItem> allPlaces = new ArrayList<>();
 
     @Override
@@ -53,13 +62,29 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
         applyFilters();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Favorites may have changed on another screen; mark them in one pass
+        TravelDatabase.databaseWriteExecutor.execute(() -> {
+            Set<String> favoriteIds = FavoriteIndex.getInstance(this).getFavoritePlaceIds();
+            runOnUiThread(() -> adapter.setFavoritePlaceIds(favoriteIds));
+        });
+    }
+
     private void loadData() {
+        // With a pack, rows stay in the mapping and are turned into items only when bound
+        pack = PlacePackStore.get(this, R.raw.places_india, "places_india");
+        if (pack != null) return;
         try {
             InputStream is = getResources().openRawResource(R.raw.places_india);
             BufferedReader reader = new BufferedReader(new InputStreamReader(is));
             Type listType = new TypeToken<List<PlaceItem>>(){}.getType();
             allPlaces = new Gson().fromJson(reader, listType);
             if (allPlaces == null) allPlaces = new ArrayList<>();
+            for (PlaceItem item : allPlaces) {
+                if (item.placeId == null) item.placeId = generateId(item.category, item.name);
+            }
         } catch (Exception e) {
             allPlaces = new ArrayList<>();
         }
@@ -68,7 +93,11 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
     private void setupFilters() {
         // States
         Set<String> states = new HashSet<>();
-        for (PlaceItem p : allPlaces) states.add(p.state);
+        if (pack != null) {
+            for (int row = 0; row < pack.size(); row++) states.add(pack.state(row));
+        } else {
+            for (PlaceItem p : allPlaces) states.add(p.state);
+        }
         List<String> stateList = new ArrayList<>(states);
         Collections.sort(stateList);
         stateList.add(0, "All States");
@@ -101,6 +130,10 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
     private void applyFilters() {
         String state = (String) spinnerState.getSelectedItem();
         String category = (String) spinnerCategory.getSelectedItem();
+        if (pack != null) {
+            adapter.updateData(new PackItems(pack, filterRows(state, category)));
+            return;
+        }
         List<PlaceItem> filtered = new ArrayList<>(allPlaces);
         if (state != null && !state.equals("All States")) {
             filtered = filtered.stream().filter(p -> p.state.equalsIgnoreCase(state)).collect(Collectors.toList());
@@ -111,6 +144,23 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
         adapter.updateData(filtered);
     }
 
+    // Pack rows matching the spinners, read column by column without building items
+    private int[] filterRows(String state, String category) {
+        int[] rows;
+        if (category != null && !category.equals("All Categories")) {
+            rows = pack.rowsInCategory(category);
+        } else {
+            rows = new int[pack.size()];
+            for (int row = 0; row < rows.length; row++) rows[row] = row;
+        }
+        if (state == null || state.equals("All States")) return rows;
+        int kept = 0;
+        for (int row : rows) {
+            if (state.equalsIgnoreCase(pack.state(row))) rows[kept++] = row;
+        }
+        return Arrays.copyOf(rows, kept);
+    }
+
     @Override
     public void onPlaceClicked(PlaceItem item) {
         String label = Uri.encode(item.name);
@@ -119,7 +169,15 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
         startActivity(intent);
     }
 
+    // Stable id for rows without a place_id, in the same form as VashiPlacesProvider's
+    private static String generateId(String category, String name) {
+        String base = (category == null ? "place" : category) + "_" + (name == null ? "unknown" : name);
+        return "india_" + base.toLowerCase(Locale.US).replaceAll("[^a-z0-9]+", "_");
+    }
+
     public static class PlaceItem {
+        @SerializedName(value = "place_id", alternate = {"placeId"})
+        public String placeId; // from the row's place_id, else generated; used to mark favorites
         public String name;
         public String category; // beach, hotel, restaurant, park
         public String state; // e.g., Maharashtra
@@ -127,4 +185,35 @@ public class PlaceDirectoryActivity extends AppCompatActivity implements PlaceAd
         public double longitude;
         public String address;
     }
+
+    // Read-only list over pack rows; an item is decoded each time the adapter asks for it
+    private static final class PackItems extends AbstractList<PlaceItem> implements RandomAccess {
+        private final PlacePack pack;
+        private final int[] rows;
+
+        PackItems(PlacePack pack, int[] rows) {
+            this.pack = pack;
+            this.rows = rows;
+        }
+
+        @Override
+        public PlaceItem get(int index) {
+            int row = rows[index];
+            PlaceItem item = new PlaceItem();
+            item.placeId = pack.placeId(row);
+            item.name = pack.name(row);
+            item.category = pack.category(row);
+            item.state = pack.state(row);
+            item.latitude = pack.latitude(row);
+            item.longitude = pack.longitude(row);
+            item.address = pack.address(row);
+            if (item.placeId == null) item.placeId = generateId(item.category, item.name);
+            return item;
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.trave_app.chatbot.service;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+
+import androidx.core.content.ContextCompat;
+
+import com.example.trave_app.geo.GeoPoint;
+import com.example.trave_app.geo.LocalityIndex;
+import com.example.trave_app.ml.index.KeywordDictionary;
+import com.google.android.gms.location.LocationServices;
+
+/**
+ * Decides which neighbourhood a chatbot answer is about, shared by the Gemini and local
+ * assistants. The user's last known location is requested once, when the resolver is created.
+ */
+final class AreaResolver {
+    private final Context context;
+    private final LocalityIndex localityIndex;
+    private volatile GeoPoint userLocation;
+
+    AreaResolver(Context context) {
+        this.context = context.getApplicationContext();
+        this.localityIndex = LocalityIndex.getInstance(context);
+        requestUserLocation();
+    }
+
+    /**
+     * The area named in the message wins; a message about the whole city gets null (city-wide)
+     * rather than the user's current neighbourhood; otherwise the area the user is in, if known.
+     */
+    LocalityIndex.Locality resolve(KeywordDictionary.Matches matches) {
+        LocalityIndex.Locality named = matches.locality;
+        if (named != null) return named;
+        if (matches.mentionsCity) return null;
+        GeoPoint location = userLocation;
+        return location != null ? localityIndex.localityAt(location.latitude, location.longitude) : null;
+    }
+
+    private void requestUserLocation() {
+        if (ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        LocationServices.getFusedLocationProviderClient(context).getLastLocation()
+                .addOnSuccessListener(location -> {
+                    if (location != null) {
+                        userLocation = new GeoPoint(location.getLatitude(), location.getLongitude());
+                    }
+                });
+    }
+}
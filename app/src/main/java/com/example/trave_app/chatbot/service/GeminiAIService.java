@@ -7,7 +7,10 @@ import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.SearchHistory;
 import com.example.trave_app.ml.engine.TravelRecommendationEngine;
 import com.example.trave_app.ml.service.IntelligentSearchService;
+import com.example.trave_app.ml.util.TopK;
 import com.example.trave_app.data.VashiPlacesProvider;
+import com.example.trave_app.geo.LocalityIndex;
+import com.example.trave_app.ml.index.KeywordDictionary;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
@@ -31,12 +34,17 @@ public class GeminiAIService {
     // Gemini API key (provided by user)
     // Get your API key from: https://makersuite.google.com/app/apikey
     private static final String API_KEY = "YOUR_GEMINI_API_KEY_HERE";
+    // Categories supported by the Navi Mumbai dataset
+    private static final String[] LISTED_CATEGORIES = {"hotels", "hostels", "restaurants", "cafes", "parks", "malls"};
     
     private final OkHttpClient client;
     private final Gson gson;
     private final Context context;
     private final TravelRecommendationEngine mlEngine;
     private final IntelligentSearchService searchService;
+    private final LocalityIndex localityIndex;
+    private final KeywordDictionary keywords;
+    private final AreaResolver areaResolver;
 
     public GeminiAIService(Context context) {
         this.context = context;
@@ -49,6 +57,9 @@ public class GeminiAIService {
         this.gson = new Gson();
         this.mlEngine = TravelRecommendationEngine.getInstance(context);
         this.searchService = IntelligentSearchService.getInstance(context);
+        this.localityIndex = LocalityIndex.getInstance(context);
+        this.keywords = KeywordDictionary.getInstance(context);
+        this.areaResolver = new AreaResolver(context);
     }
 
     // Try to list models and pick an available one
@@ -94,8 +105,9 @@ public class GeminiAIService {
 
         // Deterministic local handler: Navi Mumbai category requests
         try {
-            if (isNaviMumbaiPlaceRequest(lowerMsg)) {
-                String localResponse = buildNaviMumbaiResponse(lowerMsg);
+            KeywordDictionary.Matches matches = keywords.match(lowerMsg);
+            if (isNaviMumbaiPlaceRequest(matches)) {
+                String localResponse = buildNaviMumbaiResponse(matches);
                 if (localResponse != null && !localResponse.isEmpty()) {
                     callback.onSuccess(localResponse);
                     return;
@@ -149,48 +161,30 @@ public class GeminiAIService {
     }
 
     // Detect if the user asks for Navi Mumbai places or generic place recommendations
-    private boolean isNaviMumbaiPlaceRequest(String lowerMsg) {
-        if (lowerMsg == null) return false;
-
-        boolean mentionsLocation = lowerMsg.contains("navi mumbai") || lowerMsg.contains("navimumbai")
-                || lowerMsg.contains("vashi") || lowerMsg.contains("seawoods")
-                || lowerMsg.contains("nerul") || lowerMsg.contains("juinagar")
-                || lowerMsg.contains("turbhe") || lowerMsg.contains("kopar khairane")
-                || lowerMsg.contains("ghansoli") || lowerMsg.contains("airoli");
-
-        boolean mentionsCategory = lowerMsg.contains("hotel") || lowerMsg.contains("hostel")
-                || lowerMsg.contains("restaurant") || lowerMsg.contains("cafe")
-                || lowerMsg.contains("park") || lowerMsg.contains("mall")
-                || lowerMsg.contains("eat") || lowerMsg.contains("food")
-                || lowerMsg.contains("place to stay") || lowerMsg.contains("accommodation")
-                || lowerMsg.contains("recommend") || lowerMsg.contains("suggest")
-                || lowerMsg.contains("prefer") || lowerMsg.contains("list")
-                || lowerMsg.contains("show") || lowerMsg.contains("give");
+    private boolean isNaviMumbaiPlaceRequest(KeywordDictionary.Matches matches) {
+        boolean mentionsLocation = matches.mentionsCity || matches.locality != null;
+
+        boolean mentionsCategory = matches.hasIntent("recommend");
+        for (String category : LISTED_CATEGORIES) {
+            mentionsCategory |= matches.categories.contains(category);
+        }
 
         // Requirement: Prefer Navi Mumbai in normal chatbot. If user asks generic categories, still serve Navi Mumbai.
         return mentionsCategory || mentionsLocation;
     }
 
     // Build a formatted response listing top Navi Mumbai places per requested category
-    private String buildNaviMumbaiResponse(String lowerMsg) {
-        // Categories supported by dataset
-        String[] allCategories = new String[]{"hotels", "hostels", "restaurants", "cafes", "parks", "malls"};
-
+    private String buildNaviMumbaiResponse(KeywordDictionary.Matches matches) {
         // Determine requested categories
         List<String> requested = new ArrayList<>();
-        for (String c : allCategories) {
-            if (lowerMsg.contains(c) || (c.equals("cafes") && lowerMsg.contains("cafe"))
-                    || (c.equals("hotels") && lowerMsg.contains("hotel"))
-                    || (c.equals("restaurants") && lowerMsg.contains("restaurant"))
-                    || (c.equals("parks") && lowerMsg.contains("park"))
-                    || (c.equals("malls") && lowerMsg.contains("mall"))
-                    || (c.equals("hostels") && lowerMsg.contains("hostel"))) {
+        for (String c : LISTED_CATEGORIES) {
+            if (matches.categories.contains(c)) {
                 requested.add(c);
             }
         }
         if (requested.isEmpty()) {
             // If no specific category, provide all by default as per requirement
-            Collections.addAll(requested, allCategories);
+            Collections.addAll(requested, LISTED_CATEGORIES);
         }
 
         // Emoji/title map
@@ -203,8 +197,14 @@ public class GeminiAIService {
         titleMap.put("malls", "🛍️ Malls");
 
         StringBuilder sb = new StringBuilder();
-        sb.append("📍 Navi Mumbai Recommendations\n\n");
-        sb.append("Here are top places I can suggest in Navi Mumbai (Vashi/nearby):\n\n");
+        LocalityIndex.Locality area = areaResolver.resolve(matches);
+        if (area != null) {
+            sb.append("📍 ").append(area.name).append(" Recommendations\n\n");
+            sb.append("Here are places I can suggest in ").append(area.name).append(":\n\n");
+        } else {
+            sb.append("📍 Navi Mumbai Recommendations\n\n");
+            sb.append("Here are top places I can suggest in Navi Mumbai (Vashi/nearby):\n\n");
+        }
 
         int categoriesIncluded = 0;
         for (String cat : requested) {
@@ -214,9 +214,13 @@ public class GeminiAIService {
             } catch (Exception e) {
                 list = new ArrayList<>();
             }
+            if (area != null && list != null) {
+                list = localityIndex.placesIn(area, list);
+            }
             if (list == null || list.isEmpty()) continue; // skip empty categories (e.g., hostels if none)
 
-            // Sort by rating desc, then name
+            // Sort by rating desc, then name, on a copy: the provider's list is read-only
+            list = new ArrayList<>(list);
             list.sort(new Comparator<Place>() {
                 @Override
                 public int compare(Place a, Place b) {
@@ -248,15 +252,15 @@ public class GeminiAIService {
             // Fallback to all places if category filtering produced nothing
             List<Place> all = VashiPlacesProvider.getAllPlaces(context);
             if (all == null || all.isEmpty()) return null;
-            all.sort(new Comparator<Place>() {
-                @Override
-                public int compare(Place a, Place b) {
-                    return Float.compare(b.getRating(), a.getRating());
-                }
-            });
-            sb.append("Top places in Navi Mumbai:\n\n");
-            int limit = Math.min(10, all.size());
-            for (int i = 0; i < limit; i++) {
+            String scopeName = "Navi Mumbai";
+            List<Place> inArea = area != null ? localityIndex.placesIn(area, all) : all;
+            if (!inArea.isEmpty() && inArea != all) {
+                all = inArea;
+                scopeName = area.name;
+            }
+            all = TopK.select(all, 10, Place::getRating);
+            sb.append("Top places in ").append(scopeName).append(":\n\n");
+            for (int i = 0; i < all.size(); i++) {
                 Place p = all.get(i);
                 sb.append(i + 1).append(". ")
                   .append(p.getName() == null ? "(Unnamed)" : p.getName())
@@ -524,7 +528,19 @@ public class GeminiAIService {
                     .trim();
             
             if (!query.isEmpty()) {
-                List<Place> searchResults = searchService.performIntelligentSearch(query, places, 5);
+                // The chat screen doesn't hand over a place list; search the whole catalog then
+                List<Place> searchResults;
+                if (places.isEmpty()) {
+                    IntelligentSearchService.SearchOutcome outcome =
+                            searchService.performIntelligentSearchWithSuggestion(query, 5);
+                    searchResults = outcome.places;
+                    if (outcome.didYouMean != null) {
+                        response.append("Did you mean \"").append(outcome.didYouMean).append("\"? ");
+                        query = outcome.didYouMean;
+                    }
+                } else {
+                    searchResults = searchService.performIntelligentSearch(query, places, 5);
+                }
                 
                 if (!searchResults.isEmpty()) {
                     response.append("Found ").append(searchResults.size()).append(" results for \"").append(query).append("\":\n\n");
@@ -6,6 +6,9 @@ import android.util.Log;
 
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.data.VashiPlacesProvider;
+import com.example.trave_app.geo.LocalityIndex;
+import com.example.trave_app.ml.index.KeywordDictionary;
+import com.example.trave_app.ml.util.TopK;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
@@ -30,6 +33,17 @@ import java.util.LinkedHashMap;
 public class LocalTravelAssistantService {
     private static final String TAG = "LocalTAService";
     private static final String ASSET_FILE = "travel_faq.json";
+    private static final String[] LISTED_CATEGORIES = {"hotels", "hostels", "restaurants", "cafes", "parks", "malls"};
+
+    // Tie-break for equally rated places in listings
+    private static final Comparator<Place> BY_NAME = new Comparator<Place>() {
+        @Override
+        public int compare(Place a, Place b) {
+            String na = a.getName() == null ? "" : a.getName();
+            String nb = b.getName() == null ? "" : b.getName();
+            return na.compareToIgnoreCase(nb);
+        }
+    };
 
     public static class QAItem {
         public String q;
@@ -40,11 +54,17 @@ public class LocalTravelAssistantService {
     private final Context context;
     private final Gson gson;
     private List<QAItem> kb;
+    private final LocalityIndex localityIndex;
+    private final KeywordDictionary keywords;
+    private final AreaResolver areaResolver;
 
     public LocalTravelAssistantService(Context context) {
         this.context = context.getApplicationContext();
         this.gson = new Gson();
+        this.localityIndex = LocalityIndex.getInstance(context);
+        this.keywords = KeywordDictionary.getInstance(context);
         loadKnowledgeBase();
+        this.areaResolver = new AreaResolver(context);
     }
 
     private void loadKnowledgeBase() {
@@ -80,8 +100,9 @@ public class LocalTravelAssistantService {
 
         // Deterministic local handler for Navi Mumbai categories
         try {
-            if (isNaviMumbaiPlaceRequest(q)) {
-                String resp = buildNaviMumbaiResponse(q);
+            KeywordDictionary.Matches matches = keywords.match(q);
+            if (isNaviMumbaiPlaceRequest(matches)) {
+                String resp = buildNaviMumbaiResponse(matches);
                 if (resp != null && !resp.isEmpty()) return resp;
             }
         } catch (Exception e) {
@@ -92,53 +113,37 @@ public class LocalTravelAssistantService {
             return "Travel Assistant knowledge base is empty. Please add entries to travel_faq.json.";
         }
         // Score each QAItem by keyword overlap
-        List<Scored> scored = new ArrayList<>();
+        TopK<QAItem> best = new TopK<>(1);
         for (QAItem item : kb) {
             int score = score(q, item);
-            if (score > 0) scored.add(new Scored(item, score));
+            if (score > 0) best.offer(item, score);
         }
-        if (scored.isEmpty()) {
+        if (best.size() == 0) {
             return "I couldn't find an exact match. Try asking more specifically (e.g., 'best cafes near city center' or 'budget hostels with wifi').";
         }
-        Collections.sort(scored, Comparator.comparingInt((Scored s) -> s.score).reversed());
-        return scored.get(0).item.a;
+        // Ties go to the earlier entry, as with the stable sort this replaced
+        return best.toList().get(0).a;
     }
 
-    private boolean isNaviMumbaiPlaceRequest(String lowerMsg) {
-        if (lowerMsg == null) return false;
-        boolean mentionsLocation = lowerMsg.contains("navi mumbai") || lowerMsg.contains("navimumbai")
-                || lowerMsg.contains("vashi") || lowerMsg.contains("seawoods")
-                || lowerMsg.contains("nerul") || lowerMsg.contains("juinagar")
-                || lowerMsg.contains("turbhe") || lowerMsg.contains("kopar khairane")
-                || lowerMsg.contains("ghansoli") || lowerMsg.contains("airoli");
+    private boolean isNaviMumbaiPlaceRequest(KeywordDictionary.Matches matches) {
+        boolean mentionsLocation = matches.mentionsCity || matches.locality != null;
 
-        boolean mentionsCategory = lowerMsg.contains("hotel") || lowerMsg.contains("hostel")
-                || lowerMsg.contains("restaurant") || lowerMsg.contains("cafe")
-                || lowerMsg.contains("park") || lowerMsg.contains("mall")
-                || lowerMsg.contains("eat") || lowerMsg.contains("food")
-                || lowerMsg.contains("place to stay") || lowerMsg.contains("accommodation")
-                || lowerMsg.contains("recommend") || lowerMsg.contains("suggest")
-                || lowerMsg.contains("prefer") || lowerMsg.contains("list")
-                || lowerMsg.contains("show") || lowerMsg.contains("give");
+        boolean mentionsCategory = matches.hasIntent("recommend");
+        for (String category : LISTED_CATEGORIES) {
+            mentionsCategory |= matches.categories.contains(category);
+        }
         return mentionsCategory || mentionsLocation;
     }
 
-    private String buildNaviMumbaiResponse(String lowerMsg) {
-        String[] allCategories = new String[]{"hotels", "hostels", "restaurants", "cafes", "parks", "malls"};
-
+    private String buildNaviMumbaiResponse(KeywordDictionary.Matches matches) {
         List<String> requested = new ArrayList<>();
-        for (String c : allCategories) {
-            if (lowerMsg.contains(c) || (c.equals("cafes") && lowerMsg.contains("cafe"))
-                    || (c.equals("hotels") && lowerMsg.contains("hotel"))
-                    || (c.equals("restaurants") && lowerMsg.contains("restaurant"))
-                    || (c.equals("parks") && lowerMsg.contains("park"))
-                    || (c.equals("malls") && lowerMsg.contains("mall"))
-                    || (c.equals("hostels") && lowerMsg.contains("hostel"))) {
+        for (String c : LISTED_CATEGORIES) {
+            if (matches.categories.contains(c)) {
                 requested.add(c);
             }
         }
         if (requested.isEmpty()) {
-            Collections.addAll(requested, allCategories);
+            Collections.addAll(requested, LISTED_CATEGORIES);
         }
 
         Map<String, String> titleMap = new LinkedHashMap<>();
@@ -150,8 +155,14 @@ public class LocalTravelAssistantService {
         titleMap.put("malls", "🛍️ Malls");
 
         StringBuilder sb = new StringBuilder();
-        sb.append("📍 Navi Mumbai Recommendations\n\n");
-        sb.append("Here are places I can suggest in Navi Mumbai (Vashi/nearby):\n\n");
+        LocalityIndex.Locality area = areaResolver.resolve(matches);
+        if (area != null) {
+            sb.append("📍 ").append(area.name).append(" Recommendations\n\n");
+            sb.append("Here are places I can suggest in ").append(area.name).append(":\n\n");
+        } else {
+            sb.append("📍 Navi Mumbai Recommendations\n\n");
+            sb.append("Here are places I can suggest in Navi Mumbai (Vashi/nearby):\n\n");
+        }
 
         int categoriesIncluded = 0;
         for (String cat : requested) {
@@ -161,23 +172,16 @@ public class LocalTravelAssistantService {
             } catch (Exception e) {
                 list = new ArrayList<>();
             }
+            if (area != null && list != null) {
+                list = localityIndex.placesIn(area, list);
+            }
             if (list == null || list.isEmpty()) continue;
 
-            // Sort by rating desc, then name
-            list.sort(new Comparator<Place>() {
-                @Override
-                public int compare(Place a, Place b) {
-                    int r = Float.compare(b.getRating(), a.getRating());
-                    if (r != 0) return r;
-                    String na = a.getName() == null ? "" : a.getName();
-                    String nb = b.getName() == null ? "" : b.getName();
-                    return na.compareToIgnoreCase(nb);
-                }
-            });
+            // Top 5 by rating desc, then name; the provider's list is left unsorted
+            list = TopK.select(list, 5, Place::getRating, BY_NAME);
 
-            sb.append("**").append(titleMap.get(cat)).append(" (" ).append(Math.min(5, list.size())).append(")**\n");
-            int limit = Math.min(5, list.size());
-            for (int i = 0; i < limit; i++) {
+            sb.append("**").append(titleMap.get(cat)).append(" (" ).append(list.size()).append(")**\n");
+            for (int i = 0; i < list.size(); i++) {
                 Place p = list.get(i);
                 sb.append(i + 1).append(". ")
                   .append(p.getName() == null ? "(Unnamed)" : p.getName())
@@ -194,15 +198,15 @@ public class LocalTravelAssistantService {
         if (categoriesIncluded == 0) {
             List<Place> all = VashiPlacesProvider.getAllPlaces(context);
             if (all == null || all.isEmpty()) return null;
-            all.sort(new Comparator<Place>() {
-                @Override
-                public int compare(Place a, Place b) {
-                    return Float.compare(b.getRating(), a.getRating());
-                }
-            });
-            sb.append("Top places in Navi Mumbai:\n\n");
-            int limit = Math.min(10, all.size());
-            for (int i = 0; i < limit; i++) {
+            String scopeName = "Navi Mumbai";
+            List<Place> inArea = area != null ? localityIndex.placesIn(area, all) : all;
+            if (!inArea.isEmpty() && inArea != all) {
+                all = inArea;
+                scopeName = area.name;
+            }
+            all = TopK.select(all, 10, Place::getRating);
+            sb.append("Top places in ").append(scopeName).append(":\n\n");
+            for (int i = 0; i < all.size(); i++) {
                 Place p = all.get(i);
                 sb.append(i + 1).append(". ")
                   .append(p.getName() == null ? "(Unnamed)" : p.getName())
@@ -219,10 +223,6 @@ public class LocalTravelAssistantService {
         return sb.toString();
     }
 
-    private static class Scored {
-        QAItem item; int score; Scored(QAItem i, int s){item=i;score=s;}
-    }
-
     private int score(String q, QAItem item) {
         int s = 0;
         // Keyword overlap with question
@@ -0,0 +1,104 @@
+package com.example.trave_app.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.entity.Favorite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory favorites keyed by placeId.
+ * Loaded lazily from FavoriteDao and kept in sync by the code paths that write to it
+ * (TravelRepository, DataSyncService), so joins against place lists are one hash lookup per
+ * place and list screens can mark favorites in bulk instead of querying per row.
+ */
+public class FavoriteIndex {
+    private static final String TAG = "FavoriteIndex";
+    private static FavoriteIndex instance;
+
+    private final TravelDatabase database;
+    private final Map<String, Favorite> favoritesByPlaceId = new HashMap<>();
+    private Set<String> placeIdSnapshot; // rebuilt lazily after a change
+    private boolean loaded = false;
+
+    private FavoriteIndex(Context context) {
+        this.database = TravelDatabase.getDatabase(context);
+    }
+
+    public static synchronized FavoriteIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new FavoriteIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Must not be called on the main thread the first time (reads the database)
+    public synchronized void ensureLoaded() {
+        if (loaded) return;
+        favoritesByPlaceId.clear();
+        for (Favorite favorite : database.favoriteDao().getAllFavoritesSync()) {
+            if (favorite.getPlaceId() != null) {
+                favoritesByPlaceId.put(favorite.getPlaceId(), favorite);
+            }
+        }
+        placeIdSnapshot = null;
+        loaded = true;
+        Log.d(TAG, "Loaded " + favoritesByPlaceId.size() + " favorites into index");
+    }
+
+    // Write hooks - call after the corresponding FavoriteDao write has completed
+
+    public synchronized void onFavoriteUpserted(Favorite favorite) {
+        if (!loaded || favorite == null || favorite.getPlaceId() == null) return;
+        favoritesByPlaceId.put(favorite.getPlaceId(), favorite);
+        placeIdSnapshot = null;
+    }
+
+    public synchronized void onFavoriteDeleted(String placeId) {
+        if (!loaded || placeId == null) return;
+        if (favoritesByPlaceId.remove(placeId) != null) {
+            placeIdSnapshot = null;
+        }
+    }
+
+    public synchronized void onAllFavoritesDeleted() {
+        if (!loaded) return;
+        favoritesByPlaceId.clear();
+        placeIdSnapshot = null;
+    }
+
+    // Queries
+
+    public synchronized Favorite get(String placeId) {
+        ensureLoaded();
+        return placeId != null ? favoritesByPlaceId.get(placeId) : null;
+    }
+
+    public synchronized boolean isFavorite(String placeId) {
+        return get(placeId) != null;
+    }
+
+    /**
+     * Immutable snapshot of the favorite placeIds, shared until the next change.
+     */
+    public synchronized Set<String> getFavoritePlaceIds() {
+        ensureLoaded();
+        if (placeIdSnapshot == null) {
+            placeIdSnapshot = Collections.unmodifiableSet(new HashSet<>(favoritesByPlaceId.keySet()));
+        }
+        return placeIdSnapshot;
+    }
+
+    public synchronized List<Favorite> getAllFavorites() {
+        ensureLoaded();
+        return new ArrayList<>(favoritesByPlaceId.values());
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.trave_app.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.geo.CellIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory mirror of the places table.
+ * Loaded lazily from PlaceDao on first use and kept in sync by the code paths that write
+ * to PlaceDao (TravelRepository, DataSyncService), so hot paths like the real-time detector
+ * never have to scan the table.
+ */
+public class PlaceCatalog {
+    private static final String TAG = "PlaceCatalog";
+    private static PlaceCatalog instance;
+
+    /**
+     * Receives catalog changes. Callbacks run on the writing thread while the catalog lock is held.
+     */
+    public interface Listener {
+        void onCatalogReset(List<Place> places);
+        void onPlaceUpserted(String placeId, Place place);
+        void onPlaceRemoved(String placeId, Place place);
+    }
+
+    private final TravelDatabase database;
+    private final Map<String, Place> placesById = new LinkedHashMap<>();
+    // Normalized text per place, rebuilt whenever its place is upserted
+    private final Map<String, PlaceDocument> documentsById = new LinkedHashMap<>();
+    private final CellIndex spatialIndex = new CellIndex();
+    // Key each row is stored under, so a row whose place_id changes leaves its old key
+    private final Map<Integer, String> keysByRowId = new HashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private boolean loaded = false;
+    // Bumped by every change to the catalog's places, for caches of results derived from them
+    private volatile long version = 0;
+
+    private PlaceCatalog(Context context) {
+        this.database = TravelDatabase.getDatabase(context);
+    }
+
+    public static synchronized PlaceCatalog getInstance(Context context) {
+        if (instance == null) {
+            instance = new PlaceCatalog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * The place_id, or "row_" + the row id for places without one. Writers must set the row id
+     * PlaceDao.insert returns on the entity before notifying the catalog.
+     */
+    public static String keyOf(Place place) {
+        return place.getPlaceId() != null ? place.getPlaceId() : "row_" + place.getId();
+    }
+
+    // Must not be called on the main thread the first time (reads the database)
+    public synchronized void ensureLoaded() {
+        if (loaded) return;
+        List<Place> rows = database.placeDao().getAllPlacesSync();
+        placesById.clear();
+        documentsById.clear();
+        spatialIndex.clear();
+        keysByRowId.clear();
+        for (Place place : rows) {
+            String key = keyOf(place);
+            keysByRowId.put(place.getId(), key);
+            placesById.put(key, place);
+            documentsById.put(key, PlaceDocument.of(place));
+            spatialIndex.put(key, place);
+        }
+        loaded = true;
+        version++;
+        Log.d(TAG, "Loaded " + placesById.size() + " places into catalog");
+        List<Place> snapshot = new ArrayList<>(placesById.values());
+        for (Listener listener : listeners) {
+            listener.onCatalogReset(snapshot);
+        }
+    }
+
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (loaded) {
+            listener.onCatalogReset(new ArrayList<>(placesById.values()));
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Write hooks - call after the corresponding PlaceDao write has completed
+
+    public synchronized void onPlaceUpserted(Place place) {
+        if (!loaded || place == null) return;
+        String key = keyOf(place);
+        String previousKey = keysByRowId.put(place.getId(), key);
+        if (previousKey != null && !previousKey.equals(key)) {
+            removeKey(previousKey);
+        }
+        placesById.put(key, place);
+        documentsById.put(key, PlaceDocument.of(place));
+        spatialIndex.put(key, place);
+        version++;
+        for (Listener listener : listeners) {
+            listener.onPlaceUpserted(key, place);
+        }
+    }
+
+    public synchronized void onPlacesUpserted(List<Place> places) {
+        if (!loaded || places == null) return;
+        for (Place place : places) {
+            onPlaceUpserted(place);
+        }
+    }
+
+    public synchronized void onPlaceDeleted(Place place) {
+        if (!loaded || place == null) return;
+        String key = keysByRowId.remove(place.getId());
+        removeKey(key != null ? key : keyOf(place));
+    }
+
+    private void removeKey(String key) {
+        Place removed = placesById.remove(key);
+        if (removed == null) return;
+        documentsById.remove(key);
+        spatialIndex.remove(key);
+        version++;
+        for (Listener listener : listeners) {
+            listener.onPlaceRemoved(key, removed);
+        }
+    }
+
+    public synchronized void onFavoriteStatusChanged(String placeId, boolean isFavorite) {
+        if (!loaded) return;
+        Place place = placesById.get(placeId);
+        if (place != null) {
+            place.setFavorite(isFavorite);
+        }
+    }
+
+    public synchronized void onAllPlacesDeleted() {
+        if (!loaded) return;
+        placesById.clear();
+        documentsById.clear();
+        spatialIndex.clear();
+        keysByRowId.clear();
+        version++;
+        for (Listener listener : listeners) {
+            listener.onCatalogReset(new ArrayList<>());
+        }
+    }
+
+    // Queries
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The proximity query for every caller: places within radiusKm of the point, for any radius.
+     */
+    public List<Place> getPlacesWithinRadius(double latitude, double longitude, double radiusKm) {
+        return getPlacesWithinRadius(latitude, longitude, radiusKm, null);
+    }
+
+    // Same, restricted to one category (case-insensitive); null means all categories
+    public List<Place> getPlacesWithinRadius(double latitude, double longitude, double radiusKm, String category) {
+        ensureLoaded();
+        return spatialIndex.queryRadius(latitude, longitude, radiusKm, category);
+    }
+
+    public synchronized List<Place> getAllPlaces() {
+        ensureLoaded();
+        return new ArrayList<>(placesById.values());
+    }
+
+    public synchronized List<PlaceDocument> getAllDocuments() {
+        ensureLoaded();
+        return new ArrayList<>(documentsById.values());
+    }
+
+    public synchronized PlaceDocument getDocument(String placeId) {
+        ensureLoaded();
+        return documentsById.get(placeId);
+    }
+
+    /**
+     * Documents for places from any source, in the same order: the catalog's own where its text
+     * still matches, otherwise built fresh. Never reads the database, so safe on the main thread.
+     */
+    public synchronized List<PlaceDocument> getDocuments(List<Place> places) {
+        List<PlaceDocument> documents = new ArrayList<>(places.size());
+        for (Place place : places) {
+            PlaceDocument document = loaded ? documentsById.get(keyOf(place)) : null;
+            documents.add(document != null && document.matches(place) ? document : PlaceDocument.of(place));
+        }
+        return documents;
+    }
+
+    public synchronized Place getPlace(String placeId) {
+        ensureLoaded();
+        return placesById.get(placeId);
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return placesById.size();
+    }
+}
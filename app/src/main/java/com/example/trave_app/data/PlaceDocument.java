@@ -0,0 +1,103 @@
+package com.example.trave_app.data;
+
+import com.example.trave_app.database.entity.Place;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The searchable form of a place: its text fields normalized once, so search and
+ * recommendation scoring never lowercase or split place strings per query.
+ *
+ * Immutable. PlaceCatalog builds one when a place enters the catalog and replaces it when the
+ * place is upserted again; {@link PlaceCatalog#getDocuments} serves places from elsewhere.
+ */
+public final class PlaceDocument {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Category ids are shared by every document and only ever grow
+    private static final Map<String, Integer> categoryIds = new HashMap<>();
+    private static volatile String[] categoryNames = new String[0];
+
+    public final Place place;
+    public final String name;         // lowercased, null when the place has no name
+    public final String[] nameTokens; // name split on whitespace, empty when there is no name
+    public final String category;     // lowercased, null when the place has no category
+    public final int categoryId;      // interned from the category as stored, see categoryName
+    public final String address;      // lowercased and ASCII-folded, "" when missing
+    public final String searchText;   // folded name, category and address for the trigram index
+
+    private PlaceDocument(Place place) {
+        this.place = place;
+        String rawName = place.getName();
+        this.name = rawName == null ? null : rawName.toLowerCase(Locale.ROOT);
+        this.nameTokens = name == null ? new String[0] : WHITESPACE.split(name);
+        String rawCategory = place.getCategory();
+        this.category = rawCategory == null ? null : rawCategory.toLowerCase(Locale.ROOT);
+        this.categoryId = internCategory(rawCategory);
+        this.address = fold(place.getAddress());
+        this.searchText = fold(rawName) + ' ' + fold(rawCategory) + ' ' + address;
+    }
+
+    public static PlaceDocument of(Place place) {
+        return new PlaceDocument(place);
+    }
+
+    /**
+     * Whether this document still describes the place's text, e.g. for a copy of a catalog
+     * place loaded separately from the database.
+     */
+    public boolean matches(Place other) {
+        return other == place
+                || (Objects.equals(other.getName(), place.getName())
+                && Objects.equals(other.getCategory(), place.getCategory())
+                && Objects.equals(other.getAddress(), place.getAddress()));
+    }
+
+    /**
+     * Lowercase with accents stripped, so "Café" and "cafe" compare equal.
+     */
+    public static String fold(String text) {
+        if (text == null) return "";
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7f) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower; // plain ASCII, nothing to fold
+    }
+
+    // Category ids
+
+    /**
+     * Number of category ids handed out so far; arrays of this length can hold a value per
+     * category. Documents created later may carry larger ids.
+     */
+    public static int categoryCount() {
+        return categoryNames.length;
+    }
+
+    // The category exactly as stored on the place (may be null)
+    public static String categoryName(int categoryId) {
+        return categoryNames[categoryId];
+    }
+
+    private static synchronized int internCategory(String category) {
+        Integer id = categoryIds.get(category);
+        if (id == null) {
+            id = categoryNames.length;
+            categoryIds.put(category, id);
+            String[] names = Arrays.copyOf(categoryNames, id + 1);
+            names[id] = category;
+            categoryNames = names;
+        }
+        return id;
+    }
+}
@@ -4,6 +4,8 @@ import android.content.Context;
 import android.text.TextUtils;
 
 import com.example.trave_app.R;
+import com.example.trave_app.data.pack.PlacePack;
+import com.example.trave_app.data.pack.PlacePackStore;
 import com.example.trave_app.database.entity.Place;
 
 import org.json.JSONArray;
@@ -13,19 +15,32 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.RandomAccess;
 
 public class VashiPlacesProvider {
 
+    private static final float DEFAULT_RATING = 4.0f;
+
     public static List<Place> getAllPlaces(Context context) {
-        return loadFromRaw(context);
+        PlacePack pack = PlacePackStore.get(context, R.raw.places_vashi, "places_vashi");
+        if (pack == null) return loadFromRaw(context);
+        int[] rows = new int[pack.size()];
+        for (int row = 0; row < rows.length; row++) rows[row] = row;
+        return new PackPlaces(pack, rows);
     }
 
     public static List<Place> getPlacesByCategory(Context context, String category) {
+        if (TextUtils.isEmpty(category)) return getAllPlaces(context);
+        PlacePack pack = PlacePackStore.get(context, R.raw.places_vashi, "places_vashi");
+        if (pack != null) {
+            // Only the rows of this category are read from the mapped pack
+            return new PackPlaces(pack, pack.rowsInCategory(category));
+        }
         List<Place> all = loadFromRaw(context);
-        if (TextUtils.isEmpty(category)) return all;
         String wanted = category.toLowerCase(Locale.US);
         List<Place> filtered = new ArrayList<>();
         for (Place p : all) {
@@ -36,6 +51,39 @@ public class VashiPlacesProvider {
         return filtered;
     }
 
+    /**
+     * Read-only list over pack rows. A Place is decoded each time get() is called, so callers
+     * that scan once hold no rows; copy the list to keep stable instances.
+     */
+    private static final class PackPlaces extends AbstractList<Place> implements RandomAccess {
+        private final PlacePack pack;
+        private final int[] rows;
+        private final long createdAt = System.currentTimeMillis();
+
+        PackPlaces(PlacePack pack, int[] rows) {
+            this.pack = pack;
+            this.rows = rows;
+        }
+
+        @Override
+        public Place get(int index) {
+            int row = rows[index];
+            String name = pack.name(row);
+            String category = pack.category(row);
+            String placeId = pack.placeId(row);
+            float rating = pack.rating(row);
+            return new Place(placeId != null ? placeId : generateId(category, name), name, category,
+                    pack.latitude(row), pack.longitude(row), pack.address(row),
+                    Float.isNaN(rating) ? DEFAULT_RATING : rating, false, createdAt);
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+
+    // Fallback when the pack cannot be built: parse the JSON directly
     private static List<Place> loadFromRaw(Context context) {
         List<Place> places = new ArrayList<>();
         try {
@@ -57,7 +105,8 @@ public class VashiPlacesProvider {
                 double lon = obj.optDouble("longitude");
                 String address = obj.optString("address");
                 float rating = (float) obj.optDouble("rating", 4.0);
-                String placeId = generateId(category, name);
+                String placeId = obj.optString("place_id", null);
+                if (TextUtils.isEmpty(placeId)) placeId = generateId(category, name);
                 Place place = new Place(placeId, name, category, lat, lon, address, rating, false, now);
                 places.add(place);
             }
@@ -0,0 +1,235 @@
+package com.example.trave_app.data.pack;
+
+import com.example.trave_app.geo.GeoMath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a memory-mapped place pack written by PlacePackWriter.
+ *
+ * Layout (little endian):
+ * header (48 bytes): magic, version, source stamp, row count, cell size in micro-degrees,
+ *   string count, and the offsets of the sections below;
+ * columns: latE6[n], lonE6[n], nameId[n], categoryId[n], stateId[n], addressId[n], placeIdId[n] (int)
+ *   and ratingCenti[n] (short), one fixed-width array per field;
+ * string table: offsets[count + 1] into a UTF-8 blob, each distinct string stored once;
+ * category index: (stringId, start, count) per category over a row-id postings array;
+ * cell index: sorted cell keys with start offsets over a row-id postings array.
+ *
+ * Rows are read field by field straight from the mapping; only strings that are actually
+ * asked for are decoded, and they are cached.
+ */
+public class PlacePack {
+    static final int MAGIC = 0x4B504C50; // "PLPK"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 48;
+    static final int ROW_COLUMNS_SIZE = 7 * 4 + 2;
+    static final int NO_STRING = -1;
+    static final short NO_RATING = -1;
+
+    private final ByteBuffer buffer;
+    private final long sourceStamp;
+    private final int rowCount;
+    private final int cellSizeE6;
+    private final int stringCount;
+    private final int stringOffsetsPos;
+    private final int stringDataPos;
+    private final int categoryIndexPos;
+    private final int cellIndexPos;
+    private final int cellCount;
+    private final int latPos;
+    private final int lonPos;
+    private final int namePos;
+    private final int categoryPos;
+    private final int statePos;
+    private final int addressPos;
+    private final int placeIdPos;
+    private final int ratingPos;
+    private final String[] decoded;
+
+    private PlacePack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a place pack (or an unsupported version)");
+        }
+        sourceStamp = buffer.getLong(8);
+        rowCount = buffer.getInt(16);
+        cellSizeE6 = buffer.getInt(20);
+        stringCount = buffer.getInt(24);
+        stringOffsetsPos = buffer.getInt(28);
+        stringDataPos = buffer.getInt(32);
+        categoryIndexPos = buffer.getInt(36);
+        cellIndexPos = buffer.getInt(40);
+        int columnsPos = buffer.getInt(44);
+        cellCount = buffer.getInt(cellIndexPos);
+
+        latPos = columnsPos;
+        lonPos = latPos + rowCount * 4;
+        namePos = lonPos + rowCount * 4;
+        categoryPos = namePos + rowCount * 4;
+        statePos = categoryPos + rowCount * 4;
+        addressPos = statePos + rowCount * 4;
+        placeIdPos = addressPos + rowCount * 4;
+        ratingPos = placeIdPos + rowCount * 4;
+        decoded = new String[stringCount];
+    }
+
+    public static PlacePack open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return new PlacePack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static PlacePack wrap(ByteBuffer buffer) throws IOException {
+        return new PlacePack(buffer);
+    }
+
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public int size() {
+        return rowCount;
+    }
+
+    public double latitude(int row) {
+        return buffer.getInt(latPos + row * 4) / 1e6;
+    }
+
+    public double longitude(int row) {
+        return buffer.getInt(lonPos + row * 4) / 1e6;
+    }
+
+    public String name(int row) {
+        return string(buffer.getInt(namePos + row * 4));
+    }
+
+    public String category(int row) {
+        return string(buffer.getInt(categoryPos + row * 4));
+    }
+
+    public String state(int row) {
+        return string(buffer.getInt(statePos + row * 4));
+    }
+
+    public String address(int row) {
+        return string(buffer.getInt(addressPos + row * 4));
+    }
+
+    /**
+     * The source's place_id, or null if the row had none.
+     */
+    public String placeId(int row) {
+        return string(buffer.getInt(placeIdPos + row * 4));
+    }
+
+    /**
+     * The stored rating, or NaN if the source had none.
+     */
+    public float rating(int row) {
+        short centi = buffer.getShort(ratingPos + row * 2);
+        return centi == NO_RATING ? Float.NaN : centi / 100f;
+    }
+
+    /**
+     * Rows of one category (case-insensitive), in source order.
+     */
+    public int[] rowsInCategory(String category) {
+        int count = buffer.getInt(categoryIndexPos);
+        int postingsPos = categoryIndexPos + 4 + count * 12;
+        for (int i = 0; i < count; i++) {
+            int entry = categoryIndexPos + 4 + i * 12;
+            if (category.equalsIgnoreCase(string(buffer.getInt(entry)))) {
+                int start = buffer.getInt(entry + 4);
+                int length = buffer.getInt(entry + 8);
+                int[] rows = new int[length];
+                for (int j = 0; j < length; j++) {
+                    rows[j] = buffer.getInt(postingsPos + (start + j) * 4);
+                }
+                return rows;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Rows within radiusKm of the point, found through the cell index, in row order.
+     */
+    public int[] rowsWithinRadius(double latitude, double longitude, double radiusKm) {
+        GeoMath.Circle circle = new GeoMath.Circle(latitude, longitude, radiusKm);
+        int minLatCell = cellIndex(circle.minLat);
+        int maxLatCell = cellIndex(circle.maxLat);
+        int minLonCell = cellIndex(circle.minLon);
+        int maxLonCell = cellIndex(circle.maxLon);
+        int keysPos = cellIndexPos + 4;
+        int startsPos = keysPos + cellCount * 8;
+        int postingsPos = startsPos + (cellCount + 1) * 4;
+
+        int[] result = new int[16];
+        int found = 0;
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                int cell = findCell(keysPos, cellKey(latCell, lonCell));
+                if (cell < 0) continue;
+                int end = buffer.getInt(startsPos + (cell + 1) * 4);
+                for (int i = buffer.getInt(startsPos + cell * 4); i < end; i++) {
+                    int row = buffer.getInt(postingsPos + i * 4);
+                    if (circle.contains(latitude(row), longitude(row))) {
+                        if (found == result.length) result = Arrays.copyOf(result, found * 2);
+                        result[found++] = row;
+                    }
+                }
+            }
+        }
+        int[] rows = Arrays.copyOf(result, found);
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    // Same integer arithmetic as the writer so boundary points land in the same cell
+    private int cellIndex(double degrees) {
+        return (int) Math.floorDiv(Math.round(degrees * 1e6), (long) cellSizeE6);
+    }
+
+    private int findCell(int keysPos, long key) {
+        int lo = 0;
+        int hi = cellCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long midKey = buffer.getLong(keysPos + mid * 8);
+            if (midKey < key) lo = mid + 1;
+            else if (midKey > key) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private String string(int id) {
+        if (id == NO_STRING) return null;
+        String value = decoded[id];
+        if (value == null) {
+            int start = buffer.getInt(stringOffsetsPos + id * 4);
+            int end = buffer.getInt(stringOffsetsPos + (id + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(stringDataPos + start + i);
+            }
+            value = new String(bytes, StandardCharsets.UTF_8);
+            decoded[id] = value;
+        }
+        return value;
+    }
+
+    static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
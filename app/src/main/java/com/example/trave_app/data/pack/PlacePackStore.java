@@ -0,0 +1,108 @@
+package com.example.trave_app.data.pack;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out memory-mapped packs of the bundled place lists.
+ * The build ships a pack per res/raw JSON as an uncompressed asset (PlacePackTask), which is
+ * mapped straight from the APK. If it is missing or was built from different JSON, the JSON is
+ * converted once, written to files/, and mapped from then on. Packs are matched to their JSON
+ * by content stamp; every later call returns the same mapping.
+ */
+public final class PlacePackStore {
+    private static final String TAG = "PlacePackStore";
+    private static final Map<Integer, PlacePack> packs = new HashMap<>();
+
+    private PlacePackStore() {
+    }
+
+    /**
+     * The pack for a raw JSON resource, or null if it could neither be mapped nor converted.
+     */
+    public static synchronized PlacePack get(Context context, int rawResId, String packName) {
+        PlacePack pack = packs.get(rawResId);
+        if (pack != null) return pack;
+
+        long stamp;
+        try (InputStream in = context.getResources().openRawResource(rawResId)) {
+            // A straight read of the JSON, far cheaper than parsing it
+            stamp = PlacePackWriter.sourceStamp(in);
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading source of " + packName, e);
+            return null;
+        }
+
+        pack = openAsset(context, packName);
+        if (pack != null && pack.getSourceStamp() != stamp) {
+            Log.w(TAG, "Bundled " + packName + " pack does not match its JSON");
+            pack = null;
+        }
+
+        File file = new File(context.getFilesDir(), packName + ".pack");
+        try {
+            if (pack == null && file.exists()) {
+                pack = PlacePack.open(file);
+                if (pack.getSourceStamp() != stamp) pack = null;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Discarding unreadable pack " + file.getName(), e);
+            pack = null;
+        }
+
+        if (pack == null) {
+            try {
+                convert(context, rawResId, file, stamp);
+                pack = PlacePack.open(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error building pack " + file.getName(), e);
+                return null;
+            }
+        }
+        packs.put(rawResId, pack);
+        return pack;
+    }
+
+    private static void convert(Context context, int rawResId, File target, long stamp) throws IOException {
+        long start = System.currentTimeMillis();
+        PlacePackWriter writer = new PlacePackWriter();
+        try (InputStream in = context.getResources().openRawResource(rawResId)) {
+            writer.addJson(in);
+        }
+        // Write to a temp file and rename so a crash never leaves a half-written pack behind
+        File temp = new File(target.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            writer.write(out, stamp);
+        }
+        if (!temp.renameTo(target)) {
+            throw new IOException("Could not move " + temp + " to " + target);
+        }
+        Log.d(TAG, "Built " + target.getName() + " with " + writer.size() + " places in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Null when the APK has no (uncompressed) pack asset of this name
+    private static PlacePack openAsset(Context context, String packName) {
+        try (AssetFileDescriptor descriptor = context.getAssets().openFd(packName + ".pack");
+             FileInputStream in = descriptor.createInputStream();
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return PlacePack.wrap(channel.map(FileChannel.MapMode.READ_ONLY,
+                    descriptor.getStartOffset(), descriptor.getLength()));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
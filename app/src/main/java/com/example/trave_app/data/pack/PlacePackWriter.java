@@ -0,0 +1,250 @@
+package com.example.trave_app.data.pack;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Converts a places JSON array (the res/raw format) into the binary layout read by PlacePack.
+ * Plain Java with no Android dependencies, so it runs both at build time (PlacePackTask in
+ * buildSrc) and on the device when PlacePackStore finds no pack matching the bundled JSON.
+ */
+public class PlacePackWriter {
+    public static final double DEFAULT_CELL_SIZE_DEG = 0.1;
+
+    private final double cellSizeDeg;
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new LinkedHashMap<>();
+
+    private static class Row {
+        int latE6;
+        int lonE6;
+        int nameId;
+        int categoryId;
+        int stateId;
+        int addressId;
+        int placeIdId;
+        short ratingCenti;
+    }
+
+    public PlacePackWriter() {
+        this(DEFAULT_CELL_SIZE_DEG);
+    }
+
+    public PlacePackWriter(double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+    }
+
+    /**
+     * Adds one place. Null strings are stored as "no value"; a NaN rating as "unrated".
+     */
+    public void addPlace(String placeId, String name, String category, String state, double latitude,
+                         double longitude, String address, float rating) {
+        Row row = new Row();
+        row.latE6 = (int) Math.round(latitude * 1e6);
+        row.lonE6 = (int) Math.round(longitude * 1e6);
+        row.nameId = intern(name);
+        row.categoryId = intern(category);
+        row.stateId = intern(state);
+        row.addressId = intern(address);
+        row.placeIdId = intern(placeId);
+        row.ratingCenti = Float.isNaN(rating) ? PlacePack.NO_RATING : (short) Math.round(rating * 100);
+        rows.add(row);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Reads a JSON array of place objects and adds every entry.
+     */
+    public void addJson(InputStream in) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String placeId = null;
+            String name = null;
+            String category = null;
+            String state = null;
+            String address = null;
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            float rating = Float.NaN;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String field = reader.nextName();
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    continue;
+                }
+                switch (field) {
+                    case "place_id":
+                    case "placeId": placeId = reader.nextString(); break;
+                    case "name": name = reader.nextString(); break;
+                    case "category": category = reader.nextString(); break;
+                    case "state": state = reader.nextString(); break;
+                    case "address": address = reader.nextString(); break;
+                    case "latitude": latitude = reader.nextDouble(); break;
+                    case "longitude": longitude = reader.nextDouble(); break;
+                    case "rating": rating = (float) reader.nextDouble(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                addPlace(placeId, name, category, state, latitude, longitude, address, rating);
+            }
+        }
+        reader.endArray();
+    }
+
+    /**
+     * CRC-32 of the source JSON, stored in the pack header. It depends only on the content, so a
+     * pack built by Gradle and one converted on the device carry the same stamp.
+     */
+    public static long sourceStamp(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            crc.update(chunk, 0, read);
+        }
+        return crc.getValue();
+    }
+
+    public void write(OutputStream out, long sourceStamp) throws IOException {
+        int n = rows.size();
+        List<String> strings = new ArrayList<>(stringIds.keySet());
+        byte[][] encoded = new byte[strings.size()][];
+        int stringBytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[i].length;
+        }
+
+        // Category postings: row ids grouped by category, in file order within a group
+        Map<Integer, List<Integer>> byCategory = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            int category = rows.get(i).categoryId;
+            if (category == PlacePack.NO_STRING) continue;
+            List<Integer> list = byCategory.get(category);
+            if (list == null) {
+                list = new ArrayList<>();
+                byCategory.put(category, list);
+            }
+            list.add(i);
+        }
+
+        // Cell postings: row ids sorted by cell key
+        int cellSizeE6 = (int) Math.round(cellSizeDeg * 1e6);
+        Integer[] byCell = new Integer[n];
+        long[] cellOf = new long[n];
+        for (int i = 0; i < n; i++) {
+            byCell[i] = i;
+            cellOf[i] = PlacePack.cellKey(Math.floorDiv(rows.get(i).latE6, cellSizeE6),
+                    Math.floorDiv(rows.get(i).lonE6, cellSizeE6));
+        }
+        Arrays.sort(byCell, (a, b) -> Long.compare(cellOf[a], cellOf[b]));
+        List<Long> cellKeys = new ArrayList<>();
+        List<Integer> cellStarts = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            long key = cellOf[byCell[i]];
+            if (cellKeys.isEmpty() || cellKeys.get(cellKeys.size() - 1) != key) {
+                cellKeys.add(key);
+                cellStarts.add(i);
+            }
+        }
+        cellStarts.add(n);
+
+        int columnsPos = PlacePack.HEADER_SIZE;
+        int stringOffsetsPos = columnsPos + n * PlacePack.ROW_COLUMNS_SIZE;
+        stringOffsetsPos = align4(stringOffsetsPos);
+        int stringDataPos = stringOffsetsPos + (strings.size() + 1) * 4;
+        int categoryIndexPos = align4(stringDataPos + stringBytes);
+        int cellIndexPos = categoryIndexPos + 4 + byCategory.size() * 12 + n * 4;
+        int total = cellIndexPos + 4 + cellKeys.size() * 8 + cellStarts.size() * 4 + n * 4;
+
+        ByteBuffer buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(PlacePack.MAGIC);
+        buffer.putInt(PlacePack.VERSION);
+        buffer.putLong(sourceStamp);
+        buffer.putInt(n);
+        buffer.putInt(cellSizeE6);
+        buffer.putInt(strings.size());
+        buffer.putInt(stringOffsetsPos);
+        buffer.putInt(stringDataPos);
+        buffer.putInt(categoryIndexPos);
+        buffer.putInt(cellIndexPos);
+        buffer.putInt(columnsPos);
+
+        // Columns: one fixed-width array per field
+        buffer.position(columnsPos);
+        for (Row row : rows) buffer.putInt(row.latE6);
+        for (Row row : rows) buffer.putInt(row.lonE6);
+        for (Row row : rows) buffer.putInt(row.nameId);
+        for (Row row : rows) buffer.putInt(row.categoryId);
+        for (Row row : rows) buffer.putInt(row.stateId);
+        for (Row row : rows) buffer.putInt(row.addressId);
+        for (Row row : rows) buffer.putInt(row.placeIdId);
+        for (Row row : rows) buffer.putShort(row.ratingCenti);
+
+        buffer.position(stringOffsetsPos);
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : encoded) buffer.put(bytes);
+
+        buffer.position(categoryIndexPos);
+        buffer.putInt(byCategory.size());
+        int start = 0;
+        for (Map.Entry<Integer, List<Integer>> entry : byCategory.entrySet()) {
+            buffer.putInt(entry.getKey());
+            buffer.putInt(start);
+            buffer.putInt(entry.getValue().size());
+            start += entry.getValue().size();
+        }
+        for (List<Integer> list : byCategory.values()) {
+            for (int row : list) buffer.putInt(row);
+        }
+
+        buffer.position(cellIndexPos);
+        buffer.putInt(cellKeys.size());
+        for (long key : cellKeys) buffer.putLong(key);
+        for (int cellStart : cellStarts) buffer.putInt(cellStart);
+        for (Integer row : byCell) buffer.putInt(row);
+
+        out.write(buffer.array());
+        out.flush();
+    }
+
+    private int intern(String value) {
+        if (value == null) return PlacePack.NO_STRING;
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    private static int align4(int position) {
+        return (position + 3) & ~3;
+    }
+}
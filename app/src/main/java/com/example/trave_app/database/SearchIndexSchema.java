@@ -0,0 +1,107 @@
+package com.example.trave_app.database;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import java.util.Locale;
+
+/**
+ * FTS4 shadow tables for full-text search over places and favorites.
+ * Like SpatialIndexSchema, the virtual tables and the triggers that keep them in sync are
+ * created here, from the database callback and migrations. Each FTS row's docid is the id of
+ * its source row.
+ *
+ * The FTS tables keep their own copy of the text rather than using content=, because an
+ * INSERT OR REPLACE on the source table deletes the old row without firing delete triggers;
+ * with a private copy the insert trigger's own INSERT OR REPLACE still drops the old terms.
+ */
+public final class SearchIndexSchema {
+
+    public static final String PLACES_TABLE = "places_fts";
+    public static final String FAVORITES_TABLE = "favorites_fts";
+
+    // Column order of the FTS tables; matchinfo() and offsets() report columns by this index
+    public static final String[] PLACE_COLUMNS = {"name", "address", "category"};
+    public static final String[] FAVORITE_COLUMNS = {"name", "notes", "address"};
+
+    // matchinfo format expected by Bm25
+    static final String MATCH_INFO_FORMAT = "pcnalx";
+
+    private SearchIndexSchema() {
+    }
+
+    public static void create(SupportSQLiteDatabase db) {
+        createIndex(db, PLACES_TABLE, "places", PLACE_COLUMNS);
+        createIndex(db, FAVORITES_TABLE, "favorites", FAVORITE_COLUMNS);
+    }
+
+    private static void createIndex(SupportSQLiteDatabase db, String table, String source, String[] columns) {
+        String columnList = String.join(", ", columns);
+        String newValues = "new." + String.join(", new.", columns);
+
+        db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + table + "` USING fts4(" + columnList + ")");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `" + table + "_insert` AFTER INSERT ON `" + source + "` BEGIN " +
+                "INSERT OR REPLACE INTO `" + table + "` (docid, " + columnList + ") VALUES " +
+                "(new.id, " + newValues + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `" + table + "_update` AFTER UPDATE OF " +
+                "`id`, `" + String.join("`, `", columns) + "` ON `" + source + "` BEGIN " +
+                "DELETE FROM `" + table + "` WHERE docid = old.id; " +
+                "INSERT OR REPLACE INTO `" + table + "` (docid, " + columnList + ") VALUES " +
+                "(new.id, " + newValues + "); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `" + table + "_delete` AFTER DELETE ON `" + source + "` BEGIN " +
+                "DELETE FROM `" + table + "` WHERE docid = old.id; END");
+
+        // Fill from the source table, which may already hold rows when a migration adds the index
+        db.execSQL("DELETE FROM `" + table + "`");
+        db.execSQL("INSERT INTO `" + table + "` (docid, " + columnList + ") " +
+                "SELECT id, " + columnList + " FROM `" + source + "`");
+    }
+
+    // Counterpart of SpatialIndexSchema.drop for TravelDatabase's destructive-migration path
+    public static void drop(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS `" + PLACES_TABLE + "`");
+        db.execSQL("DROP TABLE IF EXISTS `" + FAVORITES_TABLE + "`");
+    }
+
+    /**
+     * Query for PlaceDao.searchPlaces, or null when the text has nothing to match
+     * (callers fall back to the unfiltered list, as LIKE '%%' did).
+     */
+    public static SupportSQLiteQuery placeSearchQuery(String text) {
+        return searchQuery(PLACES_TABLE, "places", text);
+    }
+
+    /**
+     * Query for FavoriteDao.searchFavorites, or null when the text has nothing to match.
+     */
+    public static SupportSQLiteQuery favoriteSearchQuery(String text) {
+        return searchQuery(FAVORITES_TABLE, "favorites", text);
+    }
+
+    private static SupportSQLiteQuery searchQuery(String table, String source, String text) {
+        String match = toMatchExpression(text);
+        if (match == null) return null;
+        return new SimpleSQLiteQuery("SELECT s.*, " +
+                "matchinfo(`" + table + "`, '" + MATCH_INFO_FORMAT + "') AS match_info, " +
+                "offsets(`" + table + "`) AS match_offsets " +
+                "FROM `" + table + "` INNER JOIN `" + source + "` s ON s.id = `" + table + "`.docid " +
+                "WHERE `" + table + "` MATCH ?", new Object[]{match});
+    }
+
+    /**
+     * Every word of the user's text as a quoted prefix term, ANDed: "star cof" becomes
+     * "star*" "cof*". Quoting keeps FTS operators (OR, NEAR, -) typed by the user literal.
+     */
+    static String toMatchExpression(String text) {
+        if (text == null) return null;
+        StringBuilder match = new StringBuilder();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append('"').append(word).append("*\"");
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.trave_app.database;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Rollup tables over search_history: how often each query was searched, and how often each
+ * category was searched per hour of day and per day of week. Like SpatialIndexSchema, the
+ * tables and the triggers that keep them current are created here, from the database callback
+ * and migrations, so every insert or delete on search_history updates them in the same
+ * transaction and readers never aggregate the raw history.
+ *
+ * Hours and days are the search_hour and search_day columns of the history row, set in the
+ * device's time zone when the search is recorded. The triggers never convert a timestamp
+ * themselves, so a row is removed from the bucket it was added to whatever the time zone is
+ * by then. Days use Calendar numbering (1 = Sunday). Searches without a category are counted
+ * under ''.
+ */
+public final class SearchRollupSchema {
+
+    public static final String QUERY_TABLE = "search_query_counts";
+    public static final String HOUR_TABLE = "search_category_hours";
+    public static final String DAY_TABLE = "search_category_days";
+
+    // Bucket expressions over a search_history row; ROW is replaced by its alias (new, old, h)
+    private static final String CATEGORY_OF = "COALESCE(ROW.category, '')";
+    private static final String HOUR_OF = "ROW.search_hour";
+    private static final String DAY_OF = "ROW.search_day";
+
+    private static final String[] TRIGGERS = {
+            "search_rollup_insert", "search_rollup_update", "search_rollup_delete", "search_rollup_replace"};
+
+    private SearchRollupSchema() {
+    }
+
+    public static void create(SupportSQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS `" + QUERY_TABLE + "` (" +
+                "`search_query` TEXT PRIMARY KEY NOT NULL, " +
+                "`frequency` INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS `index_search_query_counts_frequency` ON `" + QUERY_TABLE +
+                "` (`frequency`)");
+        db.execSQL("CREATE TABLE IF NOT EXISTS `" + HOUR_TABLE + "` (" +
+                "`category` TEXT NOT NULL, `hour` INTEGER NOT NULL, `frequency` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`category`, `hour`))");
+        db.execSQL("CREATE TABLE IF NOT EXISTS `" + DAY_TABLE + "` (" +
+                "`category` TEXT NOT NULL, `day` INTEGER NOT NULL, `frequency` INTEGER NOT NULL, " +
+                "PRIMARY KEY(`category`, `day`))");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `search_rollup_insert` AFTER INSERT ON `search_history` BEGIN " +
+                add("new") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `search_rollup_update` AFTER UPDATE OF " +
+                "`search_query`, `category`, `search_hour`, `search_day` ON `search_history` BEGIN " +
+                remove("old") + " " + add("new") + " END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `search_rollup_delete` AFTER DELETE ON `search_history` BEGIN " +
+                remove("old") + " END");
+        // INSERT OR REPLACE (SearchHistoryDao.insert) deletes a clashing row without firing
+        // delete triggers, so take that row back out before it goes
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `search_rollup_replace` BEFORE INSERT ON `search_history` " +
+                "WHEN EXISTS (SELECT 1 FROM `search_history` WHERE id = new.id) BEGIN " +
+                "UPDATE `" + QUERY_TABLE + "` SET frequency = frequency - 1 WHERE search_query = " +
+                "(SELECT search_query FROM `search_history` WHERE id = new.id); " +
+                "UPDATE `" + HOUR_TABLE + "` SET frequency = frequency - 1 WHERE EXISTS " +
+                "(SELECT 1 FROM `search_history` h WHERE h.id = new.id " +
+                "AND " + of(CATEGORY_OF, "h") + " = `" + HOUR_TABLE + "`.category " +
+                "AND " + of(HOUR_OF, "h") + " = `" + HOUR_TABLE + "`.hour); " +
+                "UPDATE `" + DAY_TABLE + "` SET frequency = frequency - 1 WHERE EXISTS " +
+                "(SELECT 1 FROM `search_history` h WHERE h.id = new.id " +
+                "AND " + of(CATEGORY_OF, "h") + " = `" + DAY_TABLE + "`.category " +
+                "AND " + of(DAY_OF, "h") + " = `" + DAY_TABLE + "`.day); " +
+                pruneEmpty() + " END");
+
+        // Fill from search_history, which already holds rows when a migration adds the rollups
+        db.execSQL("DELETE FROM `" + QUERY_TABLE + "`");
+        db.execSQL("DELETE FROM `" + HOUR_TABLE + "`");
+        db.execSQL("DELETE FROM `" + DAY_TABLE + "`");
+        db.execSQL("INSERT INTO `" + QUERY_TABLE + "` SELECT search_query, COUNT(*) FROM `search_history` " +
+                "WHERE search_query IS NOT NULL GROUP BY search_query");
+        db.execSQL("INSERT INTO `" + HOUR_TABLE + "` SELECT " + of(CATEGORY_OF, "h") + " AS c, " +
+                of(HOUR_OF, "h") + " AS b, COUNT(*) FROM `search_history` h GROUP BY c, b");
+        db.execSQL("INSERT INTO `" + DAY_TABLE + "` SELECT " + of(CATEGORY_OF, "h") + " AS c, " +
+                of(DAY_OF, "h") + " AS b, COUNT(*) FROM `search_history` h GROUP BY c, b");
+    }
+
+    // Counterpart of SpatialIndexSchema.drop for TravelDatabase's destructive-migration path,
+    // also used before create() when the triggers change
+    public static void drop(SupportSQLiteDatabase db) {
+        for (String trigger : TRIGGERS) {
+            db.execSQL("DROP TRIGGER IF EXISTS `" + trigger + "`");
+        }
+        db.execSQL("DROP TABLE IF EXISTS `" + QUERY_TABLE + "`");
+        db.execSQL("DROP TABLE IF EXISTS `" + HOUR_TABLE + "`");
+        db.execSQL("DROP TABLE IF EXISTS `" + DAY_TABLE + "`");
+    }
+
+    // Trigger statements counting one search_history row, referenced as new or old
+    private static String add(String row) {
+        String category = of(CATEGORY_OF, row);
+        String hour = of(HOUR_OF, row);
+        String day = of(DAY_OF, row);
+        // Not INSERT OR IGNORE: the outer INSERT OR REPLACE would override it and reset counts
+        String queryKey = "search_query = " + row + ".search_query";
+        String hourKey = "category = " + category + " AND hour = " + hour;
+        String dayKey = "category = " + category + " AND day = " + day;
+        return "INSERT INTO `" + QUERY_TABLE + "` SELECT " + row + ".search_query, 0 " +
+                "WHERE " + row + ".search_query IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM `" + QUERY_TABLE + "` WHERE " + queryKey + "); " +
+                "UPDATE `" + QUERY_TABLE + "` SET frequency = frequency + 1 WHERE " + queryKey + "; " +
+                "INSERT INTO `" + HOUR_TABLE + "` SELECT " + category + ", " + hour + ", 0 " +
+                "WHERE NOT EXISTS (SELECT 1 FROM `" + HOUR_TABLE + "` WHERE " + hourKey + "); " +
+                "UPDATE `" + HOUR_TABLE + "` SET frequency = frequency + 1 WHERE " + hourKey + "; " +
+                "INSERT INTO `" + DAY_TABLE + "` SELECT " + category + ", " + day + ", 0 " +
+                "WHERE NOT EXISTS (SELECT 1 FROM `" + DAY_TABLE + "` WHERE " + dayKey + "); " +
+                "UPDATE `" + DAY_TABLE + "` SET frequency = frequency + 1 WHERE " + dayKey + ";";
+    }
+
+    private static String remove(String row) {
+        String category = of(CATEGORY_OF, row);
+        return "UPDATE `" + QUERY_TABLE + "` SET frequency = frequency - 1 WHERE search_query = " + row + ".search_query; " +
+                "UPDATE `" + HOUR_TABLE + "` SET frequency = frequency - 1 " +
+                "WHERE category = " + category + " AND hour = " + of(HOUR_OF, row) + "; " +
+                "UPDATE `" + DAY_TABLE + "` SET frequency = frequency - 1 " +
+                "WHERE category = " + category + " AND day = " + of(DAY_OF, row) + "; " +
+                pruneEmpty();
+    }
+
+    private static String of(String expression, String row) {
+        return expression.replace("ROW", row);
+    }
+
+    private static String pruneEmpty() {
+        return "DELETE FROM `" + QUERY_TABLE + "` WHERE frequency <= 0; " +
+                "DELETE FROM `" + HOUR_TABLE + "` WHERE frequency <= 0; " +
+                "DELETE FROM `" + DAY_TABLE + "` WHERE frequency <= 0;";
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.trave_app.database;
+
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * R*Tree shadow table for the places table.
+ * Room has no entity type for virtual tables, so the table and the triggers that keep it
+ * in sync with places are created here, from the database callback and migrations.
+ * Rows are keyed by places.id and store each place as a degenerate lat/lon box.
+ *
+ * Room's destructive migration drops places, and with it the triggers, but not this table,
+ * and fires onDestructiveMigration before places exists again. TravelDatabase therefore
+ * drops the table there and creates it again in onOpen.
+ */
+public final class SpatialIndexSchema {
+    private static final String TAG = "SpatialIndexSchema";
+
+    public static final String TABLE = "places_rtree";
+
+    private SpatialIndexSchema() {
+    }
+
+    public static void create(SupportSQLiteDatabase db) {
+        try {
+            db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `" + TABLE + "` USING rtree(" +
+                    "id, min_lat, max_lat, min_lon, max_lon)");
+        } catch (Exception e) {
+            // SQLite builds without the R*Tree module: same columns in a plain table, so the
+            // DAO queries stay identical and are served by a B-tree index instead
+            Log.w(TAG, "R*Tree module unavailable, using indexed table", e);
+            db.execSQL("CREATE TABLE IF NOT EXISTS `" + TABLE + "` (" +
+                    "`id` INTEGER PRIMARY KEY NOT NULL, " +
+                    "`min_lat` REAL NOT NULL, `max_lat` REAL NOT NULL, " +
+                    "`min_lon` REAL NOT NULL, `max_lon` REAL NOT NULL)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_places_rtree_lat_lon` ON `" + TABLE +
+                    "` (`min_lat`, `min_lon`)");
+        }
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `places_rtree_insert` AFTER INSERT ON `places` BEGIN " +
+                "INSERT OR REPLACE INTO `" + TABLE + "` VALUES " +
+                "(new.id, new.latitude, new.latitude, new.longitude, new.longitude); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `places_rtree_update` AFTER UPDATE OF " +
+                "`id`, `latitude`, `longitude` ON `places` BEGIN " +
+                "DELETE FROM `" + TABLE + "` WHERE id = old.id; " +
+                "INSERT OR REPLACE INTO `" + TABLE + "` VALUES " +
+                "(new.id, new.latitude, new.latitude, new.longitude, new.longitude); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS `places_rtree_delete` AFTER DELETE ON `places` BEGIN " +
+                "DELETE FROM `" + TABLE + "` WHERE id = old.id; END");
+
+        // Fill from places, which may already hold rows when the table is added by a migration
+        db.execSQL("DELETE FROM `" + TABLE + "`");
+        db.execSQL("INSERT INTO `" + TABLE + "` SELECT id, latitude, latitude, longitude, longitude FROM `places`");
+    }
+
+    public static void drop(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS `" + TABLE + "`");
+    }
+}
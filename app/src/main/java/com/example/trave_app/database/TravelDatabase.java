@@ -1,6 +1,7 @@
 package com.example.trave_app.database;
 
 import android.content.Context;
+import android.database.Cursor;
 
 import androidx.room.Database;
 import androidx.room.Room;
@@ -10,24 +11,28 @@ import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import com.example.trave_app.database.dao.FavoriteDao;
+import com.example.trave_app.database.dao.GeofenceStateDao;
 import com.example.trave_app.database.dao.PlaceDao;
 import com.example.trave_app.database.dao.SearchHistoryDao;
 import com.example.trave_app.database.dao.AINotificationDao;
 import com.example.trave_app.database.dao.NotificationPreferenceDao;
 import com.example.trave_app.database.dao.UserDao;
+import com.example.trave_app.database.dao.VisitDao;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.SearchHistory;
 import com.example.trave_app.database.entity.User;
+import com.example.trave_app.database.entity.Visit;
 import com.example.trave_app.notifications.model.AINotification;
+import com.example.trave_app.notifications.model.GeofenceState;
 import com.example.trave_app.notifications.model.NotificationPreference;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 @Database(
-        entities = {Place.class, SearchHistory.class, Favorite.class, AINotification.class, NotificationPreference.class, User.class},
-        version = 3,
+        entities = {Place.class, SearchHistory.class, Favorite.class, AINotification.class, NotificationPreference.class, User.class, GeofenceState.class, Visit.class},
+        version = 11,
         exportSchema = false
 )
 @TypeConverters({Converters.class})
@@ -40,6 +45,8 @@ public abstract class TravelDatabase extends RoomDatabase {
     public abstract AINotificationDao aiNotificationDao();
     public abstract NotificationPreferenceDao notificationPreferenceDao();
     public abstract UserDao userDao();
+    public abstract GeofenceStateDao geofenceStateDao();
+    public abstract VisitDao visitDao();
 
     // Singleton instance
     private static volatile TravelDatabase INSTANCE;
@@ -56,7 +63,7 @@ public abstract class TravelDatabase extends RoomDatabase {
                 if (INSTANCE == null) {
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     TravelDatabase.class, "travel_database")
-                            .addMigrations(MIGRATION_1_2)
+                            .addMigrations(MIGRATION_1_2, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11)
                             .fallbackToDestructiveMigration()
                             .addCallback(roomDatabaseCallback)
                             .build();
@@ -76,6 +83,9 @@ public abstract class TravelDatabase extends RoomDatabase {
         @Override
         public void onCreate(SupportSQLiteDatabase db) {
             super.onCreate(db);
+            SpatialIndexSchema.create(db);
+            SearchIndexSchema.create(db);
+            SearchRollupSchema.create(db);
             // If you want to keep data through app restarts,
             // comment out the following block
             databaseWriteExecutor.execute(() -> {
@@ -93,8 +103,41 @@ public abstract class TravelDatabase extends RoomDatabase {
                 // Add any initial data here if needed
             });
         }
+
+        // Room calls this after dropping the entity tables, before creating them again, so the
+        // shadow tables (whose triggers went with their source tables) are only dropped here
+        // and rebuilt in onOpen
+        @Override
+        public void onDestructiveMigration(SupportSQLiteDatabase db) {
+            super.onDestructiveMigration(db);
+            SpatialIndexSchema.drop(db);
+            SearchIndexSchema.drop(db);
+            SearchRollupSchema.drop(db);
+        }
+
+        @Override
+        public void onOpen(SupportSQLiteDatabase db) {
+            super.onOpen(db);
+            if (!tableExists(db, SpatialIndexSchema.TABLE)) {
+                SpatialIndexSchema.create(db);
+            }
+            if (!tableExists(db, SearchIndexSchema.PLACES_TABLE) || !tableExists(db, SearchIndexSchema.FAVORITES_TABLE)) {
+                SearchIndexSchema.create(db);
+            }
+            if (!tableExists(db, SearchRollupSchema.QUERY_TABLE) || !tableExists(db, SearchRollupSchema.HOUR_TABLE)
+                    || !tableExists(db, SearchRollupSchema.DAY_TABLE)) {
+                SearchRollupSchema.create(db);
+            }
+        }
     };
 
+    private static boolean tableExists(SupportSQLiteDatabase db, String table) {
+        try (Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new Object[]{table})) {
+            return cursor.moveToFirst();
+        }
+    }
+
     // Migration strategies (for future database updates)
     static final Migration MIGRATION_1_2 = new Migration(1, 2) {
         @Override
@@ -137,6 +180,114 @@ public abstract class TravelDatabase extends RoomDatabase {
         }
     };
 
+    // Adds the R*Tree shadow table used for bounding-box queries on places
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            SpatialIndexSchema.create(database);
+        }
+    };
+
+    // Adds the enter/exit state used by the real-time location service
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `geofence_states` (" +
+                    "`placeId` TEXT NOT NULL, " +
+                    "`inside` INTEGER NOT NULL, " +
+                    "`lastNotifiedTime` INTEGER NOT NULL, " +
+                    "PRIMARY KEY(`placeId`))");
+        }
+    };
+
+    // Adds the visits recorded by the dwell detector
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `visits` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`place_id` TEXT, " +
+                    "`category` TEXT, " +
+                    "`arrival_time` INTEGER NOT NULL, " +
+                    "`departure_time` INTEGER NOT NULL)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_visits_place_id` ON `visits` (`place_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_visits_arrival_time` ON `visits` (`arrival_time`)");
+        }
+    };
+
+    // Adds the FTS4 tables behind place and favorite name search
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            SearchIndexSchema.create(database);
+        }
+    };
+
+    // Adds the places indexes behind structured search filters (category, rating)
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_places_category_rating` ON `places` (`category`, `rating`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_places_rating` ON `places` (`rating`)");
+        }
+    };
+
+    // Version 9 added the search history rollups. They now read bucket columns that only
+    // MIGRATION_10_11 adds, so that migration creates them; every upgrade from 8 runs it too
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+        }
+    };
+
+    // Rebuilds places with a NOCASE category column, so index_places_category_rating serves
+    // case-insensitive category filters. SQLite cannot change a column's collation in place
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `places_new` (" +
+                    "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, " +
+                    "`place_id` TEXT, " +
+                    "`name` TEXT, " +
+                    "`category` TEXT COLLATE NOCASE, " +
+                    "`latitude` REAL NOT NULL, " +
+                    "`longitude` REAL NOT NULL, " +
+                    "`address` TEXT, " +
+                    "`rating` REAL NOT NULL, " +
+                    "`is_favorite` INTEGER NOT NULL, " +
+                    "`created_at` INTEGER NOT NULL)");
+            database.execSQL("INSERT INTO `places_new` SELECT `id`, `place_id`, `name`, `category`, `latitude`, " +
+                    "`longitude`, `address`, `rating`, `is_favorite`, `created_at` FROM `places`");
+            // Keep handing out ids above any the old table used, deleted rows included
+            database.execSQL("UPDATE `sqlite_sequence` SET seq = " +
+                    "(SELECT seq FROM `sqlite_sequence` WHERE name = 'places') WHERE name = 'places_new' " +
+                    "AND EXISTS (SELECT 1 FROM `sqlite_sequence` WHERE name = 'places')");
+            // Dropping the table also drops its indexes and the R*Tree and FTS sync triggers
+            database.execSQL("DROP TABLE `places`");
+            database.execSQL("ALTER TABLE `places_new` RENAME TO `places`");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_places_category_rating` ON `places` (`category`, `rating`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_places_rating` ON `places` (`rating`)");
+            SpatialIndexSchema.create(database);
+            SearchIndexSchema.create(database);
+        }
+    };
+
+    // Records each search's local hour and day on its history row and rebuilds the rollups
+    // from them, so a time zone change cannot make the delete trigger miss the insert's bucket.
+    // Existing rows are bucketed in the time zone the migration runs in
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `search_history` ADD COLUMN `search_hour` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("ALTER TABLE `search_history` ADD COLUMN `search_day` INTEGER NOT NULL DEFAULT 0");
+            database.execSQL("UPDATE `search_history` SET " +
+                    "search_hour = CAST(strftime('%H', search_timestamp / 1000, 'unixepoch', 'localtime') AS INTEGER), " +
+                    "search_day = CAST(strftime('%w', search_timestamp / 1000, 'unixepoch', 'localtime') AS INTEGER) + 1");
+            SearchRollupSchema.drop(database);
+            SearchRollupSchema.create(database);
+        }
+    };
+
     // Method to close the database
     public static void closeDatabase() {
         if (INSTANCE != null) {
@@ -6,9 +6,12 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.example.trave_app.database.entity.Favorite;
+import com.example.trave_app.database.search.FavoriteSearchHit;
 
 import java.util.List;
 
@@ -33,8 +36,12 @@ public interface FavoriteDao {
     @Query("SELECT * FROM favorites WHERE place_id = :placeId LIMIT 1")
     Favorite getFavoriteByPlaceId(String placeId);
 
-    @Query("SELECT * FROM favorites WHERE name LIKE '%' || :searchQuery || '%' ORDER BY added_at DESC")
-    LiveData<List<Favorite>> searchFavoritesByName(String searchQuery);
+    // Full-text search over favorites_fts; see PlaceDao.searchPlaces
+    @RawQuery(observedEntities = Favorite.class)
+    LiveData<List<FavoriteSearchHit>> searchFavorites(SupportSQLiteQuery query);
+
+    @RawQuery
+    List<FavoriteSearchHit> searchFavoritesSync(SupportSQLiteQuery query);
 
     @Query("DELETE FROM favorites WHERE place_id = :placeId")
     void deleteByPlaceId(String placeId);
@@ -0,0 +1,26 @@
+package com.example.trave_app.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import com.example.trave_app.notifications.model.GeofenceState;
+
+import java.util.List;
+
+@Dao
+public interface GeofenceStateDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<GeofenceState> states);
+
+    @Query("SELECT * FROM geofence_states")
+    List<GeofenceState> getAllSync();
+
+    // Outside places whose cooldown has run out carry no information any more
+    @Query("DELETE FROM geofence_states WHERE inside = 0 AND lastNotifiedTime < :cutoff")
+    void deleteExpired(long cutoff);
+
+    @Query("DELETE FROM geofence_states")
+    void deleteAll();
+}
@@ -23,6 +23,12 @@ public interface NotificationPreferenceDao {
     @Query("SELECT * FROM notification_preferences LIMIT 1")
     NotificationPreference getPreferencesSync();
     
+    // The user's proximity radius, or the default until a preferences row exists
+    default double getLocationRadiusKmSync() {
+        NotificationPreference preferences = getPreferencesSync();
+        return preferences != null ? preferences.getLocationRadiusKm() : new NotificationPreference().getLocationRadiusKm();
+    }
+    
     @Query("DELETE FROM notification_preferences")
     void deleteAll();
 }
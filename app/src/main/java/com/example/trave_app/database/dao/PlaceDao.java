@@ -6,20 +6,27 @@ import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.SkipQueryVerification;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.database.search.PlaceSearchHit;
+import com.example.trave_app.geo.GeoMath;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Dao
 public interface PlaceDao {
 
+    // Inserts return the row ids; set them on the entities before handing them to PlaceCatalog
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insert(Place place);
+    long insert(Place place);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertAll(List<Place> places);
+    List<Long> insertAll(List<Place> places);
 
     @Update
     void update(Place place);
@@ -39,8 +46,18 @@ public interface PlaceDao {
     @Query("SELECT * FROM places WHERE place_id = :placeId LIMIT 1")
     Place getPlaceById(String placeId);
 
-    @Query("SELECT * FROM places WHERE name LIKE '%' || :searchQuery || '%' ORDER BY created_at DESC")
-    LiveData<List<Place>> searchPlacesByName(String searchQuery);
+    // Full-text search over the places_fts shadow table; build the query with
+    // SearchIndexSchema.placeSearchQuery and rank the hits with Bm25. Room cannot see the
+    // virtual table, so the LiveData observes places, which the FTS triggers follow.
+    @RawQuery(observedEntities = Place.class)
+    LiveData<List<PlaceSearchHit>> searchPlaces(SupportSQLiteQuery query);
+
+    @RawQuery
+    List<PlaceSearchHit> searchPlacesSync(SupportSQLiteQuery query);
+
+    // Structured search: category, rating and bounding-box filters compiled by PlaceFilter
+    @RawQuery
+    List<Place> getPlacesSync(SupportSQLiteQuery query);
 
     @Query("UPDATE places SET is_favorite = :isFavorite WHERE place_id = :placeId")
     void updateFavoriteStatus(String placeId, boolean isFavorite);
@@ -65,5 +82,41 @@ public interface PlaceDao {
     Place getPlaceByPlaceIdSync(String placeId);
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
-    void insertSync(Place place);
+    long insertSync(Place place);
+
+    // Spatial queries backed by the places_rtree shadow table (see SpatialIndexSchema).
+    // Room cannot see the virtual table at compile time, hence @SkipQueryVerification.
+    @SkipQueryVerification
+    @Query("SELECT p.* FROM places p INNER JOIN places_rtree r ON r.id = p.id " +
+            "WHERE r.min_lat <= :maxLat AND r.max_lat >= :minLat " +
+            "AND r.min_lon <= :maxLon AND r.max_lon >= :minLon " +
+            "AND p.latitude BETWEEN :minLat AND :maxLat " +
+            "AND p.longitude BETWEEN :minLon AND :maxLon")
+    List<Place> getPlacesInBoundingBox(double minLat, double maxLat, double minLon, double maxLon);
+
+    @SkipQueryVerification
+    @Query("SELECT p.* FROM places p INNER JOIN places_rtree r ON r.id = p.id " +
+            "WHERE r.min_lat <= :maxLat AND r.max_lat >= :minLat " +
+            "AND r.min_lon <= :maxLon AND r.max_lon >= :minLon " +
+            "AND p.latitude BETWEEN :minLat AND :maxLat " +
+            "AND p.longitude BETWEEN :minLon AND :maxLon " +
+            "AND (:category IS NULL OR p.category = :category)")
+    List<Place> getPlacesInBoundingBoxByCategory(double minLat, double maxLat, double minLon, double maxLon,
+                                                 String category);
+
+    // Bounding box filtered in SQLite; only the rows inside it are checked against the exact radius
+    default List<Place> getPlacesWithinRadius(double latitude, double longitude, double radiusKm,
+                                              String category) {
+        GeoMath.Circle circle = new GeoMath.Circle(latitude, longitude, radiusKm);
+        List<Place> candidates = getPlacesInBoundingBoxByCategory(circle.minLat, circle.maxLat,
+                circle.minLon, circle.maxLon, category);
+
+        List<Place> result = new ArrayList<>();
+        for (Place place : candidates) {
+            if (circle.contains(place.getLatitude(), place.getLongitude())) {
+                result.add(place);
+            }
+        }
+        return result;
+    }
 }
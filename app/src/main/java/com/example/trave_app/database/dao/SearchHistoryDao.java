@@ -1,11 +1,13 @@
 package com.example.trave_app.database.dao;
 
 import androidx.lifecycle.LiveData;
+import androidx.room.ColumnInfo;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.SkipQueryVerification;
 
 import com.example.trave_app.database.entity.SearchHistory;
 
@@ -45,6 +47,43 @@ public interface SearchHistoryDao {
     @Query("SELECT * FROM search_history ORDER BY search_timestamp DESC")
     List<SearchHistory> getAllSearchHistorySync();
 
+    // Rollups kept by the SearchRollupSchema triggers. Room cannot see those tables at
+    // compile time, hence @SkipQueryVerification.
+
+    // Most repeated queries, for autocomplete
+    @SkipQueryVerification
+    @Query("SELECT search_query, frequency FROM search_query_counts ORDER BY frequency DESC LIMIT :limit")
+    List<QueryFrequency> getPopularQueriesSync(int limit);
+
+    // Searches per category and hour of day (0-23); category is '' for searches without one
+    @SkipQueryVerification
+    @Query("SELECT category, hour AS bucket, frequency FROM search_category_hours")
+    List<CategoryFrequency> getCategoryHourFrequenciesSync();
+
+    // Searches per category and day of week, numbered like Calendar.DAY_OF_WEEK
+    @SkipQueryVerification
+    @Query("SELECT category, day AS bucket, frequency FROM search_category_days")
+    List<CategoryFrequency> getCategoryDayFrequenciesSync();
+
+    class QueryFrequency {
+        @ColumnInfo(name = "search_query")
+        public String query;
+
+        @ColumnInfo(name = "frequency")
+        public int frequency;
+    }
+
+    class CategoryFrequency {
+        @ColumnInfo(name = "category")
+        public String category;
+
+        @ColumnInfo(name = "bucket")
+        public int bucket;
+
+        @ColumnInfo(name = "frequency")
+        public int frequency;
+    }
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertSync(SearchHistory searchHistory);
 }
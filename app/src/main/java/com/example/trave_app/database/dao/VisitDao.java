@@ -0,0 +1,39 @@
+package com.example.trave_app.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.database.entity.Visit;
+
+import java.util.List;
+
+@Dao
+public interface VisitDao {
+
+    @Insert
+    long insert(Visit visit);
+
+    @Query("SELECT * FROM visits ORDER BY arrival_time DESC LIMIT :limit")
+    List<Visit> getRecentVisitsSync(int limit);
+
+    @Query("SELECT * FROM visits WHERE arrival_time >= :since ORDER BY arrival_time ASC")
+    List<Visit> getVisitsSinceSync(long since);
+
+    // One row per visit, so a place visited three times is returned three times. Visits are
+    // keyed by PlaceCatalog.keyOf: the place_id, or "row_<id>" for places without one. A
+    // place_id shared by several rows resolves to the first of them, not to each.
+    @Query("SELECT places.* FROM visits INNER JOIN places ON places.id = COALESCE(" +
+            "(SELECT MIN(p.id) FROM places p WHERE p.place_id = visits.place_id), " +
+            "CASE WHEN substr(visits.place_id, 1, 4) = 'row_' " +
+            "THEN CAST(substr(visits.place_id, 5) AS INTEGER) END) " +
+            "ORDER BY visits.arrival_time DESC")
+    List<Place> getVisitedPlacesSync();
+
+    @Query("SELECT COUNT(*) FROM visits")
+    int getVisitCount();
+
+    @Query("DELETE FROM visits")
+    void deleteAll();
+}
@@ -1,10 +1,13 @@
 package com.example.trave_app.database.entity;
 
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 
-@Entity(tableName = "places")
+// Indexes serve the filters PlaceFilter pushes down: category with a rating floor, or rating alone.
+// category is NOCASE so the index answers "Hotel" and "hotel" alike
+@Entity(tableName = "places", indices = {@Index({"category", "rating"}), @Index("rating")})
 public class Place {
     @PrimaryKey(autoGenerate = true)
     private int id;
@@ -15,7 +18,7 @@ public class Place {
     @ColumnInfo(name = "name")
     private String name;
 
-    @ColumnInfo(name = "category")
+    @ColumnInfo(name = "category", collate = ColumnInfo.NOCASE)
     private String category;
 
     @ColumnInfo(name = "latitude")
@@ -4,6 +4,8 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import androidx.room.ColumnInfo;
 
+import java.util.Calendar;
+
 @Entity(tableName = "search_history")
 public class SearchHistory {
     @PrimaryKey(autoGenerate = true)
@@ -27,6 +29,15 @@ public class SearchHistory {
     @ColumnInfo(name = "search_timestamp")
     private long searchTimestamp;
 
+    // Local hour (0-23) and Calendar day of week of the search, fixed when it is recorded so
+    // the SearchRollupSchema triggers take a row back out of the bucket they counted it in
+    // even after a time zone change
+    @ColumnInfo(name = "search_hour")
+    private int searchHour;
+
+    @ColumnInfo(name = "search_day")
+    private int searchDay;
+
     // Constructor
     public SearchHistory(String searchQuery, String category, double latitude, 
                         double longitude, int resultsCount, long searchTimestamp) {
@@ -35,7 +46,7 @@ public class SearchHistory {
         this.latitude = latitude;
         this.longitude = longitude;
         this.resultsCount = resultsCount;
-        this.searchTimestamp = searchTimestamp;
+        setSearchTimestamp(searchTimestamp);
     }
 
     // Getters and Setters
@@ -93,5 +104,25 @@ public class SearchHistory {
 
     public void setSearchTimestamp(long searchTimestamp) {
         this.searchTimestamp = searchTimestamp;
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(searchTimestamp);
+        this.searchHour = calendar.get(Calendar.HOUR_OF_DAY);
+        this.searchDay = calendar.get(Calendar.DAY_OF_WEEK);
+    }
+
+    public int getSearchHour() {
+        return searchHour;
+    }
+
+    public void setSearchHour(int searchHour) {
+        this.searchHour = searchHour;
+    }
+
+    public int getSearchDay() {
+        return searchDay;
+    }
+
+    public void setSearchDay(int searchDay) {
+        this.searchDay = searchDay;
     }
 }
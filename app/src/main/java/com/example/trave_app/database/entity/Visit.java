@@ -0,0 +1,54 @@
+package com.example.trave_app.database.entity;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+// A detected stay at a known place (dwell cluster matched to the catalog)
+@Entity(tableName = "visits", indices = {@Index("place_id"), @Index("arrival_time")})
+public class Visit {
+    @PrimaryKey(autoGenerate = true)
+    private int id;
+
+    @ColumnInfo(name = "place_id")
+    private String placeId;
+
+    @ColumnInfo(name = "category")
+    private String category;
+
+    @ColumnInfo(name = "arrival_time")
+    private long arrivalTime;
+
+    @ColumnInfo(name = "departure_time")
+    private long departureTime;
+
+    public Visit() {
+    }
+
+    @Ignore
+    public Visit(String placeId, String category, long arrivalTime, long departureTime) {
+        this.placeId = placeId;
+        this.category = category;
+        this.arrivalTime = arrivalTime;
+        this.departureTime = departureTime;
+    }
+
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+
+    public String getPlaceId() { return placeId; }
+    public void setPlaceId(String placeId) { this.placeId = placeId; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public long getArrivalTime() { return arrivalTime; }
+    public void setArrivalTime(long arrivalTime) { this.arrivalTime = arrivalTime; }
+
+    public long getDepartureTime() { return departureTime; }
+    public void setDepartureTime(long departureTime) { this.departureTime = departureTime; }
+
+    public long getDwellMillis() { return departureTime - arrivalTime; }
+}
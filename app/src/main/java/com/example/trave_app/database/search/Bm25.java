@@ -0,0 +1,68 @@
+package com.example.trave_app.database.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Okapi BM25 over FTS4 matchinfo('pcnalx'), which SQLite's FTS4 exposes but does not rank by.
+ *
+ * The blob is native-endian 32-bit integers: phrase count p, column count c, row count n,
+ * c average column lengths, c column lengths of this row, then for each phrase and column the
+ * hits in this row, hits in all rows and rows with a hit.
+ */
+public final class Bm25 {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Per-column weights in SearchIndexSchema column order; a name hit outranks an address hit
+    public static final double[] PLACE_WEIGHTS = {3.0, 1.0, 1.5};     // name, address, category
+    public static final double[] FAVORITE_WEIGHTS = {3.0, 1.5, 1.0};  // name, notes, address
+
+    private Bm25() {
+    }
+
+    public static double score(byte[] matchInfo, double[] columnWeights) {
+        if (matchInfo == null || matchInfo.length < 12) return 0.0;
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        int rows = buffer.getInt(8);
+        int averagesAt = 3;
+        int lengthsAt = averagesAt + columns;
+        int hitsAt = lengthsAt + columns;
+        if (matchInfo.length < (hitsAt + 3 * phrases * columns) * 4) return 0.0;
+
+        double score = 0.0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int hitBase = hitsAt + 3 * (phrase * columns + column);
+                int termFrequency = buffer.getInt(hitBase * 4);
+                if (termFrequency == 0) continue;
+                int rowsWithHit = buffer.getInt((hitBase + 2) * 4);
+                double averageLength = Math.max(1, buffer.getInt((averagesAt + column) * 4));
+                int length = buffer.getInt((lengthsAt + column) * 4);
+
+                // The +1 keeps idf positive for terms found in more than half the rows
+                double idf = Math.log(1.0 + (rows - rowsWithHit + 0.5) / (rowsWithHit + 0.5));
+                double norm = K1 * (1 - B + B * length / averageLength);
+                double weight = column < columnWeights.length ? columnWeights[column] : 1.0;
+                score += weight * idf * termFrequency * (K1 + 1) / (termFrequency + norm);
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Scores every hit and sorts best first; ties keep the database order.
+     */
+    public static <T extends FtsSearchHit> List<T> rank(List<T> hits, double[] columnWeights) {
+        if (hits == null) return Collections.emptyList();
+        for (T hit : hits) {
+            hit.setScore(score(hit.matchInfo, columnWeights));
+        }
+        Collections.sort(hits, (a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return hits;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.trave_app.database.search;
+
+import androidx.room.Embedded;
+
+import com.example.trave_app.database.entity.Favorite;
+
+/**
+ * A favorite matched by FavoriteDao.searchFavorites; offset columns follow
+ * SearchIndexSchema.FAVORITE_COLUMNS.
+ */
+public class FavoriteSearchHit extends FtsSearchHit {
+    @Embedded
+    public Favorite favorite;
+
+    public Favorite getFavorite() {
+        return favorite;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.trave_app.database.search;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Ignore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columns every full-text search row carries next to its entity: the raw matchinfo() blob used
+ * for BM25 ranking and the offsets() string used for highlighting (see SearchIndexSchema).
+ */
+public abstract class FtsSearchHit {
+
+    /**
+     * One matched term: the FTS column it was found in (index into the schema's column list),
+     * the query term that matched, and its position in that column's text as UTF-8 bytes.
+     */
+    public static final class MatchOffset {
+        public final int column;
+        public final int term;
+        public final int byteOffset;
+        public final int byteLength;
+
+        MatchOffset(int column, int term, int byteOffset, int byteLength) {
+            this.column = column;
+            this.term = term;
+            this.byteOffset = byteOffset;
+            this.byteLength = byteLength;
+        }
+    }
+
+    @ColumnInfo(name = "match_info")
+    public byte[] matchInfo;
+
+    @ColumnInfo(name = "match_offsets")
+    public String matchOffsets;
+
+    @Ignore
+    private double score;
+
+    public double getScore() {
+        return score;
+    }
+
+    void setScore(double score) {
+        this.score = score;
+    }
+
+    public List<MatchOffset> getMatchOffsets() {
+        List<MatchOffset> offsets = new ArrayList<>();
+        if (matchOffsets == null || matchOffsets.isEmpty()) return offsets;
+        // offsets() is a flat list of "column term byteOffset byteLength" groups
+        String[] values = matchOffsets.trim().split(" ");
+        for (int i = 0; i + 3 < values.length; i += 4) {
+            offsets.add(new MatchOffset(Integer.parseInt(values[i]), Integer.parseInt(values[i + 1]),
+                    Integer.parseInt(values[i + 2]), Integer.parseInt(values[i + 3])));
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.trave_app.database.search;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import com.example.trave_app.database.SpatialIndexSchema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Filters on the places table that SQLite answers before any place reaches Java: a rating
+ * floor through index_places_rating, a bounding box through places_rtree, and categories
+ * through index_places_category_rating. The category column is NOCASE, so categories match in
+ * any case and still use the index. Run with PlaceDao.getPlacesSync;
+ * exact shapes (a radius, a locality polygon) are left to the caller, as in
+ * PlaceDao.getPlacesWithinRadius.
+ */
+public final class PlaceFilter {
+    public final List<String> categories; // stored values, any case; empty means any category
+    public final float minRating;         // 0 means no floor
+    public final boolean bounded;
+    public final double minLat, maxLat, minLon, maxLon;
+    public final boolean bestRatedFirst;
+    public final int limit;               // 0 means every matching row
+
+    public static final class Builder {
+        private final List<String> categories = new ArrayList<>();
+        private float minRating;
+        private boolean bounded;
+        private double minLat, maxLat, minLon, maxLon;
+        private boolean bestRatedFirst;
+        private int limit;
+
+        public Builder categories(List<String> categories) {
+            this.categories.addAll(categories);
+            return this;
+        }
+
+        public Builder minRating(float minRating) {
+            this.minRating = minRating;
+            return this;
+        }
+
+        public Builder boundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+            this.bounded = true;
+            this.minLat = minLat;
+            this.maxLat = maxLat;
+            this.minLon = minLon;
+            this.maxLon = maxLon;
+            return this;
+        }
+
+        public Builder bestRatedFirst() {
+            this.bestRatedFirst = true;
+            return this;
+        }
+
+        public Builder limit(int limit) {
+            this.limit = limit;
+            return this;
+        }
+
+        public PlaceFilter build() {
+            return new PlaceFilter(this);
+        }
+    }
+
+    private PlaceFilter(Builder builder) {
+        categories = Collections.unmodifiableList(new ArrayList<>(builder.categories));
+        minRating = builder.minRating;
+        bounded = builder.bounded;
+        minLat = builder.minLat;
+        maxLat = builder.maxLat;
+        minLon = builder.minLon;
+        maxLon = builder.maxLon;
+        bestRatedFirst = builder.bestRatedFirst;
+        limit = builder.limit;
+    }
+
+    /**
+     * Query for PlaceDao.getPlacesSync. The box is checked against the R*Tree and then against
+     * the stored coordinates, like PlaceDao.getPlacesInBoundingBox.
+     */
+    public SupportSQLiteQuery toQuery() {
+        StringBuilder sql = new StringBuilder("SELECT p.* FROM places p");
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+
+        if (bounded) {
+            sql.append(" INNER JOIN `").append(SpatialIndexSchema.TABLE).append("` r ON r.id = p.id");
+            conditions.add("r.min_lat <= ? AND r.max_lat >= ? AND r.min_lon <= ? AND r.max_lon >= ?");
+            Collections.addAll(args, maxLat, minLat, maxLon, minLon);
+            conditions.add("p.latitude BETWEEN ? AND ? AND p.longitude BETWEEN ? AND ?");
+            Collections.addAll(args, minLat, maxLat, minLon, maxLon);
+        }
+        // With a box, the R*Tree is the selective side: the unary plus keeps SQLite from
+        // starting at the rating or category index instead and probing the tree once per row
+        String column = bounded ? "+p." : "p.";
+        if (!categories.isEmpty()) {
+            conditions.add(column + "category IN (" + placeholders(categories.size()) + ")");
+            args.addAll(categories);
+        }
+        if (minRating > 0) {
+            conditions.add(column + "rating >= ?");
+            args.add((double) minRating);
+        }
+
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (bestRatedFirst) {
+            sql.append(" ORDER BY p.rating DESC, p.id");
+        }
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder marks = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            marks.append(i == 0 ? "?" : ", ?");
+        }
+        return marks.toString();
+    }
+}
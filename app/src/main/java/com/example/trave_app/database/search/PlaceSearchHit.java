@@ -0,0 +1,17 @@
+package com.example.trave_app.database.search;
+
+import androidx.room.Embedded;
+
+import com.example.trave_app.database.entity.Place;
+
+/**
+ * A place matched by PlaceDao.searchPlaces; offset columns follow SearchIndexSchema.PLACE_COLUMNS.
+ */
+public class PlaceSearchHit extends FtsSearchHit {
+    @Embedded
+    public Place place;
+
+    public Place getPlace() {
+        return place;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.trave_app.firebase.sync;
 
 import android.content.Context;
 import android.util.Log;
+import com.example.trave_app.data.FavoriteIndex;
+import com.example.trave_app.data.PlaceCatalog;
 import com.example.trave_app.database.TravelDatabase;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.Favorite;
@@ -10,6 +12,7 @@ import com.example.trave_app.firebase.repository.FirebaseRepository;
 import com.example.trave_app.firebase.model.FirebasePlace;
 import com.example.trave_app.firebase.model.FirebaseFavorite;
 import com.example.trave_app.firebase.model.FirebaseSearchHistory;
+import com.example.trave_app.ml.service.IntelligentSearchService;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -20,12 +23,18 @@ public class DataSyncService {
     private static DataSyncService instance;
     private FirebaseRepository firebaseRepository;
     private TravelDatabase localDatabase;
+    private PlaceCatalog placeCatalog;
+    private FavoriteIndex favoriteIndex;
+    private IntelligentSearchService searchService;
     private ExecutorService executorService;
     private boolean isSyncing = false;
 
     private DataSyncService(Context context) {
         firebaseRepository = FirebaseRepository.getInstance();
         localDatabase = TravelDatabase.getInstance(context);
+        placeCatalog = PlaceCatalog.getInstance(context);
+        favoriteIndex = FavoriteIndex.getInstance(context);
+        searchService = IntelligentSearchService.getInstance(context);
         executorService = Executors.newFixedThreadPool(3);
     }
 
@@ -141,7 +150,8 @@ public class DataSyncService {
                                     firebasePlace.isFavorite(),
                                     firebasePlace.getCreatedAt()
                                 );
-                                localDatabase.placeDao().insertSync(localPlace);
+                                localPlace.setId((int) localDatabase.placeDao().insertSync(localPlace));
+                                placeCatalog.onPlaceUpserted(localPlace);
                                 Log.d(TAG, "Synced place from cloud: " + firebasePlace.getName());
                             }
                         }
@@ -175,6 +185,7 @@ public class DataSyncService {
                                     firebaseFavorite.getAddedAt()
                                 );
                                 localDatabase.favoriteDao().insertSync(localFavorite);
+                                favoriteIndex.onFavoriteUpserted(localFavorite);
                                 Log.d(TAG, "Synced favorite from cloud: " + firebaseFavorite.getName());
                             }
                         }
@@ -203,6 +214,7 @@ public class DataSyncService {
                             );
                             localDatabase.searchHistoryDao().insertSync(localHistory);
                         }
+                        searchService.onSearchHistoryChanged();
                         Log.d(TAG, "Synced search history from cloud");
                     } catch (Exception e) {
                         Log.e(TAG, "Error syncing search history from cloud", e);
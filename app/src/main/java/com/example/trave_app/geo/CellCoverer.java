@@ -0,0 +1,112 @@
+package com.example.trave_app.geo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Covers a query circle with a small set of quadtree cells (see CellId).
+ *
+ * The start level is the finest one whose cells are at least as wide as the circle, so the
+ * circle's bounding box overlaps at most 2x2 of them whatever the radius. Cells that straddle
+ * the circle's edge are then split breadth-first, up to MAX_REFINE levels deeper, while the
+ * covering stays within maxCells. Cells entirely inside the circle are marked so their points
+ * need no distance check.
+ */
+public final class CellCoverer {
+    public static final int DEFAULT_MAX_CELLS = 16;
+    private static final int MIN_LEVEL = 2;
+    private static final int MAX_REFINE = 3;
+    // Cells are dropped as disjoint only when clearly outside; clamping to a lat/lon box is
+    // not the exact spherical nearest point
+    private static final double DISJOINT_MARGIN = 0.01;
+
+    private static final int DISJOINT = 0;
+    private static final int PARTIAL = 1;
+    private static final int INSIDE = 2;
+
+    public static final class Cell {
+        public final int level;
+        public final long rangeStart;
+        public final long rangeEnd;
+        public final boolean inside;
+
+        Cell(int level, long rangeStart, long rangeEnd, boolean inside) {
+            this.level = level;
+            this.rangeStart = rangeStart;
+            this.rangeEnd = rangeEnd;
+            this.inside = inside;
+        }
+    }
+
+    private CellCoverer() {
+    }
+
+    public static int startLevel(GeoMath.Circle circle) {
+        double widthDeg = Math.max(circle.maxLon - circle.minLon, circle.maxLat - circle.minLat);
+        int level = (int) Math.floor(Math.log(360.0 / widthDeg) / Math.log(2));
+        return Math.max(MIN_LEVEL, Math.min(CellId.MAX_LEVEL, level));
+    }
+
+    public static List<Cell> cover(GeoMath.Circle circle) {
+        return cover(circle, DEFAULT_MAX_CELLS);
+    }
+
+    public static List<Cell> cover(GeoMath.Circle circle, int maxCells) {
+        int level = startLevel(circle);
+        int maxLevel = Math.min(CellId.MAX_LEVEL, level + MAX_REFINE);
+        ArrayDeque<long[]> pending = new ArrayDeque<>(); // {level, x, y}
+        long minX = CellId.coordAt(level, circle.minLon + 180.0);
+        long maxX = CellId.coordAt(level, circle.maxLon + 180.0);
+        long minY = CellId.coordAt(level, circle.minLat + 90.0);
+        long maxY = CellId.coordAt(level, circle.maxLat + 90.0);
+        for (long y = minY; y <= maxY; y++) {
+            for (long x = minX; x <= maxX; x++) {
+                pending.add(new long[]{level, x, y});
+            }
+        }
+
+        List<Cell> covering = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            long[] cell = pending.poll();
+            int cellLevel = (int) cell[0];
+            long x = cell[1];
+            long y = cell[2];
+            double size = CellId.sizeDegrees(cellLevel);
+            double minLon = x * size - 180.0;
+            double minLat = y * size - 90.0;
+            int relation = relate(circle, minLat, minLat + size, minLon, minLon + size);
+            if (relation == DISJOINT) continue;
+            if (relation == PARTIAL && cellLevel < maxLevel
+                    && covering.size() + pending.size() + 4 <= maxCells) {
+                for (int child = 0; child < 4; child++) {
+                    pending.add(new long[]{cellLevel + 1, 2 * x + (child & 1), 2 * y + (child >> 1)});
+                }
+                continue;
+            }
+            covering.add(new Cell(cellLevel, CellId.rangeStart(cellLevel, x, y),
+                    CellId.rangeEnd(cellLevel, x, y), relation == INSIDE));
+        }
+        return covering;
+    }
+
+    private static int relate(GeoMath.Circle circle, double minLat, double maxLat, double minLon, double maxLon) {
+        if (maxLat < circle.minLat || minLat > circle.maxLat
+                || maxLon < circle.minLon || minLon > circle.maxLon) {
+            return DISJOINT;
+        }
+        double lat = circle.center.latitude;
+        double lon = circle.center.longitude;
+        double nearestKm = GeoMath.distanceKm(lat, lon,
+                Math.max(minLat, Math.min(maxLat, lat)), Math.max(minLon, Math.min(maxLon, lon)));
+        if (nearestKm > circle.radiusKm * (1 + DISJOINT_MARGIN)) return DISJOINT;
+        // Distance to the center peaks at a corner of a lat/lon box, so four corners decide "inside"
+        if (GeoMath.distanceKm(lat, lon, minLat, minLon) <= circle.radiusKm
+                && GeoMath.distanceKm(lat, lon, minLat, maxLon) <= circle.radiusKm
+                && GeoMath.distanceKm(lat, lon, maxLat, minLon) <= circle.radiusKm
+                && GeoMath.distanceKm(lat, lon, maxLat, maxLon) <= circle.radiusKm) {
+            return INSIDE;
+        }
+        return PARTIAL;
+    }
+}
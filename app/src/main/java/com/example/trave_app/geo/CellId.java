@@ -0,0 +1,65 @@
+package com.example.trave_app.geo;
+
+/**
+ * Quadtree cells over lat/lon, addressed S2-style by a 64-bit id.
+ *
+ * A cell at level L is a square of 360 / 2^L degrees (level 0 is the whole lon range; latitude
+ * only uses the lower half of the square). Every point maps to a leaf cell at MAX_LEVEL, and the
+ * leaf id interleaves the x/y bits (Z-order), so the leaves under any coarser cell form one
+ * contiguous id range. An index sorted by leaf id is therefore bucketed at every level at once.
+ */
+public final class CellId {
+    public static final int MAX_LEVEL = 24; // ~2.4 m cells
+    private static final long MAX_COORD = (1L << MAX_LEVEL) - 1;
+
+    private CellId() {
+    }
+
+    public static double sizeDegrees(int level) {
+        return 360.0 / (1L << level);
+    }
+
+    /**
+     * Id of the leaf cell containing the point.
+     */
+    public static long leafOf(double latitude, double longitude) {
+        return interleave(leafCoord(longitude + 180.0), leafCoord(latitude + 90.0));
+    }
+
+    /**
+     * Cell coordinate at the given level along one axis (degrees are lon or lat).
+     */
+    public static long coordAt(int level, double degreesFromOrigin) {
+        return leafCoord(degreesFromOrigin) >>> (MAX_LEVEL - level);
+    }
+
+    // First leaf id of the cell (x, y) at the given level
+    public static long rangeStart(int level, long x, long y) {
+        return interleave(x, y) << (2 * (MAX_LEVEL - level));
+    }
+
+    // One past the last leaf id of the cell (x, y) at the given level
+    public static long rangeEnd(int level, long x, long y) {
+        return (interleave(x, y) + 1) << (2 * (MAX_LEVEL - level));
+    }
+
+    private static long leafCoord(double degreesFromOrigin) {
+        long coord = (long) Math.floor(degreesFromOrigin / 360.0 * (1L << MAX_LEVEL));
+        return Math.max(0, Math.min(MAX_COORD, coord));
+    }
+
+    private static long interleave(long x, long y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    // Moves bit i of a 24-bit value to bit 2i
+    private static long spread(long v) {
+        v &= 0xffffffL;
+        v = (v | (v << 16)) & 0x0000ffff0000ffffL;
+        v = (v | (v << 8)) & 0x00ff00ff00ff00ffL;
+        v = (v | (v << 4)) & 0x0f0f0f0f0f0f0f0fL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
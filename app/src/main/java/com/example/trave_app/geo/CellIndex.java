@@ -0,0 +1,152 @@
+package com.example.trave_app.geo;
+
+import com.example.trave_app.database.entity.Place;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Places sorted by quadtree leaf cell (see CellId).
+ * Because every coarser cell is a contiguous leaf range, a radius query of any size reads only
+ * the few ranges of its CellCoverer covering: a 100 m and a 50 km query both touch at most
+ * DEFAULT_MAX_CELLS buckets, and places in cells fully inside the circle skip the distance check.
+ *
+ * The sorted arrays are rebuilt lazily by the first query after a change; the catalog is
+ * written in bursts (load, sync) and read far more often.
+ */
+public class CellIndex {
+    private final Map<String, Entry> entriesById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] sortedLeafIds = new long[0];
+    private Entry[] sortedEntries = new Entry[0];
+    private volatile boolean dirty = false;
+
+    /**
+     * Insert a place, or move it if a place with the same id is already indexed.
+     */
+    public void put(String placeId, Place place) {
+        lock.writeLock().lock();
+        try {
+            entriesById.put(placeId, new Entry(place, CellId.leafOf(place.getLatitude(), place.getLongitude())));
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String placeId) {
+        lock.writeLock().lock();
+        try {
+            if (entriesById.remove(placeId) != null) {
+                dirty = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entriesById.clear();
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * All indexed places within radiusKm of the given point.
+     */
+    public List<Place> queryRadius(double latitude, double longitude, double radiusKm) {
+        return queryRadius(latitude, longitude, radiusKm, null);
+    }
+
+    /**
+     * Places within radiusKm of the given point in one category (case-insensitive), or in all
+     * categories when category is null.
+     */
+    public List<Place> queryRadius(double latitude, double longitude, double radiusKm, String category) {
+        List<Place> result = new ArrayList<>();
+        GeoMath.Circle circle = new GeoMath.Circle(latitude, longitude, radiusKm);
+        List<CellCoverer.Cell> covering = CellCoverer.cover(circle);
+
+        ensureSorted();
+        lock.readLock().lock();
+        try {
+            for (CellCoverer.Cell cell : covering) {
+                int end = lowerBound(cell.rangeEnd);
+                for (int i = lowerBound(cell.rangeStart); i < end; i++) {
+                    Entry entry = sortedEntries[i];
+                    if (category != null && !category.equalsIgnoreCase(entry.place.getCategory())) continue;
+                    // Inside cells still honour the bounding box so results match Circle.contains exactly
+                    boolean hit = cell.inside
+                            ? circle.inBoundingBox(entry.point.latitude, entry.point.longitude)
+                            : circle.contains(entry.point);
+                    if (hit) {
+                        result.add(entry.place);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void ensureSorted() {
+        if (!dirty) return;
+        lock.writeLock().lock();
+        try {
+            if (!dirty) return;
+            Entry[] entries = entriesById.values().toArray(new Entry[0]);
+            Arrays.sort(entries, (a, b) -> Long.compare(a.leafId, b.leafId));
+            long[] leafIds = new long[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                leafIds[i] = entries[i].leafId;
+            }
+            sortedEntries = entries;
+            sortedLeafIds = leafIds;
+            dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // First position whose leaf id is >= the given id
+    private int lowerBound(long leafId) {
+        int lo = 0;
+        int hi = sortedLeafIds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedLeafIds[mid] < leafId) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static class Entry {
+        final Place place;
+        final GeoPoint point;
+        final long leafId;
+
+        Entry(Place place, long leafId) {
+            this.place = place;
+            this.point = new GeoPoint(place.getLatitude(), place.getLongitude());
+            this.leafId = leafId;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.trave_app.geo;
+
+/**
+ * Shared distance math for all proximity checks in the app.
+ *
+ * Distances are great-circle distances on a sphere of radius 6371 km (haversine). That is
+ * within about 0.5% of the WGS84 ellipsoid distance, which is the accuracy of every method here.
+ *
+ * {@link Circle#contains} answers "is this point within r km" in three layers:
+ * 1. a lat/lon bounding-box reject (four comparisons, no math),
+ * 2. an equirectangular distance using the precomputed cosines of both points,
+ * 3. an exact haversine only when the approximation lands within 0.1% of the radius.
+ * For radii up to 100 km around centers within +/-80 degrees latitude the equirectangular
+ * distance stays within 0.05% of haversine (worst case near 80 degrees; 0.001% at 5 km), so
+ * the 0.1% band guarantees the result is identical to a pure haversine test. Larger radii and
+ * centers nearer the poles always use haversine.
+ * Bounding boxes do not wrap across the 180th meridian.
+ */
+public final class GeoMath {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180.0;
+
+    // Beyond this radius, or with the center beyond this latitude, the equirectangular layer is skipped
+    private static final double MAX_APPROX_RADIUS_KM = 100.0;
+    private static final double MAX_APPROX_LATITUDE = 80.0;
+    // Relative band around the radius that is resolved with haversine
+    private static final double BOUNDARY_BAND = 0.001;
+
+    private GeoMath() {
+    }
+
+    /**
+     * Great-circle distance in km between two coordinates given in degrees.
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        return haversineKm(phi1, Math.toRadians(lon1), Math.cos(phi1),
+                phi2, Math.toRadians(lon2), Math.cos(phi2));
+    }
+
+    /**
+     * Great-circle distance in km between two precomputed points.
+     */
+    public static double distanceKm(GeoPoint a, GeoPoint b) {
+        return haversineKm(a.latRad, a.lonRad, a.cosLat, b.latRad, b.lonRad, b.cosLat);
+    }
+
+    /**
+     * Equirectangular distance in km; see the class comment for its error bounds.
+     */
+    public static double approxDistanceKm(GeoPoint a, GeoPoint b) {
+        return Math.sqrt(approxAngleSquared(a, b)) * EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Latitude half-span in degrees of a box enclosing a circle of the given radius.
+     */
+    public static double latitudeSpan(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE;
+    }
+
+    /**
+     * Longitude half-span in degrees of a box enclosing a circle of the given radius: the
+     * meridians tangent to the circle, asin(sin(r/R) / cos(lat)). A circle that reaches a pole
+     * spans every longitude (180).
+     */
+    public static double longitudeSpan(double latitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        if (angle >= Math.PI / 2 || Math.sin(angle) >= cosLat) return 180.0;
+        return Math.toDegrees(Math.asin(Math.sin(angle) / cosLat));
+    }
+
+    /**
+     * Distance in km from a point to the segment a-b, measured in the equirectangular plane
+     * around the point (same error bounds as {@link #approxDistanceKm}).
+     */
+    public static double distanceToSegmentKm(GeoPoint p, GeoPoint a, GeoPoint b) {
+        double ax = (a.lonRad - p.lonRad) * p.cosLat;
+        double ay = a.latRad - p.latRad;
+        double bx = (b.lonRad - p.lonRad) * p.cosLat;
+        double by = b.latRad - p.latRad;
+        double dx = bx - ax;
+        double dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared));
+        double x = ax + t * dx;
+        double y = ay + t * dy;
+        return Math.sqrt(x * x + y * y) * EARTH_RADIUS_KM;
+    }
+
+    private static double haversineKm(double phi1, double lambda1, double cosPhi1,
+                                      double phi2, double lambda2, double cosPhi2) {
+        double sinDPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDLambda = Math.sin((lambda2 - lambda1) / 2);
+        double a = sinDPhi * sinDPhi + cosPhi1 * cosPhi2 * sinDLambda * sinDLambda;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Squared central angle; the mean of the two cosines replaces cos of the mean latitude
+    private static double approxAngleSquared(GeoPoint a, GeoPoint b) {
+        double x = (b.lonRad - a.lonRad) * (a.cosLat + b.cosLat) * 0.5;
+        double y = b.latRad - a.latRad;
+        return x * x + y * y;
+    }
+
+    /**
+     * A radius query around a fixed center, with all per-query constants precomputed.
+     */
+    public static final class Circle {
+        public final GeoPoint center;
+        public final double radiusKm;
+        public final double minLat;
+        public final double maxLat;
+        public final double minLon;
+        public final double maxLon;
+
+        private final boolean approximate;
+        private final double innerAngleSquared;
+        private final double outerAngleSquared;
+
+        public Circle(double latitude, double longitude, double radiusKm) {
+            this.center = new GeoPoint(latitude, longitude);
+            this.radiusKm = radiusKm;
+            double latSpan = latitudeSpan(radiusKm);
+            double lonSpan = longitudeSpan(latitude, radiusKm);
+            this.minLat = latitude - latSpan;
+            this.maxLat = latitude + latSpan;
+            this.minLon = longitude - lonSpan;
+            this.maxLon = longitude + lonSpan;
+
+            this.approximate = radiusKm <= MAX_APPROX_RADIUS_KM && Math.abs(latitude) <= MAX_APPROX_LATITUDE;
+            double angle = radiusKm / EARTH_RADIUS_KM;
+            double inner = angle * (1 - BOUNDARY_BAND);
+            double outer = angle * (1 + BOUNDARY_BAND);
+            this.innerAngleSquared = inner * inner;
+            this.outerAngleSquared = outer * outer;
+        }
+
+        public boolean inBoundingBox(double latitude, double longitude) {
+            return latitude >= minLat && latitude <= maxLat
+                    && longitude >= minLon && longitude <= maxLon;
+        }
+
+        public boolean contains(GeoPoint point) {
+            if (!inBoundingBox(point.latitude, point.longitude)) return false;
+            if (approximate) {
+                double angleSquared = approxAngleSquared(center, point);
+                if (angleSquared <= innerAngleSquared) return true;
+                if (angleSquared >= outerAngleSquared) return false;
+            }
+            return distanceKm(center, point) <= radiusKm;
+        }
+
+        public boolean contains(double latitude, double longitude) {
+            if (!inBoundingBox(latitude, longitude)) return false;
+            return contains(new GeoPoint(latitude, longitude));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.trave_app.geo;
+
+/**
+ * A coordinate with its radians and latitude cosine computed once,
+ * so distance checks against it need no toRadians/cos per comparison.
+ */
+public final class GeoPoint {
+    public final double latitude;
+    public final double longitude;
+    public final double latRad;
+    public final double lonRad;
+    public final double cosLat;
+
+    public GeoPoint(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.latRad = Math.toRadians(latitude);
+        this.lonRad = Math.toRadians(longitude);
+        this.cosLat = Math.cos(latRad);
+    }
+}
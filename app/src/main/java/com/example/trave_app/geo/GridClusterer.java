@@ -0,0 +1,186 @@
+package com.example.trave_app.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Screen-space grid clustering for map markers.
+ * Items are projected to Web Mercator once and kept sorted by x, so a viewport query binary
+ * searches the x range of the visible cells and only buckets their items. Cells are CELL_SIZE_PX
+ * wide at the requested integer zoom, so a viewport yields at most a few dozen clusters
+ * however many items the catalog holds. A cell cut by the viewport edge is still clustered
+ * whole, with its off-screen members, so cluster keys, counts and positions stay the same as
+ * the camera pans and the caller can keep unchanged markers across camera moves.
+ * Viewports crossing the 180th meridian are treated as the full longitude range.
+ */
+public class GridClusterer {
+    public static final int CELL_SIZE_PX = 100;
+    // At and beyond this zoom every item is shown on its own
+    public static final int MAX_CLUSTER_ZOOM = 17;
+    private static final double TILE_SIZE_PX = 256.0;
+
+    public static class Item {
+        public final String id;
+        public final String title;
+        public final double latitude;
+        public final double longitude;
+        final double x;
+        final double y;
+
+        public Item(String id, String title, double latitude, double longitude) {
+            this.id = id;
+            this.title = title;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.x = mercatorX(longitude);
+            this.y = mercatorY(latitude);
+        }
+    }
+
+    public static class Cluster {
+        public final String key;
+        public final double latitude;
+        public final double longitude;
+        public final List<Item> items;
+
+        Cluster(String key, double latitude, double longitude, List<Item> items) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.items = items;
+        }
+
+        public int size() {
+            return items.size();
+        }
+    }
+
+    private final Map<String, Item> itemsById = new LinkedHashMap<>();
+    private Item[] sortedByX = new Item[0];
+    private double[] xs = new double[0];
+    private boolean dirty;
+
+    public synchronized void addItems(Collection<Item> items) {
+        for (Item item : items) {
+            itemsById.put(item.id, item);
+        }
+        dirty = true;
+    }
+
+    public synchronized void clear() {
+        itemsById.clear();
+        dirty = true;
+    }
+
+    public synchronized int size() {
+        return itemsById.size();
+    }
+
+    /**
+     * Clusters of the items inside the given bounds at the given camera zoom.
+     */
+    public synchronized List<Cluster> cluster(double south, double west, double north, double east, float zoom) {
+        if (dirty) rebuild();
+
+        int z = (int) Math.floor(zoom);
+        double cellSize = CELL_SIZE_PX / (TILE_SIZE_PX * Math.pow(2, z));
+        double minX = west <= east ? mercatorX(west) : 0;
+        double maxX = west <= east ? mercatorX(east) : 1;
+        double minY = mercatorY(north);
+        double maxY = mercatorY(south);
+
+        if (z >= MAX_CLUSTER_ZOOM) {
+            List<Cluster> singles = new ArrayList<>();
+            for (int i = lowerBound(minX); i < sortedByX.length && xs[i] <= maxX; i++) {
+                Item item = sortedByX[i];
+                if (item.y >= minY && item.y <= maxY) singles.add(single(item));
+            }
+            return singles;
+        }
+
+        // Widen the range to whole cells, comparing cell indices so edge items land as in the key
+        long minCellX = cellOf(minX, cellSize);
+        long maxCellX = cellOf(maxX, cellSize);
+        long minCellY = cellOf(minY, cellSize);
+        long maxCellY = cellOf(maxY, cellSize);
+        Map<Long, List<Item>> cells = new HashMap<>();
+        int start = lowerBound(minCellX * cellSize);
+        while (start > 0 && cellOf(xs[start - 1], cellSize) >= minCellX) start--;
+        for (int i = start; i < sortedByX.length && cellOf(xs[i], cellSize) <= maxCellX; i++) {
+            Item item = sortedByX[i];
+            long cellY = cellOf(item.y, cellSize);
+            if (cellY < minCellY || cellY > maxCellY) continue;
+            long cell = (cellOf(item.x, cellSize) << 32) | (cellY & 0xffffffffL);
+            List<Item> members = cells.get(cell);
+            if (members == null) {
+                members = new ArrayList<>();
+                cells.put(cell, members);
+            }
+            members.add(item);
+        }
+
+        List<Cluster> clusters = new ArrayList<>();
+        for (Map.Entry<Long, List<Item>> entry : cells.entrySet()) {
+            List<Item> members = entry.getValue();
+            if (members.size() == 1) {
+                clusters.add(single(members.get(0)));
+                continue;
+            }
+            double lat = 0;
+            double lon = 0;
+            for (Item item : members) {
+                lat += item.latitude;
+                lon += item.longitude;
+            }
+            String key = "c:" + z + ":" + entry.getKey() + ":" + members.size();
+            clusters.add(new Cluster(key, lat / members.size(), lon / members.size(), members));
+        }
+        return clusters;
+    }
+
+    private static Cluster single(Item item) {
+        List<Item> members = new ArrayList<>(1);
+        members.add(item);
+        return new Cluster("p:" + item.id, item.latitude, item.longitude, members);
+    }
+
+    private static long cellOf(double coordinate, double cellSize) {
+        return (long) (coordinate / cellSize);
+    }
+
+    private void rebuild() {
+        sortedByX = itemsById.values().toArray(new Item[0]);
+        Arrays.sort(sortedByX, (a, b) -> Double.compare(a.x, b.x));
+        xs = new double[sortedByX.length];
+        for (int i = 0; i < sortedByX.length; i++) {
+            xs[i] = sortedByX[i].x;
+        }
+        dirty = false;
+    }
+
+    private int lowerBound(double x) {
+        int lo = 0;
+        int hi = xs.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (xs[mid] < x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // Web Mercator in [0, 1), the projection Google Maps renders with
+    static double mercatorX(double longitude) {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05, Math.min(85.05, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
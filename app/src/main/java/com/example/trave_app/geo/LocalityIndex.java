@@ -0,0 +1,264 @@
+package com.example.trave_app.geo;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.database.entity.Place;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Neighbourhood polygons loaded from a GeoJSON FeatureCollection (assets/localities.geojson).
+ *
+ * Each Feature is a Polygon or MultiPolygon (outer rings only) with properties "name", "city"
+ * and optional "aliases". Point lookups go through a uniform grid over all polygons: a cell
+ * lists the localities whose bounding box overlaps it, so a lookup is one cell read, a bbox
+ * check and a ray-casting test on a handful of vertices. Mentions of localities in text are
+ * found by KeywordDictionary.
+ */
+public class LocalityIndex {
+    private static final String TAG = "LocalityIndex";
+    private static final String ASSET_FILE = "localities.geojson";
+    // ~550 m cells; neighbourhoods span a few of them, so each cell has one or two candidates
+    private static final double GRID_CELL_DEG = 0.005;
+    private static LocalityIndex instance;
+
+    public static final class Locality {
+        public final String name;
+        public final String city;
+        final List<String> matchNames; // lowercase name and aliases
+        final List<double[]> rings;    // each ring is lat0, lon0, lat1, lon1, ...
+        public final double minLat, maxLat, minLon, maxLon; // bounding box of the rings
+
+        Locality(String name, String city, List<String> matchNames, List<double[]> rings) {
+            this.name = name;
+            this.city = city;
+            this.matchNames = matchNames;
+            this.rings = rings;
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            for (double[] ring : rings) {
+                for (int i = 0; i < ring.length; i += 2) {
+                    minLat = Math.min(minLat, ring[i]);
+                    maxLat = Math.max(maxLat, ring[i]);
+                    minLon = Math.min(minLon, ring[i + 1]);
+                    maxLon = Math.max(maxLon, ring[i + 1]);
+                }
+            }
+            this.minLat = minLat;
+            this.maxLat = maxLat;
+            this.minLon = minLon;
+            this.maxLon = maxLon;
+        }
+
+        // Lowercase name followed by its aliases
+        public List<String> getMatchNames() {
+            return Collections.unmodifiableList(matchNames);
+        }
+
+        public boolean contains(double latitude, double longitude) {
+            if (latitude < minLat || latitude > maxLat || longitude < minLon || longitude > maxLon) return false;
+            for (double[] ring : rings) {
+                if (ringContains(ring, latitude, longitude)) return true;
+            }
+            return false;
+        }
+
+        // Even-odd ray cast towards increasing longitude
+        private static boolean ringContains(double[] ring, double latitude, double longitude) {
+            boolean inside = false;
+            int n = ring.length;
+            for (int i = 0, j = n - 2; i < n; j = i, i += 2) {
+                double latI = ring[i], lonI = ring[i + 1];
+                double latJ = ring[j], lonJ = ring[j + 1];
+                if ((latI > latitude) != (latJ > latitude)
+                        && longitude < (lonJ - lonI) * (latitude - latI) / (latJ - latI) + lonI) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+    }
+
+    private final List<Locality> localities;
+    private final double gridMinLat;
+    private final double gridMinLon;
+    private final int gridRows;
+    private final int gridCols;
+    private final Locality[][] cells;
+
+    private LocalityIndex(List<Locality> localities) {
+        this.localities = localities;
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (Locality locality : localities) {
+            minLat = Math.min(minLat, locality.minLat);
+            maxLat = Math.max(maxLat, locality.maxLat);
+            minLon = Math.min(minLon, locality.minLon);
+            maxLon = Math.max(maxLon, locality.maxLon);
+        }
+        if (localities.isEmpty()) {
+            minLat = maxLat = minLon = maxLon = 0;
+        }
+        gridMinLat = minLat;
+        gridMinLon = minLon;
+        gridRows = (int) Math.floor((maxLat - minLat) / GRID_CELL_DEG) + 1;
+        gridCols = (int) Math.floor((maxLon - minLon) / GRID_CELL_DEG) + 1;
+
+        List<List<Locality>> buckets = new ArrayList<>(gridRows * gridCols);
+        for (int i = 0; i < gridRows * gridCols; i++) buckets.add(null);
+        for (Locality locality : localities) {
+            int row0 = row(locality.minLat), row1 = row(locality.maxLat);
+            int col0 = col(locality.minLon), col1 = col(locality.maxLon);
+            for (int r = row0; r <= row1; r++) {
+                for (int c = col0; c <= col1; c++) {
+                    int cell = r * gridCols + c;
+                    if (buckets.get(cell) == null) buckets.set(cell, new ArrayList<>(2));
+                    buckets.get(cell).add(locality);
+                }
+            }
+        }
+        cells = new Locality[buckets.size()][];
+        for (int i = 0; i < cells.length; i++) {
+            List<Locality> bucket = buckets.get(i);
+            cells[i] = bucket == null ? null : bucket.toArray(new Locality[0]);
+        }
+    }
+
+    public static synchronized LocalityIndex getInstance(Context context) {
+        if (instance == null) {
+            List<Locality> localities;
+            try (InputStream in = context.getApplicationContext().getAssets().open(ASSET_FILE)) {
+                localities = parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error loading " + ASSET_FILE, e);
+                localities = new ArrayList<>();
+            }
+            instance = new LocalityIndex(localities);
+            Log.d(TAG, "Loaded " + localities.size() + " localities");
+        }
+        return instance;
+    }
+
+    // Plain Java entry point, also used off-device
+    public static LocalityIndex fromGeoJson(Reader reader) {
+        return new LocalityIndex(parse(reader));
+    }
+
+    public List<Locality> getLocalities() {
+        return Collections.unmodifiableList(localities);
+    }
+
+    /**
+     * The locality containing the point, or null if it lies outside every polygon.
+     * Where polygons overlap, the first one in the file wins.
+     */
+    public Locality localityAt(double latitude, double longitude) {
+        int r = (int) Math.floor((latitude - gridMinLat) / GRID_CELL_DEG);
+        int c = (int) Math.floor((longitude - gridMinLon) / GRID_CELL_DEG);
+        if (r < 0 || r >= gridRows || c < 0 || c >= gridCols) return null;
+        Locality[] candidates = cells[r * gridCols + c];
+        if (candidates == null) return null;
+        for (Locality locality : candidates) {
+            if (locality.contains(latitude, longitude)) return locality;
+        }
+        return null;
+    }
+
+    public Locality findByName(String name) {
+        if (name == null) return null;
+        String lower = name.toLowerCase(Locale.ROOT).trim();
+        for (Locality locality : localities) {
+            if (locality.matchNames.contains(lower)) return locality;
+        }
+        return null;
+    }
+
+    /**
+     * The places of the given list that lie inside the locality, in list order.
+     */
+    public List<Place> placesIn(Locality locality, List<Place> places) {
+        List<Place> result = new ArrayList<>();
+        for (Place place : places) {
+            if (localityAt(place.getLatitude(), place.getLongitude()) == locality) {
+                result.add(place);
+            }
+        }
+        return result;
+    }
+
+    private int row(double latitude) {
+        return Math.min(gridRows - 1, (int) Math.floor((latitude - gridMinLat) / GRID_CELL_DEG));
+    }
+
+    private int col(double longitude) {
+        return Math.min(gridCols - 1, (int) Math.floor((longitude - gridMinLon) / GRID_CELL_DEG));
+    }
+
+    private static List<Locality> parse(Reader reader) {
+        List<Locality> localities = new ArrayList<>();
+        JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+        for (JsonElement element : root.getAsJsonArray("features")) {
+            JsonObject feature = element.getAsJsonObject();
+            JsonObject properties = feature.getAsJsonObject("properties");
+            JsonObject geometry = feature.getAsJsonObject("geometry");
+            if (properties == null || geometry == null || !properties.has("name")) continue;
+
+            String name = properties.get("name").getAsString();
+            String city = properties.has("city") ? properties.get("city").getAsString() : null;
+            List<String> matchNames = new ArrayList<>();
+            matchNames.add(name.toLowerCase(Locale.ROOT));
+            if (properties.has("aliases")) {
+                for (JsonElement alias : properties.getAsJsonArray("aliases")) {
+                    matchNames.add(alias.getAsString().toLowerCase(Locale.ROOT));
+                }
+            }
+
+            List<double[]> rings = new ArrayList<>();
+            String type = geometry.get("type").getAsString();
+            JsonArray coordinates = geometry.getAsJsonArray("coordinates");
+            if ("Polygon".equals(type)) {
+                rings.add(toRing(coordinates.get(0).getAsJsonArray()));
+            } else if ("MultiPolygon".equals(type)) {
+                for (JsonElement polygon : coordinates) {
+                    rings.add(toRing(polygon.getAsJsonArray().get(0).getAsJsonArray()));
+                }
+            } else {
+                Log.w(TAG, "Skipping " + name + ": unsupported geometry " + type);
+                continue;
+            }
+            localities.add(new Locality(name, city, matchNames, rings));
+        }
+        return localities;
+    }
+
+    // GeoJSON positions are [lon, lat]; the closing position is dropped
+    private static double[] toRing(JsonArray positions) {
+        int count = positions.size();
+        JsonArray first = positions.get(0).getAsJsonArray();
+        JsonArray last = positions.get(count - 1).getAsJsonArray();
+        if (count > 1 && first.get(0).getAsDouble() == last.get(0).getAsDouble()
+                && first.get(1).getAsDouble() == last.get(1).getAsDouble()) {
+            count--;
+        }
+        double[] ring = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            JsonArray position = positions.get(i).getAsJsonArray();
+            ring[i * 2] = position.get(1).getAsDouble();
+            ring[i * 2 + 1] = position.get(0).getAsDouble();
+        }
+        return ring;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.trave_app.geo;
+
+import android.content.Context;
+
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.database.entity.Place;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * k-nearest-neighbour queries over the place catalog, overall and per category.
+ *
+ * Each bucket is a static PlaceKdTree plus a small buffer of places written since the tree
+ * was built. Removals tombstone the tree entry. A bucket is rebuilt once its buffer and
+ * tombstones exceed an eighth of the tree, so maintenance is amortized O(log n) per write and
+ * a query costs O(log n + k) plus a scan of the (bounded) buffer.
+ */
+public class NearestPlaceService implements PlaceCatalog.Listener {
+    private static NearestPlaceService instance;
+
+    private static final String ALL_CATEGORIES = "";
+    private static final int MIN_REBUILD_THRESHOLD = 32;
+
+    private final PlaceCatalog placeCatalog;
+    private final Map<String, Bucket> buckets = new HashMap<>();
+    private final Map<String, String> categoryById = new HashMap<>();
+
+    private NearestPlaceService(Context context) {
+        this.placeCatalog = PlaceCatalog.getInstance(context);
+    }
+
+    public static synchronized NearestPlaceService getInstance(Context context) {
+        if (instance == null) {
+            instance = new NearestPlaceService(context.getApplicationContext());
+            instance.placeCatalog.addListener(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * The k places closest to the point, optionally restricted to one category, closest first.
+     */
+    public List<Place> nearest(double latitude, double longitude, int k, String category) {
+        return nearestWithin(latitude, longitude, k, Double.MAX_VALUE, category);
+    }
+
+    /**
+     * The k places closest to the point that are no more than maxKm away, closest first.
+     */
+    public List<Place> nearestWithin(double latitude, double longitude, int k, double maxKm) {
+        return nearestWithin(latitude, longitude, k, maxKm, null);
+    }
+
+    public List<Place> nearestWithin(double latitude, double longitude, int k, double maxKm, String category) {
+        if (k <= 0) return new ArrayList<>();
+        // Load outside our own lock: the catalog calls back into this listener while holding its lock
+        placeCatalog.ensureLoaded();
+        PlaceKdTree.Neighbors neighbors = new PlaceKdTree.Neighbors(latitude, longitude, k, maxKm);
+        synchronized (this) {
+            Bucket bucket = buckets.get(bucketKey(category));
+            if (bucket == null) return new ArrayList<>();
+            bucket.search(neighbors);
+        }
+        return neighbors.toSortedList();
+    }
+
+    // PlaceCatalog.Listener
+
+    @Override
+    public synchronized void onCatalogReset(List<Place> places) {
+        buckets.clear();
+        categoryById.clear();
+        Map<String, List<String>> idsByBucket = new HashMap<>();
+        Map<String, List<Place>> placesByBucket = new HashMap<>();
+        for (Place place : places) {
+            String id = PlaceCatalog.keyOf(place);
+            categoryById.put(id, place.getCategory());
+            addToGroup(idsByBucket, placesByBucket, ALL_CATEGORIES, id, place);
+            if (place.getCategory() != null) {
+                addToGroup(idsByBucket, placesByBucket, bucketKey(place.getCategory()), id, place);
+            }
+        }
+        for (Map.Entry<String, List<Place>> entry : placesByBucket.entrySet()) {
+            buckets.put(entry.getKey(), new Bucket(idsByBucket.get(entry.getKey()), entry.getValue()));
+        }
+    }
+
+    @Override
+    public synchronized void onPlaceUpserted(String placeId, Place place) {
+        removeFromBuckets(placeId);
+        categoryById.put(placeId, place.getCategory());
+        bucketFor(ALL_CATEGORIES).add(placeId, place);
+        if (place.getCategory() != null) {
+            bucketFor(bucketKey(place.getCategory())).add(placeId, place);
+        }
+    }
+
+    @Override
+    public synchronized void onPlaceRemoved(String placeId, Place place) {
+        removeFromBuckets(placeId);
+    }
+
+    private void removeFromBuckets(String placeId) {
+        if (!categoryById.containsKey(placeId)) return;
+        String category = categoryById.remove(placeId);
+        Bucket all = buckets.get(ALL_CATEGORIES);
+        if (all != null) all.remove(placeId);
+        if (category == null) return;
+        Bucket byCategory = buckets.get(bucketKey(category));
+        if (byCategory != null) byCategory.remove(placeId);
+    }
+
+    private Bucket bucketFor(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(new ArrayList<>(), new ArrayList<>());
+            buckets.put(key, bucket);
+        }
+        return bucket;
+    }
+
+    private static void addToGroup(Map<String, List<String>> ids, Map<String, List<Place>> places,
+                                   String key, String id, Place place) {
+        List<String> idList = ids.get(key);
+        if (idList == null) {
+            idList = new ArrayList<>();
+            ids.put(key, idList);
+            places.put(key, new ArrayList<>());
+        }
+        idList.add(id);
+        places.get(key).add(place);
+    }
+
+    private static String bucketKey(String category) {
+        return category == null ? ALL_CATEGORIES : "c:" + category;
+    }
+
+    private static class Bucket {
+        private PlaceKdTree tree;
+        private final Map<String, Place> pending = new LinkedHashMap<>();
+
+        Bucket(List<String> ids, List<Place> places) {
+            this.tree = new PlaceKdTree(ids, places);
+        }
+
+        void add(String placeId, Place place) {
+            pending.put(placeId, place);
+            maybeRebuild();
+        }
+
+        void remove(String placeId) {
+            if (pending.remove(placeId) == null) {
+                tree.remove(placeId);
+            }
+            maybeRebuild();
+        }
+
+        void search(PlaceKdTree.Neighbors neighbors) {
+            tree.search(neighbors);
+            for (Place place : pending.values()) {
+                neighbors.offer(place);
+            }
+        }
+
+        private void maybeRebuild() {
+            int churn = pending.size() + tree.removedCount();
+            if (churn < Math.max(MIN_REBUILD_THRESHOLD, tree.size() / 8)) return;
+            List<String> ids = new ArrayList<>(tree.liveSize() + pending.size());
+            List<Place> places = new ArrayList<>(tree.liveSize() + pending.size());
+            tree.collectLive(ids, places);
+            for (Map.Entry<String, Place> entry : pending.entrySet()) {
+                ids.add(entry.getKey());
+                places.add(entry.getValue());
+            }
+            tree = new PlaceKdTree(ids, places);
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.trave_app.geo;
+
+import com.example.trave_app.database.entity.Place;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, balanced 3-d tree over places.
+ * Points are stored as unit vectors on the sphere, so the Euclidean (chord) distance used for
+ * pruning orders points exactly like the great-circle distance and no trig runs during a search.
+ * Removals are tombstones; NearestPlaceService rebuilds the tree once enough of them pile up.
+ */
+public class PlaceKdTree {
+    private final Place[] places;
+    private final String[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final boolean[] removed;
+    private final Map<String, Integer> positionById;
+    private int removedCount;
+
+    public PlaceKdTree(List<String> placeIds, List<Place> placeList) {
+        int n = placeList.size();
+        Integer[] order = new Integer[n];
+        double[][] coords = new double[n][];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            Place place = placeList.get(i);
+            coords[i] = toUnitVector(place.getLatitude(), place.getLongitude());
+        }
+        build(order, coords, 0, n, 0);
+
+        places = new Place[n];
+        ids = new String[n];
+        xs = new double[n];
+        ys = new double[n];
+        zs = new double[n];
+        removed = new boolean[n];
+        positionById = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            int source = order[i];
+            places[i] = placeList.get(source);
+            ids[i] = placeIds.get(source);
+            xs[i] = coords[source][0];
+            ys[i] = coords[source][1];
+            zs[i] = coords[source][2];
+            positionById.put(ids[i], i);
+        }
+    }
+
+    public int size() {
+        return places.length;
+    }
+
+    public int liveSize() {
+        return places.length - removedCount;
+    }
+
+    public int removedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Mark a place as gone. Returns false if it was not in this tree.
+     */
+    public boolean remove(String placeId) {
+        Integer position = positionById.get(placeId);
+        if (position == null || removed[position]) return false;
+        removed[position] = true;
+        removedCount++;
+        return true;
+    }
+
+    /**
+     * Collect live places with the ids and places they were built from (for rebuilds).
+     */
+    public void collectLive(List<String> idsOut, List<Place> placesOut) {
+        for (int i = 0; i < places.length; i++) {
+            if (!removed[i]) {
+                idsOut.add(ids[i]);
+                placesOut.add(places[i]);
+            }
+        }
+    }
+
+    /**
+     * Offer the tree's points to the collector, pruning subtrees that cannot beat its current worst.
+     */
+    public void search(Neighbors neighbors) {
+        // An empty collector has no worst distance to prune with
+        if (neighbors.k <= 0) return;
+        search(neighbors, 0, places.length, 0);
+    }
+
+    private void search(Neighbors neighbors, int lo, int hi, int axis) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        if (!removed[mid]) {
+            neighbors.offer(places[mid], xs[mid], ys[mid], zs[mid]);
+        }
+        double diff = axisValue(neighbors.qx, neighbors.qy, neighbors.qz, axis) - axisValue(mid, axis);
+        int nextAxis = (axis + 1) % 3;
+        if (diff < 0) {
+            search(neighbors, lo, mid, nextAxis);
+            if (diff * diff < neighbors.worstSquared()) search(neighbors, mid + 1, hi, nextAxis);
+        } else {
+            search(neighbors, mid + 1, hi, nextAxis);
+            if (diff * diff < neighbors.worstSquared()) search(neighbors, lo, mid, nextAxis);
+        }
+    }
+
+    private double axisValue(int position, int axis) {
+        return axis == 0 ? xs[position] : axis == 1 ? ys[position] : zs[position];
+    }
+
+    private static double axisValue(double x, double y, double z, int axis) {
+        return axis == 0 ? x : axis == 1 ? y : z;
+    }
+
+    // Median-split build: quickselect puts the median at mid, smaller left, larger right
+    private static void build(Integer[] order, double[][] coords, int lo, int hi, int axis) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        select(order, coords, lo, hi - 1, mid, axis);
+        int nextAxis = (axis + 1) % 3;
+        build(order, coords, lo, mid, nextAxis);
+        build(order, coords, mid + 1, hi, nextAxis);
+    }
+
+    private static void select(Integer[] order, double[][] coords, int left, int right, int k, int axis) {
+        while (right > left) {
+            double pivot = coords[order[(left + right) >>> 1]][axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coords[order[i]][axis] < pivot) i++;
+                while (coords[order[j]][axis] > pivot) j--;
+                if (i <= j) {
+                    Integer tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    static double[] toUnitVector(double latitude, double longitude) {
+        double phi = Math.toRadians(latitude);
+        double lambda = Math.toRadians(longitude);
+        double cosPhi = Math.cos(phi);
+        return new double[]{cosPhi * Math.cos(lambda), cosPhi * Math.sin(lambda), Math.sin(phi)};
+    }
+
+    // Chord length on the unit sphere for a great-circle distance
+    static double chordForKm(double km) {
+        double angle = Math.min(km / GeoMath.EARTH_RADIUS_KM, Math.PI);
+        return 2 * Math.sin(angle / 2);
+    }
+
+    /**
+     * Bounded max-heap of the k closest points seen so far, ordered by squared chord length.
+     */
+    public static class Neighbors {
+        final double qx;
+        final double qy;
+        final double qz;
+        final int k;
+        private final double limitSquared;
+        private final Place[] heapPlaces;
+        private final double[] heapDistances;
+        private int size;
+
+        public Neighbors(double latitude, double longitude, int k, double maxKm) {
+            double[] q = toUnitVector(latitude, longitude);
+            this.qx = q[0];
+            this.qy = q[1];
+            this.qz = q[2];
+            this.k = Math.max(k, 0);
+            double chord = chordForKm(maxKm);
+            this.limitSquared = chord * chord;
+            this.heapPlaces = new Place[this.k];
+            this.heapDistances = new double[this.k];
+        }
+
+        double worstSquared() {
+            return size < k ? limitSquared : heapDistances[0];
+        }
+
+        void offer(Place place, double x, double y, double z) {
+            double dx = x - qx;
+            double dy = y - qy;
+            double dz = z - qz;
+            double d = dx * dx + dy * dy + dz * dz;
+            if (k == 0 || d > worstSquared()) return;
+            if (size < k) {
+                heapPlaces[size] = place;
+                heapDistances[size] = d;
+                siftUp(size++);
+            } else {
+                heapPlaces[0] = place;
+                heapDistances[0] = d;
+                siftDown(0);
+            }
+        }
+
+        public void offer(Place place) {
+            double[] v = toUnitVector(place.getLatitude(), place.getLongitude());
+            offer(place, v[0], v[1], v[2]);
+        }
+
+        /**
+         * Collected places, closest first.
+         */
+        public List<Place> toSortedList() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(heapDistances[a], heapDistances[b]));
+            List<Place> result = new ArrayList<>(size);
+            for (int i : order) {
+                result.add(heapPlaces[i]);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapDistances[parent] >= heapDistances[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int largest = left;
+                int right = left + 1;
+                if (right < size && heapDistances[right] > heapDistances[left]) largest = right;
+                if (heapDistances[i] >= heapDistances[largest]) break;
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            Place p = heapPlaces[a];
+            heapPlaces[a] = heapPlaces[b];
+            heapPlaces[b] = p;
+            double d = heapDistances[a];
+            heapDistances[a] = heapDistances[b];
+            heapDistances[b] = d;
+        }
+    }
+}
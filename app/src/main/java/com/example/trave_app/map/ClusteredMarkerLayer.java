@@ -0,0 +1,129 @@
+package com.example.trave_app.map;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.trave_app.geo.GridClusterer;
+import com.google.android.gms.maps.CameraUpdateFactory;
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns all place markers on a GoogleMap.
+ * Items are clustered per zoom level off the main thread and only clusters inside the visible
+ * viewport become Markers. On camera idle the layer reclusters and diffs against the markers
+ * already on the map, so markers whose cluster did not change are left alone.
+ */
+public class ClusteredMarkerLayer implements GoogleMap.OnCameraIdleListener, GoogleMap.OnMarkerClickListener {
+    private static final float CLUSTER_HUE = BitmapDescriptorFactory.HUE_AZURE;
+    private static final float CLUSTER_ZOOM_STEP = 2.0f;
+    // Clustering gets its own thread so camera moves never queue behind Room writes
+    private static final ExecutorService clusterExecutor = Executors.newSingleThreadExecutor();
+
+    private final GoogleMap map;
+    private final GridClusterer clusterer = new GridClusterer();
+    private final Map<String, Marker> markersByKey = new HashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Results of an older camera position are dropped if a newer one was requested
+    private final AtomicInteger generation = new AtomicInteger();
+    private final float itemHue;
+
+    public ClusteredMarkerLayer(GoogleMap map, float itemHue) {
+        this.map = map;
+        this.itemHue = itemHue;
+        map.setOnCameraIdleListener(this);
+        map.setOnMarkerClickListener(this);
+    }
+
+    public void addItems(Collection<GridClusterer.Item> items) {
+        clusterer.addItems(items);
+        refresh();
+    }
+
+    public void addItem(GridClusterer.Item item) {
+        List<GridClusterer.Item> items = new ArrayList<>(1);
+        items.add(item);
+        addItems(items);
+    }
+
+    @Override
+    public void onCameraIdle() {
+        refresh();
+    }
+
+    @Override
+    public boolean onMarkerClick(Marker marker) {
+        if (!(marker.getTag() instanceof GridClusterer.Cluster)) return false;
+        // Zoom into a cluster instead of showing its info window
+        float zoom = Math.min(map.getCameraPosition().zoom + CLUSTER_ZOOM_STEP, map.getMaxZoomLevel());
+        map.animateCamera(CameraUpdateFactory.newLatLngZoom(marker.getPosition(), zoom));
+        return true;
+    }
+
+    // Must be called on the main thread (reads the camera)
+    public void refresh() {
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        float zoom = map.getCameraPosition().zoom;
+        int requested = generation.incrementAndGet();
+        clusterExecutor.execute(() -> {
+            // Only the latest camera position matters; skip positions already passed
+            if (requested != generation.get()) return;
+            List<GridClusterer.Cluster> clusters = clusterer.cluster(
+                    bounds.southwest.latitude, bounds.southwest.longitude,
+                    bounds.northeast.latitude, bounds.northeast.longitude, zoom);
+            mainHandler.post(() -> {
+                if (requested == generation.get()) apply(clusters);
+            });
+        });
+    }
+
+    private void apply(List<GridClusterer.Cluster> clusters) {
+        Map<String, GridClusterer.Cluster> wanted = new HashMap<>();
+        for (GridClusterer.Cluster cluster : clusters) {
+            wanted.put(cluster.key, cluster);
+        }
+
+        Iterator<Map.Entry<String, Marker>> iterator = markersByKey.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Marker> entry = iterator.next();
+            if (!wanted.containsKey(entry.getKey())) {
+                entry.getValue().remove();
+                iterator.remove();
+            }
+        }
+
+        for (GridClusterer.Cluster cluster : clusters) {
+            if (markersByKey.containsKey(cluster.key)) continue;
+            Marker marker = map.addMarker(optionsFor(cluster));
+            if (marker == null) continue;
+            if (cluster.size() > 1) marker.setTag(cluster);
+            markersByKey.put(cluster.key, marker);
+        }
+    }
+
+    private MarkerOptions optionsFor(GridClusterer.Cluster cluster) {
+        MarkerOptions options = new MarkerOptions()
+                .position(new LatLng(cluster.latitude, cluster.longitude));
+        if (cluster.size() == 1) {
+            return options.title(cluster.items.get(0).title)
+                    .icon(BitmapDescriptorFactory.defaultMarker(itemHue));
+        }
+        return options.title(cluster.size() + " places")
+                .snippet("Tap to zoom in")
+                .icon(BitmapDescriptorFactory.defaultMarker(CLUSTER_HUE));
+    }
+}
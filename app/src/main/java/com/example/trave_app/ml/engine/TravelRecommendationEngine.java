@@ -2,11 +2,17 @@ package com.example.trave_app.ml.engine;
 
 import android.content.Context;
 import android.util.Log;
+import android.util.LruCache;
 
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.data.PlaceDocument;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.SearchHistory;
+import com.example.trave_app.ml.index.KeywordDictionary;
 import com.example.trave_app.ml.model.TravelPreference;
+import com.example.trave_app.ml.util.ParallelTopK;
+import com.example.trave_app.ml.util.ResultCacheKey;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -23,6 +29,15 @@ public class TravelRecommendationEngine {
     private static final double FREQUENCY_WEIGHT = 0.2;
     private static final double RECENCY_WEIGHT = 0.1;
 
+    // A single detected visit moves the normalized preferences by at most this much
+    private static final double VISIT_LEARNING_RATE = 0.2;
+    // Stays of this length count fully; shorter ones proportionally less
+    private static final long FULL_VISIT_DWELL_MS = 30 * 60 * 1000L;
+
+    // Recent recommendation results, as positions in the input list
+    private static final int RESULT_CACHE_SIZE = 32;
+    private final LruCache<ResultCacheKey, int[]> recommendationCache = new LruCache<>(RESULT_CACHE_SIZE);
+
     private TravelRecommendationEngine(Context context) {
         this.context = context;
         this.userPreference = new TravelPreference("default_user");
@@ -76,6 +91,19 @@ public class TravelRecommendationEngine {
         Log.d(TAG, "User preferences updated: " + userPreference.getCategoryPreferences());
     }
 
+    /**
+     * Incremental update for one detected visit, without relearning from the full history
+     */
+    public synchronized void recordVisit(Place place, long dwellMillis) {
+        if (place == null || place.getCategory() == null) return;
+        double ratingScore = place.getRating() > 0 ? place.getRating() / 5.0 : 0.5;
+        double dwellScore = Math.min(1.0, dwellMillis / (double) FULL_VISIT_DWELL_MS);
+        userPreference.updateCategoryPreference(place.getCategory(), VISIT_LEARNING_RATE * ratingScore * dwellScore);
+        userPreference.incrementVisitFrequency(place.getCategory());
+        userPreference.normalizePreferences();
+        Log.d(TAG, "Visit to " + place.getName() + " updated preferences: " + userPreference.getCategoryPreferences());
+    }
+
     /**
      * Generate personalized recommendations based on ML analysis
      */
@@ -84,41 +112,90 @@ public class TravelRecommendationEngine {
             return new ArrayList<>();
         }
 
+        PlaceCatalog catalog = PlaceCatalog.getInstance(context);
+        ResultCacheKey key = new ResultCacheKey(null, contentHash(allPlaces), maxResults,
+                catalog.getVersion(), userPreference.getVersion());
+        int[] cached = recommendationCache.get(key);
+        if (cached != null) {
+            List<Place> result = new ArrayList<>(cached.length);
+            for (int position : cached) {
+                result.add(allPlaces.get(position));
+            }
+            return result;
+        }
+
         Log.d(TAG, "Generating personalized recommendations...");
-        
-        List<PlaceScore> scoredPlaces = new ArrayList<>();
-        
-        for (Place place : allPlaces) {
-            double score = calculateRecommendationScore(place);
-            scoredPlaces.add(new PlaceScore(place, score));
+
+        List<PlaceDocument> documents = catalog.getDocuments(allPlaces);
+        CategoryScores categoryScores = new CategoryScores();
+        // Highest scores first, keeping only the top maxResults while scoring
+        List<Place> result = ParallelTopK.select(allPlaces.size(), maxResults, allPlaces::get,
+                i -> calculateRecommendationScore(documents.get(i).categoryId,
+                        allPlaces.get(i).getRating(), categoryScores));
+        recommendationCache.put(key, positionsOf(result, allPlaces));
+        return result;
+    }
+
+    public String getResultCacheStats() {
+        return recommendationCache.toString();
+    }
+
+    // Order-sensitive hash of what scoring reads from each place, plus its id so that a cached
+    // result's positions point at the same places
+    private static long contentHash(List<Place> places) {
+        long hash = places.size();
+        for (Place place : places) {
+            hash = hash * 1_000_003L + Objects.hashCode(place.getPlaceId());
+            hash = hash * 1_000_003L + Objects.hashCode(place.getCategory());
+            hash = hash * 1_000_003L + Float.floatToIntBits(place.getRating());
         }
+        return hash;
+    }
 
-        // Sort by score (highest first) and return top results
-        return scoredPlaces.stream()
-                .sorted((a, b) -> Double.compare(b.score, a.score))
-                .limit(maxResults)
-                .map(ps -> ps.place)
-                .collect(Collectors.toList());
+    private static int[] positionsOf(List<Place> selected, List<Place> places) {
+        Map<Place, Integer> wanted = new IdentityHashMap<>();
+        for (Place place : selected) {
+            wanted.put(place, -1);
+        }
+        for (int i = 0; i < places.size(); i++) {
+            Integer position = wanted.get(places.get(i));
+            if (position != null && position < 0) {
+                wanted.put(places.get(i), i);
+            }
+        }
+        int[] positions = new int[selected.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = wanted.get(selected.get(i));
+        }
+        return positions;
+    }
+
+    /**
+     * Same, over documents the caller already has, e.g. the whole PlaceCatalog
+     */
+    public List<Place> getPersonalizedRecommendationsFromDocuments(List<PlaceDocument> documents, int maxResults) {
+        Log.d(TAG, "Generating personalized recommendations from " + documents.size() + " documents...");
+        CategoryScores categoryScores = new CategoryScores();
+        return ParallelTopK.select(documents.size(), maxResults, i -> documents.get(i).place,
+                i -> calculateRecommendationScore(documents.get(i).categoryId,
+                        documents.get(i).place.getRating(), categoryScores));
     }
 
     /**
      * Calculate ML-based recommendation score for a place
      */
-    private double calculateRecommendationScore(Place place) {
+    private double calculateRecommendationScore(int categoryId, float rating, CategoryScores categoryScores) {
         double score = 0.0;
 
         // Category preference score
-        double categoryScore = userPreference.getCategoryPreference(place.getCategory());
-        score += categoryScore * CATEGORY_WEIGHT;
+        score += categoryScores.preferenceTerm(categoryId);
 
         // Rating score (normalized)
-        double ratingScore = place.getRating() / 5.0;
+        double ratingScore = rating / 5.0;
         score += ratingScore * RATING_WEIGHT;
 
         // Frequency score (how often user visits this category)
-        int frequency = userPreference.getVisitFrequency().getOrDefault(place.getCategory(), 0);
-        double frequencyScore = Math.min(frequency / 10.0, 1.0); // Cap at 1.0
-        score += frequencyScore * FREQUENCY_WEIGHT;
+        score += categoryScores.frequencyTerm(categoryId);
 
         // Recency bonus (newer places get slight boost)
         double recencyScore = 0.5; // Default neutral score
@@ -127,6 +204,43 @@ public class TravelRecommendationEngine {
         return score;
     }
 
+    // The category terms of the score, looked up once per category per call instead of per place.
+    // Filled up front so scoring only reads them and can run on several threads.
+    private class CategoryScores {
+        private final double[] preferenceTerms;
+        private final double[] frequencyTerms;
+
+        CategoryScores() {
+            int count = PlaceDocument.categoryCount();
+            preferenceTerms = new double[count];
+            frequencyTerms = new double[count];
+            for (int id = 0; id < count; id++) {
+                preferenceTerms[id] = computePreferenceTerm(id);
+                frequencyTerms[id] = computeFrequencyTerm(id);
+            }
+        }
+
+        // Categories first seen after this was built are looked up on the spot
+        double preferenceTerm(int categoryId) {
+            return categoryId < preferenceTerms.length ? preferenceTerms[categoryId] : computePreferenceTerm(categoryId);
+        }
+
+        double frequencyTerm(int categoryId) {
+            return categoryId < frequencyTerms.length ? frequencyTerms[categoryId] : computeFrequencyTerm(categoryId);
+        }
+
+        private double computePreferenceTerm(int categoryId) {
+            double categoryScore = userPreference.getCategoryPreference(PlaceDocument.categoryName(categoryId));
+            return categoryScore * CATEGORY_WEIGHT;
+        }
+
+        private double computeFrequencyTerm(int categoryId) {
+            int frequency = userPreference.getVisitFrequency().getOrDefault(PlaceDocument.categoryName(categoryId), 0);
+            double frequencyScore = Math.min(frequency / 10.0, 1.0); // Cap at 1.0
+            return frequencyScore * FREQUENCY_WEIGHT;
+        }
+    }
+
     /**
      * Predict next likely destination category based on user patterns
      */
@@ -211,27 +325,7 @@ public class TravelRecommendationEngine {
 
     // Helper methods
     private String inferCategoryFromSearch(String query) {
-        query = query.toLowerCase();
-        
-        if (query.contains("restaurant") || query.contains("food") || query.contains("eat")) {
-            return "restaurants";
-        } else if (query.contains("cafe") || query.contains("coffee")) {
-            return "cafes";
-        } else if (query.contains("hotel") || query.contains("stay")) {
-            return "hotels";
-        } else if (query.contains("hostel")) {
-            return "hostels";
-        } else if (query.contains("mall") || query.contains("shop")) {
-            return "malls";
-        } else if (query.contains("park") || query.contains("garden")) {
-            return "parks";
-        } else if (query.contains("gas") || query.contains("fuel")) {
-            return "gas_stations";
-        } else if (query.contains("parking")) {
-            return "parking";
-        }
-        
-        return null;
+        return KeywordDictionary.getInstance(context).match(query).getPrimaryCategory();
     }
 
     private double calculateDiversityScore(Map<String, Double> preferences) {
@@ -255,17 +349,6 @@ public class TravelRecommendationEngine {
         return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
     }
 
-    // Inner class for scoring places
-    private static class PlaceScore {
-        Place place;
-        double score;
-
-        PlaceScore(Place place, double score) {
-            this.place = place;
-            this.score = score;
-        }
-    }
-
     // Getters
     public TravelPreference getUserPreference() {
         return userPreference;
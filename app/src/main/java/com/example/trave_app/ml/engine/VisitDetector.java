@@ -0,0 +1,68 @@
+package com.example.trave_app.ml.engine;
+
+import com.example.trave_app.geo.GeoMath;
+
+/**
+ * Streaming dwell detector over raw location fixes.
+ * Keeps a single open cluster (running centroid, first and last fix time), so each fix costs
+ * one distance computation and memory does not grow with the trace. A cluster becomes a dwell
+ * once the user has stayed within DWELL_RADIUS_M of its centroid for MIN_DWELL_MS; the dwell
+ * is reported when the user leaves, when fixes stop for MAX_GAP_MS, or on flush().
+ */
+public class VisitDetector {
+    public static final double DWELL_RADIUS_M = 100.0;
+    public static final long MIN_DWELL_MS = 5 * 60 * 1000L;
+    public static final long MAX_GAP_MS = 30 * 60 * 1000L;
+
+    public interface Listener {
+        void onDwell(double latitude, double longitude, long arrivalTime, long departureTime);
+    }
+
+    private final Listener listener;
+    private boolean open;
+    private double centroidLat;
+    private double centroidLon;
+    private int fixCount;
+    private long firstTime;
+    private long lastTime;
+
+    public VisitDetector(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void onFix(double latitude, double longitude, long timeMs) {
+        if (open && timeMs < lastTime) return; // out-of-order fix from a batch
+        if (open && (timeMs - lastTime > MAX_GAP_MS
+                || GeoMath.distanceKm(centroidLat, centroidLon, latitude, longitude) * 1000 > DWELL_RADIUS_M)) {
+            close();
+        }
+        if (!open) {
+            open = true;
+            centroidLat = latitude;
+            centroidLon = longitude;
+            fixCount = 1;
+            firstTime = timeMs;
+            lastTime = timeMs;
+            return;
+        }
+        // Incremental mean keeps the centroid stable against GPS jitter
+        fixCount++;
+        centroidLat += (latitude - centroidLat) / fixCount;
+        centroidLon += (longitude - centroidLon) / fixCount;
+        lastTime = timeMs;
+    }
+
+    /**
+     * Report the open cluster if it already qualifies as a dwell (e.g. when tracking stops).
+     */
+    public synchronized void flush() {
+        if (open) close();
+    }
+
+    private void close() {
+        open = false;
+        if (lastTime - firstTime >= MIN_DWELL_MS) {
+            listener.onDwell(centroidLat, centroidLon, firstTime, lastTime);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.trave_app.ml.engine;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.database.entity.Visit;
+import com.example.trave_app.geo.NearestPlaceService;
+
+import java.util.List;
+
+/**
+ * Turns dwells from VisitDetector into Visit rows for the nearest known place and feeds each
+ * one to the recommendation engine as an incremental update. Work runs on the database executor.
+ */
+public class VisitRecorder implements VisitDetector.Listener {
+    private static final String TAG = "VisitRecorder";
+    // A dwell centroid further than this from every catalog place is not a visit
+    private static final double PLACE_MATCH_RADIUS_KM = 0.15;
+
+    private final Context context;
+
+    public VisitRecorder(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void onDwell(double latitude, double longitude, long arrivalTime, long departureTime) {
+        TravelDatabase.databaseWriteExecutor.execute(() -> {
+            try {
+                List<Place> nearest = NearestPlaceService.getInstance(context)
+                        .nearestWithin(latitude, longitude, 1, PLACE_MATCH_RADIUS_KM);
+                if (nearest.isEmpty()) {
+                    Log.d(TAG, "Dwell at " + latitude + ", " + longitude + " matches no known place");
+                    return;
+                }
+                Place place = nearest.get(0);
+                Visit visit = new Visit(PlaceCatalog.keyOf(place), place.getCategory(), arrivalTime, departureTime);
+                TravelDatabase.getDatabase(context).visitDao().insert(visit);
+                TravelRecommendationEngine.getInstance(context).recordVisit(place, visit.getDwellMillis());
+                Log.d(TAG, "Recorded visit to " + place.getName() + " (" + visit.getDwellMillis() / 60000 + " min)");
+            } catch (Exception e) {
+                Log.e(TAG, "Error recording visit", e);
+            }
+        });
+    }
+}
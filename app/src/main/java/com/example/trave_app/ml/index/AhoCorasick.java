@@ -0,0 +1,145 @@
+package com.example.trave_app.ml.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable Aho-Corasick automaton over a fixed set of patterns.
+ *
+ * Feeding a text through {@link #next} one character at a time reports every occurrence of
+ * every pattern in a single pass, so the cost of scanning a message does not grow with the
+ * number of patterns. States are ints; {@link #ROOT} is the start state. Build with
+ * {@link Builder}; queries never lock.
+ */
+public class AhoCorasick {
+    public static final int ROOT = 0;
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private final char[][] edgeChars;  // per state, sorted
+    private final int[][] edgeTargets; // per state, parallel to edgeChars
+    private final int[] fail;
+    private final int[][] outputs;     // pattern ids ending at each state, including via fail links
+    private final int[] patternLengths;
+
+    public static final class Builder {
+        private final List<String> patterns = new ArrayList<>();
+
+        /**
+         * Add a pattern, matched as given (callers normalize case). Returns its pattern id;
+         * ids are handed out in order from 0.
+         */
+        public int add(String pattern) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            patterns.add(pattern);
+            return patterns.size() - 1;
+        }
+
+        public AhoCorasick build() {
+            return new AhoCorasick(patterns);
+        }
+    }
+
+    private AhoCorasick(List<String> patterns) {
+        // Trie first, with sorted edges so lookups can binary search
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        patternLengths = new int[patterns.size()];
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            patternLengths[id] = pattern.length();
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer target = trie.get(state).get(pattern.charAt(i));
+                if (target == null) {
+                    target = trie.size();
+                    trie.get(state).put(pattern.charAt(i), target);
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                }
+                state = target;
+            }
+            ends.get(state).add(id);
+        }
+
+        int size = trie.size();
+        edgeChars = new char[size][];
+        edgeTargets = new int[size][];
+        for (int state = 0; state < size; state++) {
+            TreeMap<Character, Integer> edges = trie.get(state);
+            edgeChars[state] = new char[edges.size()];
+            edgeTargets[state] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[state][i] = edge.getKey();
+                edgeTargets[state][i] = edge.getValue();
+                i++;
+            }
+        }
+
+        // Fail links breadth first, so a state's fail target is finished before the state is
+        fail = new int[size];
+        outputs = new int[size][];
+        outputs[ROOT] = NO_PATTERNS;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[ROOT]) {
+            fail[child] = ROOT;
+            outputs[child] = toArray(ends.get(child), NO_PATTERNS);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                int child = edgeTargets[state][i];
+                fail[child] = next(fail[state], edgeChars[state][i]);
+                outputs[child] = toArray(ends.get(child), outputs[fail[child]]);
+                queue.add(child);
+            }
+        }
+    }
+
+    private static int[] toArray(List<Integer> own, int[] inherited) {
+        if (own.isEmpty()) return inherited;
+        int[] result = new int[own.size() + inherited.length];
+        for (int i = 0; i < own.size(); i++) {
+            result[i] = own.get(i);
+        }
+        System.arraycopy(inherited, 0, result, own.size(), inherited.length);
+        return result;
+    }
+
+    /**
+     * The state after reading c in the given state.
+     */
+    public int next(int state, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(edgeChars[state], c);
+            if (i >= 0) return edgeTargets[state][i];
+            if (state == ROOT) return ROOT;
+            state = fail[state];
+        }
+    }
+
+    /**
+     * Ids of the patterns that end at the character just read into this state, longest first.
+     * The array is shared; do not modify it.
+     */
+    public int[] matches(int state) {
+        return outputs[state];
+    }
+
+    public int patternLength(int patternId) {
+        return patternLengths[patternId];
+    }
+
+    public int patternCount() {
+        return patternLengths.length;
+    }
+}
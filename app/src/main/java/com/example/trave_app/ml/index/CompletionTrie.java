@@ -0,0 +1,180 @@
+package com.example.trave_app.ml.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable radix trie for weighted prefix completion.
+ *
+ * Every node stores the ids of the k heaviest completions below it, computed once at build
+ * time, so completing a prefix walks prefix.length() characters and copies at most k ids:
+ * O(prefix + k), independent of how many terms share the prefix. Build with {@link Builder}
+ * on a background thread and swap the result in; queries never lock.
+ */
+public class CompletionTrie {
+    public static final int DEFAULT_TOP_K = 8;
+
+    private final String[] suggestions; // display text, by term id
+    private final double[] weights;
+    private final Node root;
+
+    private static final class Node {
+        final char[] label;    // edge label from the parent
+        final Node[] children; // sorted by first label char
+        final int[] top;       // best term ids in this subtree, heaviest first
+
+        Node(char[] label, Node[] children, int[] top) {
+            this.label = label;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> idsByKey = new HashMap<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<String> displays = new ArrayList<>();
+        private final List<Double> weights = new ArrayList<>();
+
+        /**
+         * Add a completion; text that normalizes to an existing key keeps the higher weight
+         * and that entry's display text.
+         */
+        public Builder add(String text, double weight) {
+            String key = normalize(text);
+            if (key.isEmpty()) return this;
+            Integer id = idsByKey.get(key);
+            if (id == null) {
+                idsByKey.put(key, keys.size());
+                keys.add(key);
+                displays.add(text.trim());
+                weights.add(weight);
+            } else if (weight > weights.get(id)) {
+                displays.set(id, text.trim());
+                weights.set(id, weight);
+            }
+            return this;
+        }
+
+        public CompletionTrie build() {
+            return build(DEFAULT_TOP_K);
+        }
+
+        public CompletionTrie build(int topK) {
+            return new CompletionTrie(keys, displays, weights, topK);
+        }
+    }
+
+    private CompletionTrie(List<String> keys, List<String> displays, List<Double> weightList, int topK) {
+        int n = keys.size();
+        suggestions = displays.toArray(new String[0]);
+        weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = weightList.get(i);
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+        String[] sortedKeys = new String[n];
+        int[] sortedIds = new int[n];
+        for (int i = 0; i < n; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedIds[i] = order[i];
+        }
+        root = buildNode(new char[0], sortedKeys, sortedIds, 0, n, 0, Math.max(1, topK));
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    /**
+     * Up to limit completions of the prefix, heaviest first. Limits above the build's top-k
+     * are capped at top-k.
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) return result;
+
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = findChild(node, key.charAt(i));
+            if (child == null) return result;
+            for (int j = 0; j < child.label.length && i < key.length(); j++, i++) {
+                if (child.label[j] != key.charAt(i)) return result;
+            }
+            node = child;
+        }
+        for (int j = 0; j < node.top.length && j < limit; j++) {
+            result.add(suggestions[node.top[j]]);
+        }
+        return result;
+    }
+
+    private static Node findChild(Node node, char c) {
+        int lo = 0;
+        int hi = node.children.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char first = node.children[mid].label[0];
+            if (first < c) lo = mid + 1;
+            else if (first > c) hi = mid - 1;
+            else return node.children[mid];
+        }
+        return null;
+    }
+
+    // keys[lo..hi) are sorted and share their first 'depth' characters
+    private Node buildNode(char[] label, String[] keys, int[] ids, int lo, int hi, int depth, int topK) {
+        List<Integer> candidates = new ArrayList<>();
+        int start = lo;
+        if (start < hi && keys[start].length() == depth) {
+            candidates.add(ids[start]); // a whole term ends here
+            start++;
+        }
+        List<Node> children = new ArrayList<>();
+        while (start < hi) {
+            char c = keys[start].charAt(depth);
+            int end = start + 1;
+            while (end < hi && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            // Sorted, so the group's common prefix is that of its first and last key
+            String first = keys[start];
+            String last = keys[end - 1];
+            int common = depth + 1;
+            while (common < first.length() && common < last.length()
+                    && first.charAt(common) == last.charAt(common)) {
+                common++;
+            }
+            Node child = buildNode(first.substring(depth, common).toCharArray(), keys, ids,
+                    start, end, common, topK);
+            children.add(child);
+            for (int id : child.top) {
+                candidates.add(id);
+            }
+            start = end;
+        }
+
+        candidates.sort((a, b) -> Double.compare(weights[b], weights[a]));
+        int[] top = new int[Math.min(topK, candidates.size())];
+        for (int i = 0; i < top.length; i++) {
+            top[i] = candidates.get(i);
+        }
+        return new Node(label, children.toArray(new Node[0]), top);
+    }
+
+    // Lowercase, underscores as spaces, single spaces between words
+    static String normalize(String text) {
+        if (text == null) return "";
+        return text.toLowerCase(Locale.ROOT).replace('_', ' ').trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.trave_app.ml.index;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.geo.LocalityIndex;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The app's travel vocabulary: which words name a place category, which are loosely related
+ * to one, which name a locality or city, and which signal an intent such as asking for
+ * recommendations.
+ *
+ * Categories and intents come from assets/travel_keywords.json, localities and cities from
+ * {@link LocalityIndex}. Everything is compiled into one {@link AhoCorasick} automaton, so
+ * {@link #match} finds every mention in a single pass over the text however large the
+ * vocabulary grows.
+ *
+ * A term matches where a word starts ("eat" matches "eating" but not "great"), case and runs
+ * of whitespace are ignored, and a term inside a longer term of the same kind is dropped, so
+ * "parking" means parking rather than parks.
+ */
+public class KeywordDictionary {
+    private static final String TAG = "KeywordDictionary";
+    private static final String ASSET_FILE = "travel_keywords.json";
+    private static KeywordDictionary instance;
+
+    private static final int CATEGORY = 0;
+    private static final int RELATED = 1;
+    private static final int LOCALITY = 2;
+    private static final int CITY = 3;
+    private static final int INTENT = 4;
+
+    /**
+     * Everything one text mentions. Categories are listed in dictionary order.
+     */
+    public static final class Matches {
+        public final List<String> categories;
+        public final List<String> relatedCategories; // categories with a loosely related term
+        public final LocalityIndex.Locality locality;  // longest locality mention, or null
+        public final boolean mentionsCity;
+        public final Set<String> intents;
+        // Start and end of every category, locality, city and intent mention, as positions in
+        // the text lowercased with runs of whitespace collapsed to one space
+        public final List<int[]> spans;
+        public final List<int[]> categorySpans; // the category mentions among spans
+
+        Matches(List<String> categories, List<String> relatedCategories, LocalityIndex.Locality locality,
+                boolean mentionsCity, Set<String> intents, List<int[]> spans, List<int[]> categorySpans) {
+            this.categories = categories;
+            this.relatedCategories = relatedCategories;
+            this.locality = locality;
+            this.mentionsCity = mentionsCity;
+            this.intents = intents;
+            this.spans = spans;
+            this.categorySpans = categorySpans;
+        }
+
+        // The category listed first in the dictionary among those mentioned, or null
+        public String getPrimaryCategory() {
+            return categories.isEmpty() ? null : categories.get(0);
+        }
+
+        public boolean hasIntent(String intent) {
+            return intents.contains(intent);
+        }
+    }
+
+    private final List<String> categoryIds = new ArrayList<>();
+    private final Map<String, List<String>> relatedTerms = new HashMap<>();
+    private final List<LocalityIndex.Locality> localities;
+    private final List<String> intentIds = new ArrayList<>();
+    private final AhoCorasick automaton;
+    private final int[] patternKinds;
+    private final int[] patternTargets; // index into the list for the pattern's kind
+
+    private KeywordDictionary(JsonObject root, List<LocalityIndex.Locality> localities) {
+        this.localities = localities;
+        AhoCorasick.Builder builder = new AhoCorasick.Builder();
+        List<Integer> kinds = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+
+        if (root.has("categories")) {
+            for (JsonElement element : root.getAsJsonArray("categories")) {
+                JsonObject category = element.getAsJsonObject();
+                int index = categoryIds.size();
+                String id = category.get("id").getAsString();
+                categoryIds.add(id);
+                List<String> related = new ArrayList<>();
+                for (String term : strings(category, "keywords")) {
+                    add(builder, kinds, targets, term, CATEGORY, index);
+                }
+                for (String term : strings(category, "related")) {
+                    add(builder, kinds, targets, term, RELATED, index);
+                    related.add(normalize(term));
+                }
+                relatedTerms.put(id, Collections.unmodifiableList(related));
+            }
+        }
+        if (root.has("intents")) {
+            for (JsonElement element : root.getAsJsonArray("intents")) {
+                JsonObject intent = element.getAsJsonObject();
+                int index = intentIds.size();
+                intentIds.add(intent.get("id").getAsString());
+                for (String phrase : strings(intent, "phrases")) {
+                    add(builder, kinds, targets, phrase, INTENT, index);
+                }
+            }
+        }
+
+        Set<String> cities = new HashSet<>();
+        for (int index = 0; index < localities.size(); index++) {
+            LocalityIndex.Locality locality = localities.get(index);
+            for (String name : locality.getMatchNames()) {
+                add(builder, kinds, targets, name, LOCALITY, index);
+            }
+            if (locality.city != null && cities.add(normalize(locality.city))) {
+                // Also written as one word, e.g. "navimumbai"
+                add(builder, kinds, targets, locality.city, CITY, 0);
+                add(builder, kinds, targets, locality.city.replace(" ", ""), CITY, 0);
+            }
+        }
+
+        automaton = builder.build();
+        patternKinds = new int[kinds.size()];
+        patternTargets = new int[targets.size()];
+        for (int i = 0; i < patternKinds.length; i++) {
+            patternKinds[i] = kinds.get(i);
+            patternTargets[i] = targets.get(i);
+        }
+    }
+
+    public static synchronized KeywordDictionary getInstance(Context context) {
+        if (instance == null) {
+            Context appContext = context.getApplicationContext();
+            List<LocalityIndex.Locality> localities = LocalityIndex.getInstance(appContext).getLocalities();
+            try (InputStream in = appContext.getAssets().open(ASSET_FILE)) {
+                instance = fromJson(new InputStreamReader(in, StandardCharsets.UTF_8), localities);
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Error loading " + ASSET_FILE, e);
+                instance = fromJson(new StringReader("{}"), localities);
+            }
+            Log.d(TAG, "Compiled " + instance.automaton.patternCount() + " terms");
+        }
+        return instance;
+    }
+
+    // Plain Java entry point, also used off-device
+    public static KeywordDictionary fromJson(Reader reader, List<LocalityIndex.Locality> localities) {
+        return new KeywordDictionary(JsonParser.parseReader(reader).getAsJsonObject(), localities);
+    }
+
+    public List<String> getCategoryIds() {
+        return Collections.unmodifiableList(categoryIds);
+    }
+
+    // Lowercase terms loosely related to the category, empty if it has none
+    public List<String> getRelatedTerms(String categoryId) {
+        List<String> terms = relatedTerms.get(categoryId);
+        return terms != null ? terms : Collections.emptyList();
+    }
+
+    /**
+     * Every category, locality, city and intent the text mentions, in one pass over it.
+     */
+    public Matches match(String text) {
+        if (text == null) text = "";
+        char[] normalized = new char[text.length()];
+        int length = 0;
+        List<int[]> hits = new ArrayList<>(); // pattern id, start, end
+        int state = AhoCorasick.ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (length == 0 || normalized[length - 1] == ' ') continue;
+                c = ' ';
+            }
+            normalized[length++] = c;
+            state = automaton.next(state, c);
+            for (int patternId : automaton.matches(state)) {
+                int start = length - automaton.patternLength(patternId);
+                if (start == 0 || !Character.isLetterOrDigit(normalized[start - 1])) {
+                    hits.add(new int[]{patternId, start, length});
+                }
+            }
+        }
+
+        boolean[] categoryHits = new boolean[categoryIds.size()];
+        boolean[] relatedHits = new boolean[categoryIds.size()];
+        LocalityIndex.Locality locality = null;
+        int localityLength = 0;
+        int localityIndex = Integer.MAX_VALUE;
+        boolean mentionsCity = false;
+        Set<String> intents = new HashSet<>();
+        List<int[]> spans = new ArrayList<>(hits.size());
+        List<int[]> categorySpans = new ArrayList<>(2);
+        for (int[] hit : hits) {
+            if (isInsideLongerHit(hit, hits)) continue;
+            int kind = patternKinds[hit[0]];
+            int target = patternTargets[hit[0]];
+            int hitLength = hit[2] - hit[1];
+            if (kind != RELATED) spans.add(new int[]{hit[1], hit[2]});
+            switch (kind) {
+                case CATEGORY:
+                    categoryHits[target] = true;
+                    categorySpans.add(new int[]{hit[1], hit[2]});
+                    break;
+                case RELATED:
+                    relatedHits[target] = true;
+                    break;
+                case LOCALITY:
+                    // Longest mention wins, then the earlier locality in the file
+                    if (hitLength > localityLength || (hitLength == localityLength && target < localityIndex)) {
+                        locality = localities.get(target);
+                        localityLength = hitLength;
+                        localityIndex = target;
+                    }
+                    break;
+                case CITY:
+                    mentionsCity = true;
+                    break;
+                case INTENT:
+                    intents.add(intentIds.get(target));
+                    break;
+            }
+        }
+        return new Matches(selected(categoryHits), selected(relatedHits), locality, mentionsCity, intents, spans,
+                categorySpans);
+    }
+
+    private boolean isInsideLongerHit(int[] hit, List<int[]> hits) {
+        int kind = patternKinds[hit[0]];
+        for (int[] other : hits) {
+            if (patternKinds[other[0]] == kind && other[1] <= hit[1] && other[2] >= hit[2]
+                    && other[2] - other[1] > hit[2] - hit[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> selected(boolean[] hits) {
+        List<String> result = new ArrayList<>(2);
+        for (int i = 0; i < hits.length; i++) {
+            if (hits[i]) result.add(categoryIds.get(i));
+        }
+        return result;
+    }
+
+    private static void add(AhoCorasick.Builder builder, List<Integer> kinds, List<Integer> targets,
+                            String term, int kind, int target) {
+        String pattern = normalize(term);
+        if (pattern.isEmpty()) return;
+        builder.add(pattern);
+        kinds.add(kind);
+        targets.add(target);
+    }
+
+    // Lowercase with single spaces, as the text is read in match()
+    private static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    private static List<String> strings(JsonObject object, String member) {
+        List<String> values = new ArrayList<>();
+        if (object.has(member)) {
+            for (JsonElement element : object.getAsJsonArray(member)) {
+                values.add(element.getAsString());
+            }
+        }
+        return values;
+    }
+}
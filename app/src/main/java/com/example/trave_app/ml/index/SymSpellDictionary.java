@@ -0,0 +1,153 @@
+package com.example.trave_app.ml.index;
+
+import com.example.trave_app.ml.util.Levenshtein;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spelling correction by symmetric deletion (SymSpell).
+ *
+ * Every dictionary word is stored under all strings reachable from it by deleting up to
+ * MAX_EDIT_DISTANCE characters (from its first PREFIX_LENGTH characters only, which keeps the
+ * table small). A lookup generates the same deletions of the input, so candidates come from a
+ * handful of hash probes instead of a scan over the vocabulary; each candidate is then checked
+ * with a bounded Levenshtein distance.
+ */
+public class SymSpellDictionary {
+    public static final int MAX_EDIT_DISTANCE = 2;
+    private static final int PREFIX_LENGTH = 7;
+
+    public static final class Suggestion {
+        public final String term;
+        public final int distance;
+        public final int count;
+
+        Suggestion(String term, int distance, int count) {
+            this.term = term;
+            this.distance = distance;
+            this.count = count;
+        }
+    }
+
+    private final String[] words;
+    private final int[] counts;
+    private final Map<String, Integer> idsByWord;
+    private final Map<String, int[]> idsByDelete;
+
+    public static final class Builder {
+        private final Map<String, Integer> counts = new HashMap<>();
+
+        /**
+         * Count every word of the text (lowercased, split on non-alphanumerics).
+         */
+        public Builder addText(String text) {
+            for (String word : TrigramIndex.tokens(TrigramIndex.normalize(text))) {
+                Integer count = counts.get(word);
+                counts.put(word, count == null ? 1 : count + 1);
+            }
+            return this;
+        }
+
+        public SymSpellDictionary build() {
+            return new SymSpellDictionary(counts);
+        }
+    }
+
+    private SymSpellDictionary(Map<String, Integer> wordCounts) {
+        words = wordCounts.keySet().toArray(new String[0]);
+        counts = new int[words.length];
+        idsByWord = new HashMap<>();
+        Map<String, List<Integer>> deletes = new HashMap<>();
+        for (int id = 0; id < words.length; id++) {
+            counts[id] = wordCounts.get(words[id]);
+            idsByWord.put(words[id], id);
+            for (String delete : deletesOf(prefix(words[id]), MAX_EDIT_DISTANCE)) {
+                List<Integer> ids = deletes.get(delete);
+                if (ids == null) {
+                    ids = new ArrayList<>(2);
+                    deletes.put(delete, ids);
+                }
+                ids.add(id);
+            }
+        }
+        idsByDelete = new HashMap<>(deletes.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : deletes.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            int[] array = new int[ids.size()];
+            for (int i = 0; i < array.length; i++) array[i] = ids.get(i);
+            idsByDelete.put(entry.getKey(), array);
+        }
+    }
+
+    public int size() {
+        return words.length;
+    }
+
+    public boolean contains(String word) {
+        return idsByWord.containsKey(word);
+    }
+
+    /**
+     * Dictionary words within maxDistance of the (lowercase) input, closest first and then
+     * most frequent first.
+     */
+    public List<Suggestion> lookup(String input, int maxDistance) {
+        maxDistance = Math.min(maxDistance, MAX_EDIT_DISTANCE);
+        List<Suggestion> suggestions = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (String delete : deletesOf(prefix(input), maxDistance)) {
+            int[] ids = idsByDelete.get(delete);
+            if (ids == null) continue;
+            for (int id : ids) {
+                if (!seen.add(id)) continue;
+                String word = words[id];
+                if (Math.abs(word.length() - input.length()) > maxDistance) continue;
+                int distance = Levenshtein.distance(input, word, maxDistance);
+                if (distance <= maxDistance) {
+                    suggestions.add(new Suggestion(word, distance, counts[id]));
+                }
+            }
+        }
+        suggestions.sort((a, b) -> a.distance != b.distance
+                ? Integer.compare(a.distance, b.distance)
+                : Integer.compare(b.count, a.count));
+        return suggestions;
+    }
+
+    /**
+     * The best correction for the word, the word itself if it is known, or null.
+     */
+    public String correct(String word, int maxDistance) {
+        if (contains(word)) return word;
+        List<Suggestion> suggestions = lookup(word, maxDistance);
+        return suggestions.isEmpty() ? null : suggestions.get(0).term;
+    }
+
+    private static String prefix(String word) {
+        return word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+    }
+
+    // The word and every string obtained by deleting up to maxDeletes of its characters
+    private static Set<String> deletesOf(String word, int maxDeletes) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> frontier = new ArrayList<>();
+        frontier.add(word);
+        for (int round = 0; round < maxDeletes; round++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String delete = current.substring(0, i) + current.substring(i + 1);
+                    if (result.add(delete)) next.add(delete);
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+}
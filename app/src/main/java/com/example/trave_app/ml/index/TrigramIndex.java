@@ -0,0 +1,340 @@
+package com.example.trave_app.ml.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from character trigrams to documents, for substring search over short texts.
+ *
+ * Text is lowercased and split on anything that is not a letter or digit; every trigram inside
+ * a token gets a posting list of document ids. A term is looked up by intersecting the posting
+ * lists of its trigrams (shortest first) and then verifying the substring on the survivors, so
+ * the cost follows the rarest trigram instead of the number of documents.
+ *
+ * Ids are assigned in increasing order, which keeps every posting list sorted without work.
+ * Removed documents are tombstoned and the index is compacted once they outnumber live ones.
+ */
+public class TrigramIndex<T> {
+    public static final int MIN_TERM_LENGTH = 3;
+    private static final int MIN_COMPACT_DEAD = 1024;
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<T> values = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private int deadCount;
+    private long modCount; // any change, so earlier Matches know whether they can be narrowed
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Index a document, replacing any previous document with the same key.
+     */
+    public void put(String key, T value, String text) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            addLocked(key, value, normalize(text));
+            maybeCompactLocked();
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            maybeCompactLocked();
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            idsByKey.clear();
+            keys.clear();
+            values.clear();
+            texts.clear();
+            deleted.clear();
+            deadCount = 0;
+            modCount++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents whose text contains at least one of the terms, each returned once in index order.
+     * Terms shorter than MIN_TERM_LENGTH (after normalization) are ignored; the caller decides
+     * what to do when none is left (see {@link #isSearchable}).
+     */
+    public List<T> search(List<String> terms) {
+        return match(terms, null).values;
+    }
+
+    /**
+     * Result of {@link #match}: the matching documents plus what a follow-up query needs to
+     * narrow them instead of searching the whole index.
+     */
+    public static final class Matches<T> {
+        public final List<T> values;
+        public final boolean narrowed; // filtered from the previous matches rather than looked up
+        private final int[] ids;
+        private final List<String> tokens;
+        private final long modCount;
+
+        private Matches(List<T> values, boolean narrowed, int[] ids, List<String> tokens, long modCount) {
+            this.values = values;
+            this.narrowed = narrowed;
+            this.ids = ids;
+            this.tokens = tokens;
+            this.modCount = modCount;
+        }
+    }
+
+    /**
+     * Same as {@link #search}, but when previous comes from the unchanged index and every token
+     * of terms contains a token previous searched for (the user typed further), only previous's
+     * documents are checked: a text containing the longer token contains its shorter part too,
+     * so the result is exactly what a full search would return.
+     */
+    public Matches<T> match(List<String> terms, Matches<T> previous) {
+        List<String> tokens = new ArrayList<>();
+        for (String term : terms) {
+            for (String token : tokens(normalize(term))) {
+                if (token.length() >= MIN_TERM_LENGTH) tokens.add(token);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            BitSet matched = new BitSet();
+            boolean narrowed = previous != null && previous.modCount == modCount
+                    && extendsTokens(tokens, previous.tokens);
+            if (narrowed) {
+                for (int id : previous.ids) {
+                    String text = texts.get(id);
+                    for (String token : tokens) {
+                        if (text.contains(token)) {
+                            matched.set(id);
+                            break;
+                        }
+                    }
+                }
+            } else {
+                for (String token : tokens) {
+                    collectMatches(token, matched);
+                }
+            }
+            int[] ids = new int[matched.cardinality()];
+            List<T> result = new ArrayList<>(ids.length);
+            int n = 0;
+            for (int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)) {
+                ids[n++] = id;
+                result.add(values.get(id));
+            }
+            return new Matches<>(result, narrowed, ids, tokens, modCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whether each token contains one of the earlier tokens
+    private static boolean extendsTokens(List<String> tokens, List<String> earlier) {
+        for (String token : tokens) {
+            boolean found = false;
+            for (String previous : earlier) {
+                if (token.contains(previous)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether any of the terms is long enough to be answered from the index.
+     */
+    public static boolean isSearchable(List<String> terms) {
+        for (String term : terms) {
+            for (String token : tokens(normalize(term))) {
+                if (token.length() >= MIN_TERM_LENGTH) return true;
+            }
+        }
+        return false;
+    }
+
+    private void collectMatches(String token, BitSet matched) {
+        Set<Long> grams = trigrams(token);
+        IntList[] lists = new IntList[grams.size()];
+        int n = 0;
+        for (long gram : grams) {
+            IntList list = postings.get(gram);
+            if (list == null) return; // a trigram nobody has: no match
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, 0, n, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates = Arrays.copyOf(lists[0].items, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < n && count > 0; i++) {
+            count = intersect(candidates, count, lists[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            int id = candidates[i];
+            // Trigrams can all occur without being adjacent, so confirm the substring
+            if (!deleted.get(id) && texts.get(id).contains(token)) {
+                matched.set(id);
+            }
+        }
+    }
+
+    // Keeps the ids of candidates[0..count) that are also in list; both are sorted
+    private static int intersect(int[] candidates, int count, IntList list) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < count && j < list.size; i++) {
+            int id = candidates[i];
+            j = lowerBound(list.items, j, list.size, id);
+            if (j < list.size && list.items[j] == id) {
+                candidates[kept++] = id;
+            }
+        }
+        return kept;
+    }
+
+    // Galloping search from 'from', so a short list walks a long one in O(short * log(gap))
+    private static int lowerBound(int[] items, int from, int size, int id) {
+        int step = 1;
+        int hi = from;
+        while (hi < size && items[hi] < id) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, size);
+        while (from < hi) {
+            int mid = (from + hi) >>> 1;
+            if (items[mid] < id) from = mid + 1;
+            else hi = mid;
+        }
+        return from;
+    }
+
+    private void addLocked(String key, T value, String text) {
+        int id = values.size();
+        keys.add(key);
+        values.add(value);
+        texts.add(text);
+        idsByKey.put(key, id);
+        Set<Long> grams = new HashSet<>();
+        for (String token : tokens(text)) {
+            grams.addAll(trigrams(token));
+        }
+        for (long gram : grams) {
+            IntList list = postings.get(gram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(gram, list);
+            }
+            list.add(id);
+        }
+    }
+
+    private void removeLocked(String key) {
+        Integer id = idsByKey.remove(key);
+        if (id == null) return;
+        deleted.set(id);
+        values.set(id, null);
+        deadCount++;
+    }
+
+    private void maybeCompactLocked() {
+        if (deadCount < MIN_COMPACT_DEAD || deadCount < idsByKey.size()) return;
+        List<String> oldKeys = new ArrayList<>(keys);
+        List<T> oldValues = new ArrayList<>(values);
+        List<String> oldTexts = new ArrayList<>(texts);
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        postings.clear();
+        idsByKey.clear();
+        keys.clear();
+        values.clear();
+        texts.clear();
+        deleted.clear();
+        deadCount = 0;
+        for (int id = 0; id < oldKeys.size(); id++) {
+            if (!oldDeleted.get(id)) {
+                addLocked(oldKeys.get(id), oldValues.get(id), oldTexts.get(id));
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        StringBuilder sb = new StringBuilder(text.length());
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            sb.append(Character.isLetterOrDigit(c) ? c : ' ');
+        }
+        return sb.toString();
+    }
+
+    static List<String> tokens(String normalized) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean space = i == normalized.length() || normalized.charAt(i) == ' ';
+            if (!space && start < 0) {
+                start = i;
+            } else if (space && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<Long> trigrams(String token) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + MIN_TERM_LENGTH <= token.length(); i++) {
+            grams.add(((long) token.charAt(i) << 32) | ((long) token.charAt(i + 1) << 16) | token.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static final class IntList {
+        int[] items = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+    }
+}
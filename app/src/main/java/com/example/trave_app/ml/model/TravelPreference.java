@@ -2,8 +2,13 @@ package com.example.trave_app.ml.model;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TravelPreference {
+    // Versions are unique across instances, so swapping in another preference object also
+    // changes the version that result caches key on
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private String userId;
     private Map<String, Double> categoryPreferences;
     private Map<String, Double> locationPreferences;
@@ -12,6 +17,7 @@ public class TravelPreference {
     private String preferredTimeOfDay;
     private double budgetRange;
     private long lastUpdated;
+    private transient volatile long version = VERSIONS.incrementAndGet();
 
     public TravelPreference() {
         this.categoryPreferences = new HashMap<>();
@@ -32,16 +38,19 @@ public class TravelPreference {
     public Map<String, Double> getCategoryPreferences() { return categoryPreferences; }
     public void setCategoryPreferences(Map<String, Double> categoryPreferences) {
         this.categoryPreferences = categoryPreferences;
+        bumpVersion();
     }
 
     public Map<String, Double> getLocationPreferences() { return locationPreferences; }
     public void setLocationPreferences(Map<String, Double> locationPreferences) {
         this.locationPreferences = locationPreferences;
+        bumpVersion();
     }
 
     public Map<String, Integer> getVisitFrequency() { return visitFrequency; }
     public void setVisitFrequency(Map<String, Integer> visitFrequency) {
         this.visitFrequency = visitFrequency;
+        bumpVersion();
     }
 
     public double getAverageRating() { return averageRating; }
@@ -63,12 +72,14 @@ public class TravelPreference {
         categoryPreferences.put(category, 
             categoryPreferences.getOrDefault(category, 0.0) + weight);
         this.lastUpdated = System.currentTimeMillis();
+        bumpVersion();
     }
 
     public void incrementVisitFrequency(String category) {
         visitFrequency.put(category, 
             visitFrequency.getOrDefault(category, 0) + 1);
         this.lastUpdated = System.currentTimeMillis();
+        bumpVersion();
     }
 
     public double getCategoryPreference(String category) {
@@ -84,5 +95,18 @@ public class TravelPreference {
             categoryPreferences.replaceAll((k, v) -> v / sum);
         }
         this.lastUpdated = System.currentTimeMillis();
+        bumpVersion();
+    }
+
+    /**
+     * Changes whenever the preferences change through this class. Code that edits the maps
+     * returned by the getters directly must call a setter afterwards.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void bumpVersion() {
+        version = VERSIONS.incrementAndGet();
     }
 }
@@ -0,0 +1,172 @@
+package com.example.trave_app.ml.query;
+
+import com.example.trave_app.ml.index.KeywordDictionary;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into a {@link StructuredQuery}. Categories and localities come from the
+ * {@link KeywordDictionary}; ratings ("4+ stars", "rated above 4"), distances ("within 2 km"),
+ * "near me" and ordering words ("best", "nearest") from the patterns below. Whatever no filter
+ * used, minus filler words, is left as text for relevance ranking.
+ *
+ * There is no price data on places, so words like "cheap" stay in the text, where they still
+ * match related terms such as "budget" for hostels. They do not count as other words when
+ * deciding whether a category filters: "cheap cafes near me" is still a query for cafes.
+ */
+public class QueryParser {
+    private static final String RATING = "([1-5](?:\\.\\d)?)";
+    private static final Pattern RATING_PLUS = Pattern.compile("\\b" + RATING + " ?(?:\\+|plus)(?: ?stars?)?");
+    private static final Pattern RATING_PHRASE = Pattern.compile(
+            "\\b(?:rated|rating|at least|above|over|min(?:imum)?)(?: of)?(?: at least| above| over)? " + RATING + "(?: ?stars?)?\\b");
+    private static final Pattern RATING_STARS = Pattern.compile(
+            "\\b" + RATING + " ?stars?\\b(?: (?:and|or) (?:above|up|more|higher|better))?");
+    private static final Pattern RADIUS = Pattern.compile(
+            "\\b(?:(?:within|under|less than) )?(\\d+(?:\\.\\d+)?) ?(km|kms|kilomet(?:er|re)s?|m|met(?:er|re)s?|mi|miles?)\\b");
+    private static final Pattern NEAR_USER = Pattern.compile(
+            "\\b(?:near me|nearby|near by|around me|close to me|close by|near here|around here|closest|nearest)\\b");
+    private static final Pattern BY_DISTANCE = Pattern.compile("\\b(?:closest|nearest)\\b");
+    private static final Pattern HIGHLY_RATED = Pattern.compile("\\b(?:top|highest|highly|well) rated\\b");
+    private static final Pattern BY_RATING = Pattern.compile("\\b(?:best|top|popular)\\b");
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    // "top rated" and friends imply a floor as well as an order
+    private static final float HIGHLY_RATED_FLOOR = 4.0f;
+
+    private static final Set<String> FILLER = new HashSet<>(Arrays.asList(
+            "a", "an", "the", "in", "at", "near", "around", "for", "with", "of", "to", "me", "my", "i",
+            "find", "show", "get", "any", "some", "places", "place", "spots", "good", "nice", "please",
+            "want", "looking", "where", "is", "are", "can", "and", "or"));
+
+    // Describe the places asked for rather than name one, so they leave a category filter on
+    private static final Set<String> MODIFIERS = new HashSet<>(Arrays.asList(
+            "cheap", "budget", "affordable", "inexpensive", "expensive", "luxury", "luxurious", "fancy",
+            "open", "quiet", "family", "romantic"));
+
+    private final KeywordDictionary dictionary;
+
+    public QueryParser(KeywordDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public StructuredQuery parse(String query) {
+        String text = normalize(query);
+        boolean[] used = new boolean[text.length()];
+
+        KeywordDictionary.Matches matches = dictionary.match(text);
+        for (int[] span : matches.spans) {
+            mark(used, span[0], span[1]);
+        }
+        // Category words are marked separately as well, so they can be given back to the text
+        boolean[] categoryWords = new boolean[text.length()];
+        for (int[] span : matches.categorySpans) {
+            mark(categoryWords, span[0], span[1]);
+        }
+
+        float minRating = 0f;
+        for (Pattern pattern : new Pattern[]{RATING_PLUS, RATING_PHRASE, RATING_STARS}) {
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                minRating = Float.parseFloat(matcher.group(1));
+                mark(used, matcher.start(), matcher.end());
+                break;
+            }
+        }
+
+        double radiusKm = 0;
+        Matcher radius = RADIUS.matcher(text);
+        if (radius.find()) {
+            radiusKm = toKm(Double.parseDouble(radius.group(1)), radius.group(2));
+            mark(used, radius.start(), radius.end());
+        }
+        boolean nearUser = markAll(NEAR_USER, text, used) || radiusKm > 0;
+
+        StructuredQuery.Sort sort = StructuredQuery.Sort.RELEVANCE;
+        if (markAll(BY_DISTANCE, text, used)) {
+            sort = StructuredQuery.Sort.DISTANCE;
+        }
+        if (markAll(HIGHLY_RATED, text, used)) {
+            minRating = Math.max(minRating, HIGHLY_RATED_FLOOR);
+            if (sort == StructuredQuery.Sort.RELEVANCE) sort = StructuredQuery.Sort.RATING;
+        }
+        if (markAll(BY_RATING, text, used) && sort == StructuredQuery.Sort.RELEVANCE) {
+            sort = StructuredQuery.Sort.RATING;
+        }
+
+        String rest = leftover(text, used, null);
+        boolean filterCategories = true;
+        if (!matches.categories.isEmpty() && !onlyModifiers(rest)) {
+            // Other words remain, so the category words may be part of a name ("Park Hyatt",
+            // "Shoppers Stop"): keep them in the text and let the category only boost ranking
+            rest = leftover(text, used, categoryWords);
+            filterCategories = false;
+        }
+
+        return new StructuredQuery(rest, matches.categories, filterCategories, matches.locality, nearUser,
+                radiusKm, minRating, sort);
+    }
+
+    // The words no filter used, minus filler; words starting in kept count as unused
+    private static String leftover(String text, boolean[] used, boolean[] kept) {
+        StringBuilder rest = new StringBuilder();
+        Matcher word = WORD.matcher(text);
+        while (word.find()) {
+            int start = word.start();
+            boolean isUsed = used[start] && (kept == null || !kept[start]);
+            if (isUsed || FILLER.contains(word.group())) continue;
+            if (rest.length() > 0) rest.append(' ');
+            rest.append(word.group());
+        }
+        return rest.toString();
+    }
+
+    private static boolean onlyModifiers(String rest) {
+        if (rest.isEmpty()) return true;
+        for (String word : rest.split(" ")) {
+            if (!MODIFIERS.contains(word)) return false;
+        }
+        return true;
+    }
+
+    // Lowercase with runs of whitespace collapsed, exactly as KeywordDictionary reads text, so
+    // its spans index into the same string
+    private static String normalize(String query) {
+        if (query == null) return "";
+        StringBuilder text = new StringBuilder(query.length());
+        for (int i = 0; i < query.length(); i++) {
+            char c = Character.toLowerCase(query.charAt(i));
+            if (Character.isWhitespace(c)) {
+                if (text.length() == 0 || text.charAt(text.length() - 1) == ' ') continue;
+                c = ' ';
+            }
+            text.append(c);
+        }
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) == ' ') end--;
+        return text.substring(0, end);
+    }
+
+    private static boolean markAll(Pattern pattern, String text, boolean[] used) {
+        Matcher matcher = pattern.matcher(text);
+        boolean found = false;
+        while (matcher.find()) {
+            mark(used, matcher.start(), matcher.end());
+            found = true;
+        }
+        return found;
+    }
+
+    private static void mark(boolean[] used, int start, int end) {
+        Arrays.fill(used, start, Math.min(end, used.length), true);
+    }
+
+    private static double toKm(double value, String unit) {
+        if (unit.startsWith("mi")) return value * 1.609344;
+        if (unit.startsWith("k")) return value;
+        return value / 1000.0; // metres
+    }
+}
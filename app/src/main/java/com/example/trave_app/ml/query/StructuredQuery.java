@@ -0,0 +1,135 @@
+package com.example.trave_app.ml.query;
+
+import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.database.search.PlaceFilter;
+import com.example.trave_app.geo.GeoMath;
+import com.example.trave_app.geo.GeoPoint;
+import com.example.trave_app.geo.LocalityIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A search query split into filters and what is left to rank by: "best hotels in Nerul" is
+ * the hotels category, the Nerul locality and best-rated-first, with no text left over.
+ * Built by {@link QueryParser}.
+ */
+public final class StructuredQuery {
+    public enum Sort { RELEVANCE, RATING, DISTANCE }
+
+    // "near me" without a distance
+    public static final double DEFAULT_NEAR_RADIUS_KM = 5.0;
+
+    public final String text;                     // words no filter used, for relevance ranking
+    public final List<String> categories;         // dictionary category ids the query mentions
+    // Whether categories restrict the results. Only when no other words are left: in "park
+    // hyatt" the category words stay in text and the category just boosts ranking
+    public final boolean filterCategories;
+    public final LocalityIndex.Locality locality; // named locality, or null
+    public final boolean nearUser;
+    public final double radiusKm;                 // distance asked for around the user, 0 if none
+    public final float minRating;                 // 0 if none
+    public final Sort sort;
+
+    StructuredQuery(String text, List<String> categories, boolean filterCategories, LocalityIndex.Locality locality,
+                    boolean nearUser, double radiusKm, float minRating, Sort sort) {
+        this.text = text;
+        this.categories = categories;
+        this.filterCategories = filterCategories;
+        this.locality = locality;
+        this.nearUser = nearUser;
+        this.radiusKm = radiusKm;
+        this.minRating = minRating;
+        this.sort = sort;
+    }
+
+    /**
+     * Whether SQLite has anything to filter on. "Near me" only counts with a known location:
+     * without one there is no box, and the query would read the whole table.
+     */
+    public boolean hasFilters(GeoPoint userLocation) {
+        return (filterCategories && !categories.isEmpty()) || hasArea(userLocation) || minRating > 0;
+    }
+
+    /**
+     * Whether a stored category (any case, "hotel" or "hotels") is one of the dictionary ids.
+     */
+    public static boolean isCategory(String stored, List<String> categoryIds) {
+        if (stored == null) return false;
+        for (String id : categoryIds) {
+            for (String form : storedForms(id)) {
+                if (form.equalsIgnoreCase(stored)) return true;
+            }
+        }
+        return false;
+    }
+
+    // Dictionary ids are plural ("hotels", "gas_stations"); places may store the singular
+    private static List<String> storedForms(String categoryId) {
+        List<String> forms = new ArrayList<>(2);
+        forms.add(categoryId);
+        if (categoryId.endsWith("s") && !categoryId.endsWith("ss")) {
+            forms.add(categoryId.substring(0, categoryId.length() - 1));
+        }
+        return forms;
+    }
+
+    public double getSearchRadiusKm() {
+        return radiusKm > 0 ? radiusKm : DEFAULT_NEAR_RADIUS_KM;
+    }
+
+    /**
+     * Whether the query limits results to an area: a named locality, which wins over the
+     * user's position, or a circle around a known user location.
+     */
+    public boolean hasArea(GeoPoint userLocation) {
+        return locality != null || (nearUser && userLocation != null);
+    }
+
+    /**
+     * The part SQLite can evaluate: categories, rating floor and the area's bounding box.
+     * When nothing is left for Java to filter or rank, the best-rated-first order and the limit
+     * are pushed down too.
+     */
+    public PlaceFilter toFilter(GeoPoint userLocation, int limit) {
+        PlaceFilter.Builder filter = new PlaceFilter.Builder().minRating(minRating);
+        if (filterCategories) {
+            for (String category : categories) {
+                filter.categories(storedForms(category));
+            }
+        }
+        if (locality != null) {
+            filter.boundingBox(locality.minLat, locality.maxLat, locality.minLon, locality.maxLon);
+        } else if (nearUser && userLocation != null) {
+            GeoMath.Circle circle = new GeoMath.Circle(userLocation.latitude, userLocation.longitude,
+                    getSearchRadiusKm());
+            filter.boundingBox(circle.minLat, circle.maxLat, circle.minLon, circle.maxLon);
+        }
+        if (sort == Sort.RATING) {
+            filter.bestRatedFirst();
+            if (text.isEmpty() && !hasArea(userLocation)) {
+                filter.limit(limit);
+            }
+        }
+        return filter.build();
+    }
+
+    /**
+     * The places inside the exact area (locality polygon or circle), in order; all of them when
+     * the query has no area.
+     */
+    public List<Place> withinArea(List<Place> places, GeoPoint userLocation) {
+        if (!hasArea(userLocation)) return places;
+        GeoMath.Circle circle = locality == null
+                ? new GeoMath.Circle(userLocation.latitude, userLocation.longitude, getSearchRadiusKm())
+                : null;
+        List<Place> result = new ArrayList<>();
+        for (Place place : places) {
+            boolean inside = circle != null
+                    ? circle.contains(place.getLatitude(), place.getLongitude())
+                    : locality.contains(place.getLatitude(), place.getLongitude());
+            if (inside) result.add(place);
+        }
+        return result;
+    }
+}
@@ -2,19 +2,66 @@ package com.example.trave_app.ml.service;
 
 import android.content.Context;
 import android.util.Log;
+import android.util.LruCache;
 
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.data.PlaceDocument;
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.dao.SearchHistoryDao;
 import com.example.trave_app.database.entity.Place;
-import com.example.trave_app.database.entity.SearchHistory;
+import com.example.trave_app.database.search.PlaceFilter;
+import com.example.trave_app.geo.GeoMath;
+import com.example.trave_app.geo.GeoPoint;
 import com.example.trave_app.ml.engine.TravelRecommendationEngine;
+import com.example.trave_app.ml.index.CompletionTrie;
+import com.example.trave_app.ml.index.KeywordDictionary;
+import com.example.trave_app.ml.index.SymSpellDictionary;
+import com.example.trave_app.ml.index.TrigramIndex;
+import com.example.trave_app.ml.query.QueryParser;
+import com.example.trave_app.ml.query.StructuredQuery;
+import com.example.trave_app.ml.util.Levenshtein;
+import com.example.trave_app.ml.util.ParallelTopK;
+import com.example.trave_app.ml.util.ResultCacheKey;
+import com.example.trave_app.ml.util.TopK;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class IntelligentSearchService {
+public class IntelligentSearchService implements PlaceCatalog.Listener {
     private static final String TAG = "IntelligentSearchService";
     private static IntelligentSearchService instance;
     private Context context;
     private TravelRecommendationEngine recommendationEngine;
+    private PlaceCatalog placeCatalog;
+    private KeywordDictionary keywordDictionary;
+    private QueryParser queryParser;
+    // Last known position of the user, for "near me" queries; null until someone reports one
+    private volatile GeoPoint userLocation;
+    // Trigrams of name, category and address for every catalog place, kept in sync by the catalog
+    private final TrigramIndex<PlaceDocument> searchIndex = new TrigramIndex<>();
+    // Autocomplete over place names, categories and past queries; replaced wholesale on rebuild
+    private volatile CompletionTrie completionTrie;
+    // Name and category words for typo correction; rebuilt together with completionTrie
+    private volatile SymSpellDictionary spellingDictionary;
+    // Most searched past queries, most frequent first; rebuilt together with completionTrie
+    private volatile List<String> popularQueries = Collections.emptyList();
+    private final AtomicBoolean completionRebuildPending = new AtomicBoolean(false);
+    // Recent catalog search results, keyed by query and the catalog and preference versions
+    private final LruCache<ResultCacheKey, List<Place>> resultCache = new LruCache<>(RESULT_CACHE_SIZE);
 
     // Search ranking weights
     private static final double NAME_MATCH_WEIGHT = 0.4;
@@ -22,18 +69,178 @@ public class IntelligentSearchService {
     private static final double RATING_WEIGHT = 0.2;
     private static final double PERSONALIZATION_WEIGHT = 0.1;
 
+    // Autocomplete sources
+    private static final int MAX_AUTOCOMPLETE_RESULTS = 5;
+    private static final int POPULAR_QUERY_LIMIT = 200;
+
+    private static final int RESULT_CACHE_SIZE = 64;
+
+    // Contextual suggestions for queries that name no category
+    private static final List<String> SUGGESTED_CATEGORIES = Arrays.asList("restaurants", "hotels", "cafes", "parks");
+    private static final Pattern BUDGET_WORDS = Pattern.compile("\\b(?:cheap|budget|affordable)\\b");
+
+    // Search-as-you-type: quiet period before a keystroke is searched, and how often ranking
+    // checks whether a newer keystroke has superseded it
+    private static final long SESSION_DEBOUNCE_MS = 150;
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    // One thread, so a session's searches run in order and never compete with each other
+    private static final ScheduledExecutorService sessionExecutor = Executors.newSingleThreadScheduledExecutor();
+    // Completion rebuilds get their own thread: they read the whole catalog, and on the shared
+    // database executor they would hold up Room writes, or on the session one the next keystroke
+    private static final ExecutorService completionExecutor = Executors.newSingleThreadExecutor();
+
     private IntelligentSearchService(Context context) {
         this.context = context;
         this.recommendationEngine = TravelRecommendationEngine.getInstance(context);
+        this.placeCatalog = PlaceCatalog.getInstance(context);
+        this.keywordDictionary = KeywordDictionary.getInstance(context);
+        this.queryParser = new QueryParser(keywordDictionary);
     }
 
     public static synchronized IntelligentSearchService getInstance(Context context) {
         if (instance == null) {
             instance = new IntelligentSearchService(context.getApplicationContext());
+            instance.placeCatalog.addListener(instance);
         }
         return instance;
     }
 
+    // Fed by RealTimeLocationService; until a fix arrives, "near me" limits nothing
+    public void setUserLocation(GeoPoint location) {
+        userLocation = location;
+    }
+
+    /**
+     * Search every place in the catalog. Queries with filters ("cafes within 2 km", "best
+     * hotels in Nerul") are parsed into a StructuredQuery whose category, rating and area
+     * filters run in SQLite; the rest are matched on text, where only places whose name,
+     * category or address contains a query word (or a category the query implies) are scored.
+     * Must not be called on the main thread. Repeated searches are answered from a cache until
+     * the catalog or the user's preferences change.
+     */
+    public List<Place> performIntelligentSearch(String query, int maxResults) {
+        placeCatalog.ensureLoaded();
+        String normalizedQuery = query == null ? "" : query.toLowerCase(Locale.ROOT).trim();
+        StructuredQuery structured = queryParser.parse(normalizedQuery);
+        GeoPoint location = userLocation;
+        // Versions are read before searching, so a write that lands mid-search leaves its
+        // result under a key nothing will ask for again
+        ResultCacheKey key = new ResultCacheKey(normalizedQuery, locationHash(structured, location), maxResults,
+                placeCatalog.getVersion(), recommendationEngine.getUserPreference().getVersion());
+        List<Place> results = resultCache.get(key);
+        if (results == null) {
+            if (structured.hasFilters(location)) {
+                results = rankFiltered(structured, loadFiltered(structured, location, maxResults),
+                        location, maxResults, null);
+            } else {
+                results = searchCatalog(query, normalizedQuery, maxResults);
+            }
+            resultCache.put(key, results);
+        }
+        return new ArrayList<>(results);
+    }
+
+    // Results near the user depend on where the user is
+    private static long locationHash(StructuredQuery structured, GeoPoint location) {
+        if (!structured.nearUser || location == null) return 0;
+        return Objects.hash(location.latitude, location.longitude);
+    }
+
+    // SQLite applies the category, rating and bounding-box filters; only the exact area test
+    // runs here, on the rows inside the box
+    private List<Place> loadFiltered(StructuredQuery structured, GeoPoint location, int maxResults) {
+        PlaceFilter filter = structured.toFilter(location, maxResults);
+        List<Place> rows = TravelDatabase.getDatabase(context).placeDao().getPlacesSync(filter.toQuery());
+        return structured.withinArea(rows, location);
+    }
+
+    // Filtered rows in the order the query asks for; otherwise by relevance to the words no
+    // filter used, or by the user's taste when there are none
+    private List<Place> rankFiltered(StructuredQuery structured, List<Place> rows, GeoPoint location,
+                                     int maxResults, BooleanSupplier cancelled) {
+        if (structured.sort == StructuredQuery.Sort.DISTANCE && location != null) {
+            return TopK.select(rows, maxResults, place -> -GeoMath.distanceKm(location.latitude,
+                    location.longitude, place.getLatitude(), place.getLongitude()));
+        }
+        if (structured.sort != StructuredQuery.Sort.RELEVANCE) {
+            // Best rated first, also for "nearest" when the user's position is unknown
+            return TopK.select(rows, maxResults, Place::getRating);
+        }
+        if (structured.text.isEmpty()) {
+            return recommendationEngine.getPersonalizedRecommendations(rows, maxResults);
+        }
+        return rankByRelevance(placeCatalog.getDocuments(rows), rows, structured.text, maxResults, cancelled);
+    }
+
+    public String getResultCacheStats() {
+        return resultCache.toString();
+    }
+
+    private List<Place> searchCatalog(String query, String normalizedQuery, int maxResults) {
+        if (normalizedQuery.isEmpty()) {
+            return recommendationEngine.getPersonalizedRecommendationsFromDocuments(
+                    placeCatalog.getAllDocuments(), maxResults);
+        }
+
+        List<String> terms = getRetrievalTerms(normalizedQuery);
+        if (!TrigramIndex.isSearchable(terms)) {
+            // Nothing long enough to look up, e.g. "ab"; score the whole catalog
+            return rankByRelevance(placeCatalog.getAllDocuments(), null, normalizedQuery, maxResults, null);
+        }
+
+        List<PlaceDocument> candidates = searchIndex.search(terms);
+        Log.d(TAG, "Intelligent search for: " + query + " scored " + candidates.size()
+                + " of " + searchIndex.size() + " places");
+        return rankByRelevance(candidates, null, normalizedQuery, maxResults, null);
+    }
+
+    /**
+     * Catalog search that retries a query with no results once with its spelling corrected.
+     * didYouMean is the corrected query when the results came from it, otherwise null.
+     */
+    public SearchOutcome performIntelligentSearchWithSuggestion(String query, int maxResults) {
+        List<Place> results = performIntelligentSearch(query, maxResults);
+        if (!results.isEmpty()) {
+            return new SearchOutcome(results, null);
+        }
+        String corrected = getDidYouMean(query);
+        if (corrected == null) {
+            return new SearchOutcome(results, null);
+        }
+        return new SearchOutcome(performIntelligentSearch(corrected, maxResults), corrected);
+    }
+
+    /**
+     * The query with every unknown word replaced by its closest place-name or category word,
+     * or null when nothing needed (or could be given) a correction.
+     */
+    public String getDidYouMean(String query) {
+        SymSpellDictionary dictionary = spellingDictionary;
+        if (dictionary == null || query == null) return null;
+        StringBuilder corrected = new StringBuilder();
+        boolean changed = false;
+        for (String word : query.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            String replacement = word;
+            int maxTypos = getMaxTypos(word);
+            if (maxTypos > 0 && !dictionary.contains(word)) {
+                String correction = dictionary.correct(word, maxTypos);
+                if (correction != null) {
+                    replacement = correction;
+                    changed = true;
+                }
+            }
+            if (corrected.length() > 0) corrected.append(' ');
+            corrected.append(replacement);
+        }
+        return changed ? corrected.toString() : null;
+    }
+
+    // Short words tolerate fewer typos, or "cafe" would turn into "cake"
+    private static int getMaxTypos(String word) {
+        if (word.length() < 3) return 0;
+        return word.length() <= 4 ? 1 : SymSpellDictionary.MAX_EDIT_DISTANCE;
+    }
+
     /**
      * Perform intelligent search with ML-based ranking
      */
@@ -45,58 +252,160 @@ public class IntelligentSearchService {
 
         Log.d(TAG, "Performing intelligent search for: " + query);
         
-        String normalizedQuery = query.toLowerCase().trim();
-        List<SearchResult> searchResults = new ArrayList<>();
+        String normalizedQuery = query.toLowerCase(Locale.ROOT).trim();
+        return rankByRelevance(placeCatalog.getDocuments(allPlaces), allPlaces, normalizedQuery, maxResults, null);
+    }
 
-        for (Place place : allPlaces) {
-            double relevanceScore = calculateRelevanceScore(place, normalizedQuery);
-            if (relevanceScore > 0) {
-                searchResults.add(new SearchResult(place, relevanceScore));
+    // places, when given, are the caller's objects behind documents (same order) and are returned.
+    // cancelled, when given, is polled while scoring; once it answers true this throws
+    // CancellationException.
+    private List<Place> rankByRelevance(List<PlaceDocument> documents, List<Place> places,
+                                        String normalizedQuery, int maxResults, BooleanSupplier cancelled) {
+        QueryScorer scorer = new QueryScorer(normalizedQuery);
+        IntFunction<Place> placeAt = i -> places != null ? places.get(i) : documents.get(i).place;
+
+        // Large candidate sets are scored on the common fork-join pool
+        return ParallelTopK.select(documents.size(), maxResults, placeAt, i -> {
+            if (cancelled != null && i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) {
+                throw new CancellationException();
+            }
+            double relevanceScore = scorer.score(documents.get(i), placeAt.apply(i).getRating());
+            return relevanceScore > 0 ? relevanceScore : Double.NaN;
+        });
+    }
+
+    /**
+     * Query words plus the categories whose semantic keywords the query mentions, so "food"
+     * still retrieves restaurants by their category text.
+     */
+    private List<String> getRetrievalTerms(String normalizedQuery) {
+        // Folded like the indexed text, so "café" finds "Cafe"
+        List<String> terms = new ArrayList<>(Arrays.asList(PlaceDocument.fold(normalizedQuery).split("\\s+")));
+        terms.addAll(getRelatedCategories(normalizedQuery));
+        return terms;
+    }
+
+    /**
+     * Categories with a related term in the query, found in one pass by the keyword dictionary,
+     * or with a related term the query is part of, as while "resta" is still being typed.
+     */
+    private List<String> getRelatedCategories(String normalizedQuery) {
+        List<String> categories = new ArrayList<>(keywordDictionary.match(normalizedQuery).relatedCategories);
+        for (String category : keywordDictionary.getCategoryIds()) {
+            if (categories.contains(category)) continue;
+            for (String term : keywordDictionary.getRelatedTerms(category)) {
+                if (term.contains(normalizedQuery)) {
+                    categories.add(category);
+                    break;
+                }
             }
         }
+        return categories;
+    }
 
-        // Sort by relevance score and return top results
-        return searchResults.stream()
-                .sorted((a, b) -> Double.compare(b.relevanceScore, a.relevanceScore))
-                .limit(maxResults)
-                .map(sr -> sr.place)
-                .collect(Collectors.toList());
+    // PlaceCatalog.Listener
+
+    @Override
+    public void onCatalogReset(List<Place> places) {
+        searchIndex.clear();
+        for (PlaceDocument document : placeCatalog.getDocuments(places)) {
+            searchIndex.put(PlaceCatalog.keyOf(document.place), document, document.searchText);
+        }
+        scheduleCompletionRebuild();
+    }
+
+    @Override
+    public void onPlaceUpserted(String placeId, Place place) {
+        PlaceDocument document = placeCatalog.getDocument(placeId);
+        if (document != null) {
+            searchIndex.put(placeId, document, document.searchText);
+        }
+        scheduleCompletionRebuild();
+    }
+
+    @Override
+    public void onPlaceRemoved(String placeId, Place place) {
+        searchIndex.remove(placeId);
+        scheduleCompletionRebuild();
     }
 
     /**
-     * Calculate ML-based relevance score for search results
+     * Call after writing to search_history so past queries in autocomplete catch up.
      */
-    private double calculateRelevanceScore(Place place, String query) {
-        double score = 0.0;
+    public void onSearchHistoryChanged() {
+        scheduleCompletionRebuild();
+    }
+
+    /**
+     * Calculate ML-based relevance score for search results. The category and personalization
+     * terms depend only on the category, so they are worked out once per category per query,
+     * up front, which also leaves the scorer read-only and safe to share between threads.
+     */
+    private final class QueryScorer {
+        private final String query;
+        private final String[] queryWords;
+        private final List<String> relatedCategories;
+        private final double[] categoryTerms;
+        private final double[] personalizationTerms;
+
+        QueryScorer(String normalizedQuery) {
+            query = normalizedQuery;
+            queryWords = normalizedQuery.split("\\s+");
+            // Categories the query names count as related: when they are not a filter ("park
+            // hyatt near me") this is the boost they give
+            relatedCategories = getRelatedCategories(normalizedQuery);
+            for (String category : keywordDictionary.match(normalizedQuery).categories) {
+                if (!relatedCategories.contains(category)) relatedCategories.add(category);
+            }
+            int count = PlaceDocument.categoryCount();
+            categoryTerms = new double[count];
+            personalizationTerms = new double[count];
+            for (int id = 0; id < count; id++) {
+                String category = PlaceDocument.categoryName(id);
+                categoryTerms[id] = categoryTerm(category == null ? null : category.toLowerCase(Locale.ROOT));
+                personalizationTerms[id] = personalizationTerm(category);
+            }
+        }
 
-        // Name matching score
-        double nameScore = calculateNameMatchScore(place.getName(), query);
-        score += nameScore * NAME_MATCH_WEIGHT;
+        double score(PlaceDocument document, float rating) {
+            double score = 0.0;
 
-        // Category matching score
-        double categoryScore = calculateCategoryMatchScore(place.getCategory(), query);
-        score += categoryScore * CATEGORY_MATCH_WEIGHT;
+            // Name matching score
+            double nameScore = calculateNameMatchScore(document, query, queryWords);
+            score += nameScore * NAME_MATCH_WEIGHT;
 
-        // Rating score (normalized)
-        double ratingScore = place.getRating() / 5.0;
-        score += ratingScore * RATING_WEIGHT;
+            // Category matching score; categories first seen after this scorer was made are
+            // worked out on the spot
+            int categoryId = document.categoryId;
+            boolean known = categoryId < categoryTerms.length;
+            score += known ? categoryTerms[categoryId] : categoryTerm(document.category);
 
-        // Personalization score (user preference for this category)
-        double personalizationScore = recommendationEngine.getUserPreference()
-                .getCategoryPreference(place.getCategory());
-        score += personalizationScore * PERSONALIZATION_WEIGHT;
+            // Rating score (normalized)
+            double ratingScore = rating / 5.0;
+            score += ratingScore * RATING_WEIGHT;
 
-        return score;
+            // Personalization score (user preference for this category)
+            score += known ? personalizationTerms[categoryId]
+                    : personalizationTerm(PlaceDocument.categoryName(categoryId));
+            return score;
+        }
+
+        private double categoryTerm(String normalizedCategory) {
+            return calculateCategoryMatchScore(normalizedCategory, query, relatedCategories) * CATEGORY_MATCH_WEIGHT;
+        }
+
+        private double personalizationTerm(String category) {
+            return recommendationEngine.getUserPreference().getCategoryPreference(category) * PERSONALIZATION_WEIGHT;
+        }
     }
 
     /**
      * Calculate name matching score using fuzzy matching
      */
-    private double calculateNameMatchScore(String placeName, String query) {
-        if (placeName == null || query == null) return 0.0;
-        
-        String normalizedName = placeName.toLowerCase();
-        String normalizedQuery = query.toLowerCase();
+    private double calculateNameMatchScore(PlaceDocument document, String normalizedQuery, String[] queryWords) {
+        if (document.name == null || normalizedQuery == null) return 0.0;
+
+        String normalizedName = document.name;
 
         // Exact match gets highest score
         if (normalizedName.equals(normalizedQuery)) {
@@ -109,8 +418,7 @@ public class IntelligentSearchService {
         }
 
         // Word-by-word matching
-        String[] queryWords = normalizedQuery.split("\\s+");
-        String[] nameWords = normalizedName.split("\\s+");
+        String[] nameWords = document.nameTokens;
         
         int matchingWords = 0;
         for (String queryWord : queryWords) {
@@ -122,23 +430,31 @@ public class IntelligentSearchService {
             }
         }
 
-        if (queryWords.length > 0) {
+        if (matchingWords > 0) {
             return (double) matchingWords / queryWords.length * 0.6;
         }
 
-        // Fuzzy matching (simple Levenshtein-based)
-        double similarity = calculateStringSimilarity(normalizedName, normalizedQuery);
-        return similarity > 0.7 ? similarity * 0.4 : 0.0;
+        // Fuzzy matching: query words within a couple of typos of a name word
+        int fuzzyWords = 0;
+        for (String queryWord : queryWords) {
+            int maxTypos = getMaxTypos(queryWord);
+            if (maxTypos == 0) continue;
+            for (String nameWord : nameWords) {
+                if (Levenshtein.distance(queryWord, nameWord, maxTypos) <= maxTypos) {
+                    fuzzyWords++;
+                    break;
+                }
+            }
+        }
+        return (double) fuzzyWords / queryWords.length * 0.4;
     }
 
     /**
      * Calculate category matching score
      */
-    private double calculateCategoryMatchScore(String category, String query) {
-        if (category == null || query == null) return 0.0;
-
-        String normalizedCategory = category.toLowerCase();
-        String normalizedQuery = query.toLowerCase();
+    private double calculateCategoryMatchScore(String normalizedCategory, String normalizedQuery,
+                                               List<String> relatedCategories) {
+        if (normalizedCategory == null || normalizedQuery == null) return 0.0;
 
         // Direct category match
         if (normalizedCategory.equals(normalizedQuery)) {
@@ -151,25 +467,18 @@ public class IntelligentSearchService {
         }
 
         // Semantic matching for common terms
-        Map<String, List<String>> categoryKeywords = getCategoryKeywords();
-        
-        for (Map.Entry<String, List<String>> entry : categoryKeywords.entrySet()) {
-            if (entry.getKey().equals(normalizedCategory)) {
-                for (String keyword : entry.getValue()) {
-                    if (normalizedQuery.contains(keyword) || keyword.contains(normalizedQuery)) {
-                        return 0.6;
-                    }
-                }
-            }
+        if (StructuredQuery.isCategory(normalizedCategory, relatedCategories)) {
+            return 0.6;
         }
 
         return 0.0;
     }
 
     /**
-     * Get smart search suggestions based on ML analysis
+     * Get smart search suggestions based on ML analysis. Popular searches come from the
+     * search_query_counts rollup, read when autocomplete is rebuilt, not from the raw history.
      */
-    public List<String> getSmartSearchSuggestions(String partialQuery, List<SearchHistory> searchHistory) {
+    public List<String> getSmartSearchSuggestions(String partialQuery) {
         List<String> suggestions = new ArrayList<>();
 
         // Get ML-based suggestions from recommendation engine
@@ -177,21 +486,12 @@ public class IntelligentSearchService {
         suggestions.addAll(mlSuggestions);
 
         // Add popular searches from history
-        if (searchHistory != null && !searchHistory.isEmpty()) {
-            Map<String, Long> queryFrequency = searchHistory.stream()
-                    .collect(Collectors.groupingBy(
-                            SearchHistory::getSearchQuery,
-                            Collectors.counting()
-                    ));
-
-            List<String> popularQueries = queryFrequency.entrySet().stream()
-                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                    .limit(3)
-                    .map(Map.Entry::getKey)
-                    .filter(query -> query.toLowerCase().contains(partialQuery.toLowerCase()))
-                    .collect(Collectors.toList());
-
-            suggestions.addAll(popularQueries);
+        List<String> popular = popularQueries;
+        String lowerQuery = partialQuery.toLowerCase();
+        for (int i = 0; i < Math.min(3, popular.size()); i++) {
+            if (popular.get(i).toLowerCase().contains(lowerQuery)) {
+                suggestions.add(popular.get(i));
+            }
         }
 
         // Add contextual suggestions
@@ -204,132 +504,265 @@ public class IntelligentSearchService {
     }
 
     /**
-     * Get contextual search suggestions
+     * Get contextual search suggestions: the categories the query names (or the common ones)
+     * with the modifiers it uses, e.g. "best cafes in vas" suggests "Best cafes in Vashi".
+     * Nothing is suggested until the query uses a modifier.
      */
     private List<String> getContextualSuggestions(String query) {
         List<String> suggestions = new ArrayList<>();
-        String lowerQuery = query.toLowerCase();
-
-        if (lowerQuery.contains("near") || lowerQuery.contains("nearby")) {
-            suggestions.addAll(Arrays.asList(
-                    "Restaurants near me",
-                    "Hotels near me",
-                    "Cafes nearby",
-                    "Parks near me"
-            ));
-        } else if (lowerQuery.contains("best") || lowerQuery.contains("top")) {
-            suggestions.addAll(Arrays.asList(
-                    "Best restaurants",
-                    "Top hotels",
-                    "Best cafes",
-                    "Top attractions"
-            ));
-        } else if (lowerQuery.contains("cheap") || lowerQuery.contains("budget")) {
-            suggestions.addAll(Arrays.asList(
-                    "Budget hotels",
-                    "Cheap restaurants",
-                    "Affordable cafes",
-                    "Budget hostels"
-            ));
+        StructuredQuery structured = queryParser.parse(query);
+
+        String prefix = "";
+        if (structured.sort == StructuredQuery.Sort.RATING || structured.minRating > 0) {
+            prefix = "Best ";
+        } else if (BUDGET_WORDS.matcher(structured.text).find()) {
+            prefix = "Budget ";
+        }
+        String area = "";
+        if (structured.locality != null) {
+            area = " in " + structured.locality.name;
+        } else if (structured.nearUser) {
+            area = " near me";
+        }
+        if (prefix.isEmpty() && area.isEmpty()) {
+            return suggestions;
         }
 
+        List<String> categories = structured.categories.isEmpty() ? SUGGESTED_CATEGORIES : structured.categories;
+        for (String category : categories) {
+            String name = category.replace('_', ' ');
+            suggestions.add(prefix.isEmpty() ? capitalizeFirst(name) + area : prefix + name + area);
+        }
         return suggestions;
     }
 
     /**
-     * Auto-complete search query based on ML predictions
+     * Auto-complete search query based on ML predictions.
+     * Served from a prefix trie, so each keystroke costs O(prefix length + results). Until the
+     * first background build finishes this returns an empty list.
      */
-    public List<String> getAutoCompleteSuggestions(String partialQuery, List<Place> places) {
+    public List<String> getAutoCompleteSuggestions(String partialQuery) {
         if (partialQuery == null || partialQuery.trim().isEmpty()) {
             return Collections.emptyList();
         }
+        CompletionTrie trie = completionTrie;
+        if (trie == null) {
+            scheduleCompletionRebuild();
+            return Collections.emptyList();
+        }
+        return trie.complete(partialQuery, MAX_AUTOCOMPLETE_RESULTS);
+    }
 
-        Set<String> suggestions = new HashSet<>();
-        String query = partialQuery.toLowerCase();
+    // Bursts of catalog writes (load, cloud sync) collapse into one rebuild
+    private void scheduleCompletionRebuild() {
+        if (completionRebuildPending.compareAndSet(false, true)) {
+            completionExecutor.execute(() -> {
+                // Cleared before reading, so a change made during the build schedules another
+                completionRebuildPending.set(false);
+                try {
+                    rebuildCompletions();
+                } catch (Exception e) {
+                    Log.e(TAG, "Error rebuilding autocomplete", e);
+                }
+            });
+        }
+    }
 
-        // Extract place names that match
-        for (Place place : places) {
-            String placeName = place.getName().toLowerCase();
-            if (placeName.startsWith(query)) {
-                suggestions.add(place.getName());
-            }
+    /**
+     * Weights are comparable across sources: a place by rating and how much the user likes its
+     * category, a category by preference alone, a past query by how often it was searched
+     * relative to the most repeated one.
+     */
+    private void rebuildCompletions() {
+        placeCatalog.ensureLoaded();
+        CompletionTrie.Builder builder = new CompletionTrie.Builder();
+        SymSpellDictionary.Builder spelling = new SymSpellDictionary.Builder();
+
+        for (Place place : placeCatalog.getAllPlaces()) {
+            double preference = recommendationEngine.getUserPreference().getCategoryPreference(place.getCategory());
+            builder.add(place.getName(), 0.5 * place.getRating() / 5.0 + 0.5 * preference);
+            spelling.addText(place.getName());
         }
 
-        // Add category-based completions
-        String[] categories = {"restaurants", "cafes", "hotels", "hostels", "malls", "parks", "gas_stations", "parking"};
-        for (String category : categories) {
-            if (category.startsWith(query)) {
-                suggestions.add(capitalizeFirst(category.replace("_", " ")));
-            }
+        for (String category : keywordDictionary.getCategoryIds()) {
+            double preference = recommendationEngine.getUserPreference().getCategoryPreference(category);
+            builder.add(capitalizeFirst(category.replace("_", " ")), 0.25 + 0.5 * preference);
+            spelling.addText(category);
+        }
+        spellingDictionary = spelling.build();
+
+        List<SearchHistoryDao.QueryFrequency> popular = TravelDatabase.getDatabase(context)
+                .searchHistoryDao().getPopularQueriesSync(POPULAR_QUERY_LIMIT);
+        int maxFrequency = popular.isEmpty() ? 1 : Math.max(1, popular.get(0).frequency);
+        List<String> queries = new ArrayList<>(popular.size());
+        for (SearchHistoryDao.QueryFrequency entry : popular) {
+            builder.add(entry.query, 0.5 + 0.5 * entry.frequency / maxFrequency);
+            queries.add(entry.query);
         }
+        popularQueries = Collections.unmodifiableList(queries);
 
-        return suggestions.stream()
-                .limit(5)
-                .collect(Collectors.toList());
+        completionTrie = builder.build();
+        Log.d(TAG, "Rebuilt autocomplete with " + completionTrie.size() + " entries, "
+                + spellingDictionary.size() + " spelling words");
     }
 
     // Helper methods
-    private Map<String, List<String>> getCategoryKeywords() {
-        Map<String, List<String>> keywords = new HashMap<>();
-        
-        keywords.put("restaurants", Arrays.asList("food", "eat", "dining", "meal", "cuisine"));
-        keywords.put("cafes", Arrays.asList("coffee", "tea", "drink", "beverage", "cafe"));
-        keywords.put("hotels", Arrays.asList("stay", "accommodation", "lodge", "inn", "resort"));
-        keywords.put("hostels", Arrays.asList("budget", "backpacker", "dorm", "cheap stay"));
-        keywords.put("malls", Arrays.asList("shopping", "store", "retail", "shop", "market"));
-        keywords.put("parks", Arrays.asList("nature", "garden", "outdoor", "recreation", "green"));
-        keywords.put("gas_stations", Arrays.asList("fuel", "petrol", "gas", "station"));
-        keywords.put("parking", Arrays.asList("park", "lot", "garage", "space"));
-
-        return keywords;
+    private String capitalizeFirst(String str) {
+        if (str == null || str.isEmpty()) return str;
+        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
     }
 
-    private double calculateStringSimilarity(String s1, String s2) {
-        if (s1 == null || s2 == null) return 0.0;
-        
-        int maxLength = Math.max(s1.length(), s2.length());
-        if (maxLength == 0) return 1.0;
-        
-        int editDistance = calculateEditDistance(s1, s2);
-        return 1.0 - (double) editDistance / maxLength;
+    /**
+     * Start a search-as-you-type session for one search field; see {@link SearchSession}.
+     */
+    public SearchSession newSearchSession(int maxResults) {
+        return new SearchSession(maxResults);
     }
 
-    private int calculateEditDistance(String s1, String s2) {
-        int[][] dp = new int[s1.length() + 1][s2.length() + 1];
-        
-        for (int i = 0; i <= s1.length(); i++) {
-            dp[i][0] = i;
+    /**
+     * Searches the catalog as the user types. Keystrokes are debounced, a newer keystroke cancels
+     * the search of an older one (queued or mid-ranking), and when the new query only extends
+     * the previous one its candidates are narrowed from the previous candidates instead of looked
+     * up again. Results, with per-stage timings, arrive on {@link #getResults()}.
+     */
+    public final class SearchSession {
+        private final int maxResults;
+        private final MutableLiveData<SearchUpdate> results = new MutableLiveData<>();
+        private final AtomicLong generation = new AtomicLong();
+        private ScheduledFuture<?> pending;
+        // Retrieval of the last query that finished; only used on the session thread
+        private TrigramIndex.Matches<PlaceDocument> lastMatches;
+
+        private SearchSession(int maxResults) {
+            this.maxResults = maxResults;
         }
-        for (int j = 0; j <= s2.length(); j++) {
-            dp[0][j] = j;
+
+        public LiveData<SearchUpdate> getResults() {
+            return results;
         }
-        
-        for (int i = 1; i <= s1.length(); i++) {
-            for (int j = 1; j <= s2.length(); j++) {
-                if (s1.charAt(i - 1) == s2.charAt(j - 1)) {
-                    dp[i][j] = dp[i - 1][j - 1];
+
+        public synchronized void onQueryChanged(String text) {
+            long id = generation.incrementAndGet();
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            long typedAt = System.nanoTime();
+            pending = sessionExecutor.schedule(() -> run(text, id, typedAt),
+                    SESSION_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+        }
+
+        // Drops any queued or running search; call when the search field goes away
+        public synchronized void close() {
+            generation.incrementAndGet();
+            if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+
+        private void run(String text, long id, long typedAt) {
+            BooleanSupplier superseded = () -> generation.get() != id;
+            if (superseded.getAsBoolean()) return;
+            try {
+                SearchUpdate update = search(text, typedAt, superseded);
+                if (!superseded.getAsBoolean()) {
+                    results.postValue(update);
+                }
+            } catch (CancellationException e) {
+                Log.d(TAG, "Search for '" + text + "' superseded");
+            } catch (Exception e) {
+                Log.e(TAG, "Error in search session", e);
+            }
+        }
+
+        private SearchUpdate search(String text, long typedAt, BooleanSupplier superseded) {
+            long started = System.nanoTime();
+            placeCatalog.ensureLoaded();
+            String normalizedQuery = text == null ? "" : text.toLowerCase(Locale.ROOT).trim();
+            StructuredQuery structured = queryParser.parse(normalizedQuery);
+            GeoPoint location = userLocation;
+            ResultCacheKey key = new ResultCacheKey(normalizedQuery, locationHash(structured, location), maxResults,
+                    placeCatalog.getVersion(), recommendationEngine.getUserPreference().getVersion());
+            List<Place> cached = resultCache.get(key);
+            if (cached != null) {
+                long done = System.nanoTime();
+                return new SearchUpdate(text, new ArrayList<>(cached), true, false, cached.size(),
+                        started - typedAt, 0, 0, done - typedAt);
+            }
+
+            List<Place> places;
+            int candidates;
+            boolean narrowed = false;
+            long retrieved;
+            if (normalizedQuery.isEmpty()) {
+                places = searchCatalog(text, normalizedQuery, maxResults); // recommendations
+                candidates = 0;
+                retrieved = System.nanoTime();
+            } else if (structured.hasFilters(location)) {
+                List<Place> rows = loadFiltered(structured, location, maxResults);
+                candidates = rows.size();
+                retrieved = System.nanoTime();
+                if (superseded.getAsBoolean()) throw new CancellationException();
+                places = rankFiltered(structured, rows, location, maxResults, superseded);
+            } else {
+                List<String> terms = getRetrievalTerms(normalizedQuery);
+                List<PlaceDocument> documents;
+                if (TrigramIndex.isSearchable(terms)) {
+                    TrigramIndex.Matches<PlaceDocument> matches = searchIndex.match(terms, lastMatches);
+                    lastMatches = matches;
+                    documents = matches.values;
+                    narrowed = matches.narrowed;
                 } else {
-                    dp[i][j] = 1 + Math.min(Math.min(dp[i - 1][j], dp[i][j - 1]), dp[i - 1][j - 1]);
+                    documents = placeCatalog.getAllDocuments(); // too short to look up, e.g. "ab"
                 }
+                candidates = documents.size();
+                retrieved = System.nanoTime();
+                if (superseded.getAsBoolean()) throw new CancellationException();
+                places = rankByRelevance(documents, null, normalizedQuery, maxResults, superseded);
             }
+            long ranked = System.nanoTime();
+            resultCache.put(key, places);
+            return new SearchUpdate(text, new ArrayList<>(places), false, narrowed, candidates,
+                    started - typedAt, retrieved - started, ranked - retrieved, ranked - typedAt);
         }
-        
-        return dp[s1.length()][s2.length()];
     }
 
-    private String capitalizeFirst(String str) {
-        if (str == null || str.isEmpty()) return str;
-        return str.substring(0, 1).toUpperCase() + str.substring(1).toLowerCase();
+    /**
+     * One answer from a {@link SearchSession}. Timings are in nanoseconds: waitNanos covers the
+     * debounce and queueing since the keystroke, retrieval and ranking are the two search
+     * stages, and totalNanos runs from keystroke to result.
+     */
+    public static class SearchUpdate {
+        public final String query;
+        public final List<Place> places;
+        public final boolean fromCache;
+        public final boolean narrowed; // candidates came from narrowing the previous query's
+        public final int candidates;   // places scored
+        public final long waitNanos;
+        public final long retrievalNanos;
+        public final long rankingNanos;
+        public final long totalNanos;
+
+        SearchUpdate(String query, List<Place> places, boolean fromCache, boolean narrowed, int candidates,
+                     long waitNanos, long retrievalNanos, long rankingNanos, long totalNanos) {
+            this.query = query;
+            this.places = places;
+            this.fromCache = fromCache;
+            this.narrowed = narrowed;
+            this.candidates = candidates;
+            this.waitNanos = waitNanos;
+            this.retrievalNanos = retrievalNanos;
+            this.rankingNanos = rankingNanos;
+            this.totalNanos = totalNanos;
+        }
     }
 
-    // Inner class for search results
-    private static class SearchResult {
-        Place place;
-        double relevanceScore;
+    public static class SearchOutcome {
+        public final List<Place> places;
+        public final String didYouMean;
 
-        SearchResult(Place place, double relevanceScore) {
-            this.place = place;
-            this.relevanceScore = relevanceScore;
+        SearchOutcome(List<Place> places, String didYouMean) {
+            this.places = places;
+            this.didYouMean = didYouMean;
         }
     }
 }
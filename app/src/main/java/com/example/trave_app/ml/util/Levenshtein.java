@@ -0,0 +1,78 @@
+package com.example.trave_app.ml.util;
+
+/**
+ * Bounded edit distance for typo matching.
+ *
+ * Only the diagonal band |i - j| <= maxDistance of the DP matrix can hold a value within the
+ * bound, so each row fills at most 2 * maxDistance + 1 cells, and the scan stops as soon as a
+ * whole row exceeds the bound. The two rows are per-thread scratch arrays, so a call does not
+ * allocate once the arrays have grown to the longest word seen.
+ */
+public final class Levenshtein {
+    private static final ThreadLocal<int[][]> ROWS = new ThreadLocal<int[][]>() {
+        @Override
+        protected int[][] initialValue() {
+            return new int[][]{new int[32], new int[32]};
+        }
+    };
+
+    private Levenshtein() {
+    }
+
+    /**
+     * Edit distance between a and b if it is at most maxDistance, otherwise maxDistance + 1.
+     */
+    public static int distance(CharSequence a, CharSequence b, int maxDistance) {
+        int beyond = maxDistance + 1;
+        if (a.length() > b.length()) {
+            CharSequence swap = a;
+            a = b;
+            b = swap;
+        }
+        // Common prefix and suffix never cost anything
+        int start = 0;
+        int aEnd = a.length();
+        int bEnd = b.length();
+        while (start < aEnd && a.charAt(start) == b.charAt(start)) start++;
+        while (aEnd > start && a.charAt(aEnd - 1) == b.charAt(bEnd - 1)) {
+            aEnd--;
+            bEnd--;
+        }
+        int la = aEnd - start;
+        int lb = bEnd - start;
+        if (lb - la > maxDistance) return beyond;
+        if (la == 0) return lb;
+
+        int[][] rows = ROWS.get();
+        if (rows[0].length < lb + 2) {
+            rows[0] = new int[lb + 2];
+            rows[1] = new int[lb + 2];
+        }
+        int[] prev = rows[0];
+        int[] curr = rows[1];
+
+        int bandEnd = Math.min(lb, maxDistance);
+        for (int j = 0; j <= bandEnd; j++) prev[j] = j;
+        prev[bandEnd + 1] = beyond; // outside the band
+
+        for (int i = 1; i <= la; i++) {
+            int lo = Math.max(1, i - maxDistance);
+            int hi = Math.min(lb, i + maxDistance);
+            curr[lo - 1] = lo == 1 ? i : beyond;
+            char ca = a.charAt(start + i - 1);
+            int rowMin = curr[lo - 1];
+            for (int j = lo; j <= hi; j++) {
+                int cost = ca == b.charAt(start + j - 1) ? 0 : 1;
+                int value = Math.min(prev[j - 1] + cost, Math.min(prev[j], curr[j - 1]) + 1);
+                curr[j] = value;
+                if (value < rowMin) rowMin = value;
+            }
+            if (hi < lb) curr[hi + 1] = beyond;
+            if (rowMin > maxDistance) return beyond;
+            int[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return Math.min(prev[lb], beyond);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.trave_app.ml.util;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Scores items 0..size-1 and keeps the k best, on a fork-join pool once the input is large
+ * enough to pay for it.
+ *
+ * The range is split into chunks, each chunk fills its own {@link TopK} with positions equal
+ * to the item indexes, and the partial selectors are merged pairwise on the way back up. Ties
+ * fall back to those positions, so the result is exactly what a sequential TopK returns when
+ * offered the same items in index order. The scoring function runs on pool threads and must be
+ * safe to call concurrently.
+ */
+public final class ParallelTopK {
+    // Below this many items the fork-join overhead outweighs the gain
+    public static final int PARALLEL_THRESHOLD = 16_384;
+    private static final int MIN_CHUNK = 2048;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelTopK() {
+    }
+
+    /**
+     * The k best items by score, best first, using the common pool. A NaN score means the item
+     * is not a result at all.
+     */
+    public static <T> List<T> select(int size, int k, IntFunction<T> items, IntToDoubleFunction scores) {
+        return select(ForkJoinPool.commonPool(), size, k, items, scores);
+    }
+
+    public static <T> List<T> select(ForkJoinPool pool, int size, int k,
+                                     IntFunction<T> items, IntToDoubleFunction scores) {
+        int parallelism = pool.getParallelism();
+        if (size < PARALLEL_THRESHOLD || parallelism < 2) {
+            return scoreRange(0, size, k, items, scores).toList();
+        }
+        int grain = Math.max(MIN_CHUNK, size / (parallelism * CHUNKS_PER_THREAD));
+        return pool.invoke(new Chunk<>(0, size, grain, k, items, scores)).toList();
+    }
+
+    private static <T> TopK<T> scoreRange(int from, int to, int k, IntFunction<T> items, IntToDoubleFunction scores) {
+        TopK<T> top = new TopK<>(k);
+        for (int i = from; i < to; i++) {
+            double score = scores.applyAsDouble(i);
+            if (!Double.isNaN(score)) {
+                top.offer(items.apply(i), score, i);
+            }
+        }
+        return top;
+    }
+
+    private static final class Chunk<T> extends RecursiveTask<TopK<T>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int grain;
+        private final int k;
+        private final IntFunction<T> items;
+        private final IntToDoubleFunction scores;
+
+        Chunk(int from, int to, int grain, int k, IntFunction<T> items, IntToDoubleFunction scores) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.k = k;
+            this.items = items;
+            this.scores = scores;
+        }
+
+        @Override
+        protected TopK<T> compute() {
+            if (to - from <= grain) {
+                return scoreRange(from, to, k, items, scores);
+            }
+            int mid = (from + to) >>> 1;
+            Chunk<T> left = new Chunk<>(from, mid, grain, k, items, scores);
+            left.fork();
+            TopK<T> top = new Chunk<>(mid, to, grain, k, items, scores).compute();
+            top.merge(left.join());
+            return top;
+        }
+    }
+}
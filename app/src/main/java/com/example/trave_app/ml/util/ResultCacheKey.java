@@ -0,0 +1,42 @@
+package com.example.trave_app.ml.util;
+
+import java.util.Objects;
+
+/**
+ * Key for a cached ranking: what was asked (a query, or a hash of the input list) plus the
+ * versions of the data the answer was computed from. A write to the catalog or a preference
+ * change moves the versions on, so older entries are never hit again and the LRU ages them out.
+ */
+public final class ResultCacheKey {
+    private final String query;
+    private final long inputHash;
+    private final int maxResults;
+    private final long catalogVersion;
+    private final long preferenceVersion;
+
+    public ResultCacheKey(String query, long inputHash, int maxResults,
+                          long catalogVersion, long preferenceVersion) {
+        this.query = query;
+        this.inputHash = inputHash;
+        this.maxResults = maxResults;
+        this.catalogVersion = catalogVersion;
+        this.preferenceVersion = preferenceVersion;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResultCacheKey)) return false;
+        ResultCacheKey other = (ResultCacheKey) o;
+        return inputHash == other.inputHash
+                && maxResults == other.maxResults
+                && catalogVersion == other.catalogVersion
+                && preferenceVersion == other.preferenceVersion
+                && Objects.equals(query, other.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, inputHash, maxResults, catalogVersion, preferenceVersion);
+    }
+}
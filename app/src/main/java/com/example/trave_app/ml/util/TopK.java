@@ -0,0 +1,173 @@
+package com.example.trave_app.ml.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Keeps the k highest-scoring items offered to it, for "score everything, show the best few".
+ *
+ * A bounded min-heap on parallel primitive arrays: offering an item is O(log k) and allocates
+ * nothing, against O(n log n) plus a wrapper object per item for sort-then-limit. Ties break
+ * by the optional comparator, then by offer order (earlier first), so results are identical to
+ * a stable sort of the same input.
+ */
+public final class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> tieBreak;
+    private final double[] scores;
+    private final long[] order;
+    private final Object[] items;
+    private int size;
+    private long offered;
+
+    public TopK(int k) {
+        this(k, null);
+    }
+
+    /**
+     * @param tieBreak orders items with equal scores (smaller first), or null for offer order
+     */
+    public TopK(int k, Comparator<? super T> tieBreak) {
+        this.k = Math.max(0, k);
+        this.tieBreak = tieBreak;
+        this.scores = new double[this.k];
+        this.order = new long[this.k];
+        this.items = new Object[this.k];
+    }
+
+    /**
+     * The k items of the list with the highest score, best first.
+     */
+    public static <T> List<T> select(List<T> items, int k, ToDoubleFunction<? super T> score) {
+        return select(items, k, score, null);
+    }
+
+    public static <T> List<T> select(List<T> items, int k, ToDoubleFunction<? super T> score,
+                                     Comparator<? super T> tieBreak) {
+        TopK<T> top = new TopK<>(Math.min(k, items.size()), tieBreak);
+        for (T item : items) {
+            top.offer(item, score.applyAsDouble(item));
+        }
+        return top.toList();
+    }
+
+    public void offer(T item, double score) {
+        offer(item, score, offered++);
+    }
+
+    /**
+     * Offer everything other kept, with the positions it was offered at. Merging selectors that
+     * saw disjoint slices gives the same result as one selector that saw all of it.
+     */
+    @SuppressWarnings("unchecked")
+    void merge(TopK<T> other) {
+        for (int i = 0; i < other.size; i++) {
+            offer((T) other.items[i], other.scores[i], other.order[i]);
+        }
+    }
+
+    // Offer with an explicit position, for selectors that each see a slice of a larger input
+    // and are merged afterwards (see ParallelTopK); positions must not repeat
+    void offer(T item, double score, long position) {
+        if (k == 0) return;
+        if (size < k) {
+            scores[size] = score;
+            order[size] = position;
+            items[size] = item;
+            siftUp(size++);
+        } else if (ranksAbove(score, position, item, 0)) {
+            // The heap root is the worst item kept; the new one displaces it
+            scores[0] = score;
+            order[0] = position;
+            items[0] = item;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The kept items, best first. Empties the selector.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        Object[] result = new Object[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = items[0];
+            size--;
+            if (size > 0) {
+                move(size, 0);
+                siftDown(0);
+            }
+            items[size] = null;
+        }
+        List<T> list = new ArrayList<>(result.length);
+        for (Object item : result) {
+            list.add((T) item);
+        }
+        return list;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksAbove(parent, index)) break;
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) return;
+            int worst = left;
+            int right = left + 1;
+            if (right < size && ranksAbove(left, right)) worst = right;
+            if (!ranksAbove(index, worst)) return;
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    // Whether slot a ranks above slot b; the heap keeps the lowest-ranked item at the root
+    private boolean ranksAbove(int a, int b) {
+        return ranksAbove(scores[a], order[a], items[a], scores[b], order[b], items[b]);
+    }
+
+    // Whether the candidate ranks above the item in slot
+    private boolean ranksAbove(double score, long position, T item, int slot) {
+        return ranksAbove(score, position, item, scores[slot], order[slot], items[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean ranksAbove(double scoreA, long orderA, Object itemA, double scoreB, long orderB, Object itemB) {
+        int byScore = Double.compare(scoreA, scoreB);
+        if (byScore != 0) return byScore > 0;
+        if (tieBreak != null) {
+            int byTie = tieBreak.compare((T) itemA, (T) itemB);
+            if (byTie != 0) return byTie < 0;
+        }
+        return orderA < orderB;
+    }
+
+    private void swap(int a, int b) {
+        double score = scores[a];
+        long position = order[a];
+        Object item = items[a];
+        move(b, a);
+        scores[b] = score;
+        order[b] = position;
+        items[b] = item;
+    }
+
+    private void move(int from, int to) {
+        scores[to] = scores[from];
+        order[to] = order[from];
+        items[to] = items[from];
+    }
+}
@@ -6,16 +6,21 @@ import android.location.Location;
 import android.os.Build;
 import android.util.Log;
 
+import com.example.trave_app.data.FavoriteIndex;
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.database.dao.SearchHistoryDao;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.SearchHistory;
 import com.example.trave_app.ml.engine.TravelRecommendationEngine;
+import com.example.trave_app.ml.index.KeywordDictionary;
 import com.example.trave_app.ml.model.TravelPreference;
 import com.example.trave_app.notifications.model.AINotification;
 import com.example.trave_app.notifications.model.NotificationType;
 import com.example.trave_app.notifications.model.NotificationPreference;
 import com.example.trave_app.notifications.service.RealTimeLocationService;
 
+import java.text.DateFormatSymbols;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
@@ -60,13 +65,18 @@ public class AINotificationEngine {
         return notifications;
     }
 
-    public List<AINotification> generatePatternBasedAlerts(List<SearchHistory> searchHistory,
+    /**
+     * Alerts from the search history rollups (SearchHistoryDao.getCategoryHourFrequenciesSync
+     * and getCategoryDayFrequenciesSync), which stay a few dozen rows however long the history.
+     */
+    public List<AINotification> generatePatternBasedAlerts(List<SearchHistoryDao.CategoryFrequency> hourFrequencies,
+                                                          List<SearchHistoryDao.CategoryFrequency> dayFrequencies,
                                                           List<Favorite> favorites,
                                                           TravelPreference userPreference) {
         List<AINotification> notifications = new ArrayList<>();
 
         // Analyze search patterns
-        Map<String, Integer> categoryFrequency = analyzeCategoryPatterns(searchHistory);
+        Map<String, Integer> categoryFrequency = analyzeCategoryPatterns(hourFrequencies);
         String mostSearchedCategory = getMostFrequentCategory(categoryFrequency);
 
         if (mostSearchedCategory != null && categoryFrequency.get(mostSearchedCategory) >= 3) {
@@ -77,7 +87,7 @@ public class AINotificationEngine {
         }
 
         // Analyze time patterns
-        AINotification timePatternNotification = analyzeTimePatterns(searchHistory);
+        AINotification timePatternNotification = analyzeTimePatterns(hourFrequencies, dayFrequencies);
         if (timePatternNotification != null) {
             notifications.add(timePatternNotification);
         }
@@ -87,19 +97,18 @@ public class AINotificationEngine {
 
     public List<AINotification> generateLocationAwareNotifications(Location currentLocation,
                                                                   List<Place> nearbyPlaces,
-                                                                  List<Favorite> favorites) {
+                                                                  FavoriteIndex favorites) {
         List<AINotification> notifications = new ArrayList<>();
 
         if (currentLocation == null || nearbyPlaces.isEmpty()) return notifications;
 
-        // Check for nearby favorites
-        for (Favorite favorite : favorites) {
-            for (Place place : nearbyPlaces) {
-                if (place.getName().equals(favorite.getName())) {
-                    AINotification notification = createLocationAwareNotification(place, favorite);
-                    if (notification != null) {
-                        notifications.add(notification);
-                    }
+        // Check for nearby favorites: one placeId lookup per nearby place
+        for (Place place : nearbyPlaces) {
+            Favorite favorite = favorites.get(PlaceCatalog.keyOf(place));
+            if (favorite != null) {
+                AINotification notification = createLocationAwareNotification(place, favorite);
+                if (notification != null) {
+                    notifications.add(notification);
                 }
             }
         }
@@ -310,22 +319,28 @@ public class AINotificationEngine {
         return notification;
     }
 
-    private AINotification analyzeTimePatterns(List<SearchHistory> searchHistory) {
-        if (searchHistory.size() < 5) return null;
+    private AINotification analyzeTimePatterns(List<SearchHistoryDao.CategoryFrequency> hourFrequencies,
+                                               List<SearchHistoryDao.CategoryFrequency> dayFrequencies) {
+        // Every category together: index by hour of day, and by Calendar.DAY_OF_WEEK
+        int[] hourFrequency = new int[24];
+        int total = 0;
+        for (SearchHistoryDao.CategoryFrequency entry : hourFrequencies) {
+            hourFrequency[entry.bucket] += entry.frequency;
+            total += entry.frequency;
+        }
+        if (total < 5) return null;
 
-        Map<Integer, Integer> hourFrequency = new HashMap<>();
-        for (SearchHistory search : searchHistory) {
-            Calendar cal = Calendar.getInstance();
-            cal.setTimeInMillis(search.getSearchTimestamp());
-            int hour = cal.get(Calendar.HOUR_OF_DAY);
-            hourFrequency.put(hour, hourFrequency.getOrDefault(hour, 0) + 1);
+        int[] dayFrequency = new int[Calendar.SATURDAY + 1];
+        for (SearchHistoryDao.CategoryFrequency entry : dayFrequencies) {
+            dayFrequency[entry.bucket] += entry.frequency;
         }
 
-        int peakHour = Collections.max(hourFrequency.entrySet(), Map.Entry.comparingByValue()).getKey();
-        
+        int peakHour = peakIndex(hourFrequency, 0);
+        String peakDay = new DateFormatSymbols().getWeekdays()[peakIndex(dayFrequency, Calendar.SUNDAY)];
+
         String title = " Perfect Timing!";
-        String message = String.format("You usually search for places around %d:00. Here are some timely suggestions!",
-                peakHour);
+        String message = String.format("You usually search for places around %d:00, especially on %s. Here are some timely suggestions!",
+                peakHour, peakDay);
 
         AINotification notification = new AINotification(title, message, NotificationType.TIME_OPTIMIZED,
                 System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
@@ -336,14 +351,23 @@ public class AINotificationEngine {
         return notification;
     }
 
-    private Map<String, Integer> analyzeCategoryPatterns(List<SearchHistory> searchHistory) {
+    private int peakIndex(int[] frequencies, int first) {
+        int peak = first;
+        for (int i = first + 1; i < frequencies.length; i++) {
+            if (frequencies[i] > frequencies[peak]) peak = i;
+        }
+        return peak;
+    }
+
+    // Searches per category across all hours. Stored categories are mapped onto the
+    // dictionary's ids, so "restaurant" and "restaurants" count together.
+    private Map<String, Integer> analyzeCategoryPatterns(List<SearchHistoryDao.CategoryFrequency> hourFrequencies) {
         Map<String, Integer> categoryFrequency = new HashMap<>();
-        for (SearchHistory search : searchHistory) {
-            String query = search.getSearchQuery().toLowerCase();
-            String category = inferCategoryFromQuery(query);
-            if (category != null) {
-                categoryFrequency.put(category, categoryFrequency.getOrDefault(category, 0) + 1);
-            }
+        for (SearchHistoryDao.CategoryFrequency entry : hourFrequencies) {
+            if (entry.category == null || entry.category.isEmpty()) continue;
+            String category = inferCategoryFromQuery(entry.category);
+            if (category == null) category = entry.category.toLowerCase();
+            categoryFrequency.put(category, categoryFrequency.getOrDefault(category, 0) + entry.frequency);
         }
         return categoryFrequency;
     }
@@ -356,13 +380,7 @@ public class AINotificationEngine {
     }
 
     private String inferCategoryFromQuery(String query) {
-        if (query.contains("restaurant") || query.contains("food") || query.contains("eat")) return "restaurant";
-        if (query.contains("hotel") || query.contains("stay") || query.contains("accommodation")) return "hotel";
-        if (query.contains("cafe") || query.contains("coffee")) return "cafe";
-        if (query.contains("park") || query.contains("garden")) return "park";
-        if (query.contains("mall") || query.contains("shopping")) return "shopping_mall";
-        if (query.contains("gas") || query.contains("fuel")) return "gas_station";
-        return null;
+        return KeywordDictionary.getInstance(context).match(query).getPrimaryCategory();
     }
 
     private boolean shouldGenerateWeeklyInsight() {
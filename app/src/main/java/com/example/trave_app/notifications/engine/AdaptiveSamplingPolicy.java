@@ -0,0 +1,102 @@
+package com.example.trave_app.notifications.engine;
+
+import com.example.trave_app.geo.GeoMath;
+import com.google.android.gms.location.Priority;
+
+/**
+ * Samples location according to what the user is doing.
+ * Stationary (no 50 m move for 3 minutes): balanced power every 2 minutes.
+ * Walking: high accuracy every 30 s, detection after 50 m (the old fixed behaviour).
+ * Driving: high accuracy every 10 s, but detection only after 200 m, a small step against
+ * the user's detection radius (NotificationPreference.locationRadiusKm, 5 km by default).
+ * Around many places (dense POI cells) the moving modes halve interval and distance.
+ */
+public class AdaptiveSamplingPolicy implements LocationSamplingPolicy {
+    public enum Mode { STATIONARY, WALKING, DRIVING }
+
+    private static final double DWELL_RADIUS_M = 50.0;
+    private static final long DWELL_TIME_MS = 3 * 60 * 1000L;
+    // Hysteresis so GPS speed noise around the threshold does not flip modes every fix
+    private static final double DRIVING_ENTER_MPS = 7.0;
+    private static final double DRIVING_EXIT_MPS = 5.0;
+    private static final double STATIONARY_MAX_MPS = 1.0;
+    private static final double SPEED_SMOOTHING = 0.5;
+    private static final int DENSE_PLACE_COUNT = 15;
+    private static final float MIN_DENSE_DISTANCE_M = 25.0f;
+
+    private static final SamplingSpec STATIONARY =
+            new SamplingSpec(120000, 60000, Priority.PRIORITY_BALANCED_POWER_ACCURACY, 50.0f);
+    private static final SamplingSpec WALKING =
+            new SamplingSpec(30000, 15000, Priority.PRIORITY_HIGH_ACCURACY, 50.0f);
+    private static final SamplingSpec DRIVING =
+            new SamplingSpec(10000, 5000, Priority.PRIORITY_HIGH_ACCURACY, 200.0f);
+
+    private Mode mode = Mode.WALKING;
+    private double smoothedSpeed = Double.NaN;
+    private double lastLat;
+    private double lastLon;
+    private long lastTime = -1;
+    private double anchorLat;
+    private double anchorLon;
+    private long anchorTime;
+    private volatile int nearbyPlaceCount;
+
+    @Override
+    public SamplingSpec initialSpec() {
+        return WALKING;
+    }
+
+    @Override
+    public synchronized SamplingSpec onFix(double latitude, double longitude, long timeMs, float speedMps) {
+        double speed = speedMps;
+        if (Float.isNaN(speedMps) && lastTime >= 0 && timeMs > lastTime) {
+            double meters = GeoMath.distanceKm(lastLat, lastLon, latitude, longitude) * 1000;
+            speed = meters * 1000.0 / (timeMs - lastTime);
+        }
+        if (!Double.isNaN(speed)) {
+            smoothedSpeed = Double.isNaN(smoothedSpeed)
+                    ? speed
+                    : SPEED_SMOOTHING * speed + (1 - SPEED_SMOOTHING) * smoothedSpeed;
+        }
+        lastLat = latitude;
+        lastLon = longitude;
+
+        if (lastTime < 0 || GeoMath.distanceKm(anchorLat, anchorLon, latitude, longitude) * 1000 > DWELL_RADIUS_M) {
+            anchorLat = latitude;
+            anchorLon = longitude;
+            anchorTime = timeMs;
+        }
+        lastTime = timeMs;
+
+        mode = nextMode(timeMs - anchorTime);
+        return specFor(mode);
+    }
+
+    @Override
+    public void onNearbyPlaceCount(int count) {
+        nearbyPlaceCount = count;
+    }
+
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    private Mode nextMode(long dwellMs) {
+        double speed = Double.isNaN(smoothedSpeed) ? 0 : smoothedSpeed;
+        if (dwellMs >= DWELL_TIME_MS && speed < STATIONARY_MAX_MPS) {
+            return Mode.STATIONARY;
+        }
+        if (speed >= DRIVING_ENTER_MPS || (mode == Mode.DRIVING && speed >= DRIVING_EXIT_MPS)) {
+            return Mode.DRIVING;
+        }
+        return Mode.WALKING;
+    }
+
+    private SamplingSpec specFor(Mode mode) {
+        if (mode == Mode.STATIONARY) return STATIONARY;
+        SamplingSpec base = mode == Mode.DRIVING ? DRIVING : WALKING;
+        if (nearbyPlaceCount < DENSE_PLACE_COUNT) return base;
+        return new SamplingSpec(base.intervalMs / 2, base.fastestIntervalMs / 2, base.priority,
+                Math.max(MIN_DENSE_DISTANCE_M, base.minDistanceMeters / 2));
+    }
+}
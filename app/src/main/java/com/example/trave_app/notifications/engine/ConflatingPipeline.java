@@ -0,0 +1,130 @@
+package com.example.trave_app.notifications.engine;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serial background pipeline with latest-wins conflation.
+ * At most one batch is processed at a time on a single worker thread. Items submitted while a
+ * batch is in flight are merged into one pending batch, so a burst of submissions turns into a
+ * single extra pass instead of a queue of stale ones. A pending batch longer than maxBatchSize
+ * is thinned by dropping interior items; the first and the latest item are always kept.
+ */
+public class ConflatingPipeline<T> {
+    private static final String TAG = "ConflatingPipeline";
+
+    public interface Processor<T> {
+        // Runs on the pipeline thread; the batch is in submission order
+        void process(List<T> batch);
+    }
+
+    private final Processor<T> processor;
+    private final int maxBatchSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private List<T> pending;
+    private boolean running;
+
+    private long submitted;
+    private long merged;
+    private long dropped;
+    private long processedBatches;
+
+    public ConflatingPipeline(Processor<T> processor, int maxBatchSize) {
+        this.processor = processor;
+        this.maxBatchSize = Math.max(2, maxBatchSize);
+    }
+
+    public synchronized void submit(List<T> items) {
+        if (items.isEmpty()) return;
+        submitted += items.size();
+        if (pending == null) {
+            pending = new ArrayList<>(items);
+        } else {
+            // A pass is still running: fold this burst into the one waiting behind it
+            pending.addAll(items);
+            merged += items.size();
+        }
+        thin(pending);
+        if (!running) {
+            running = true;
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Counts items the caller discarded before submitting them (e.g. too close to the last one).
+     */
+    public synchronized void recordDropped(int count) {
+        submitted += count;
+        dropped += count;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public synchronized Metrics getMetrics() {
+        return new Metrics(submitted, merged, dropped, processedBatches);
+    }
+
+    private void drain() {
+        while (true) {
+            List<T> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = null;
+                if (batch == null) {
+                    running = false;
+                    return;
+                }
+            }
+            try {
+                processor.process(batch);
+            } catch (RuntimeException e) {
+                // Keep the worker alive; the next batch gets a fresh attempt
+                Log.e(TAG, "Error processing batch", e);
+            }
+            synchronized (this) {
+                processedBatches++;
+            }
+        }
+    }
+
+    private void thin(List<T> batch) {
+        while (batch.size() > maxBatchSize) {
+            // Drop every other interior item, keeping the endpoints of the path
+            int before = batch.size();
+            List<T> kept = new ArrayList<>(before / 2 + 2);
+            for (int i = 0; i < before; i++) {
+                if (i == 0 || i == before - 1 || i % 2 == 0) kept.add(batch.get(i));
+            }
+            dropped += before - kept.size();
+            batch.clear();
+            batch.addAll(kept);
+        }
+    }
+
+    public static class Metrics {
+        public final long submitted;
+        public final long merged;
+        public final long dropped;
+        public final long processedBatches;
+
+        Metrics(long submitted, long merged, long dropped, long processedBatches) {
+            this.submitted = submitted;
+            this.merged = merged;
+            this.dropped = dropped;
+            this.processedBatches = processedBatches;
+        }
+
+        @Override
+        public String toString() {
+            return "submitted=" + submitted + ", merged=" + merged + ", dropped=" + dropped
+                    + ", batches=" + processedBatches;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.trave_app.notifications.engine;
+
+import com.google.android.gms.location.Priority;
+
+// The original behaviour: high accuracy every 30 s, detection after 50 m, whatever the user does
+public class FixedSamplingPolicy implements LocationSamplingPolicy {
+    private final SamplingSpec spec;
+
+    public FixedSamplingPolicy() {
+        this(new SamplingSpec(30000, 15000, Priority.PRIORITY_HIGH_ACCURACY, 50.0f));
+    }
+
+    public FixedSamplingPolicy(SamplingSpec spec) {
+        this.spec = spec;
+    }
+
+    @Override
+    public SamplingSpec initialSpec() {
+        return spec;
+    }
+
+    @Override
+    public SamplingSpec onFix(double latitude, double longitude, long timeMs, float speedMps) {
+        return spec;
+    }
+
+    @Override
+    public void onNearbyPlaceCount(int count) {
+    }
+}
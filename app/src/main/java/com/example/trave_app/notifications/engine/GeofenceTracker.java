@@ -0,0 +1,123 @@
+package com.example.trave_app.notifications.engine;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.dao.GeofenceStateDao;
+import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.notifications.model.GeofenceState;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the set of places currently inside the detection radius and turns each fix into
+ * entered/exited deltas, so only newly entered places are considered for a notification.
+ * A place notifies at most once per cooldown even if the user walks in and out of its radius.
+ * State lives in geofence_states so a restarted service picks up where it left off.
+ */
+public class GeofenceTracker {
+    private static final String TAG = "GeofenceTracker";
+    public static final long DEFAULT_COOLDOWN_MS = 6 * 60 * 60 * 1000L; // 6 hours
+
+    private final GeofenceStateDao geofenceStateDao;
+    private final long cooldownMs;
+    private final Map<String, GeofenceState> states = new HashMap<>();
+    private boolean loaded;
+
+    public GeofenceTracker(Context context) {
+        this(TravelDatabase.getDatabase(context).geofenceStateDao(), DEFAULT_COOLDOWN_MS);
+    }
+
+    public GeofenceTracker(GeofenceStateDao geofenceStateDao, long cooldownMs) {
+        this.geofenceStateDao = geofenceStateDao;
+        this.cooldownMs = cooldownMs;
+    }
+
+    /**
+     * Diff the places inside the radius at this fix against the previous fix.
+     * Must be called off the main thread; changed rows are written in one batch.
+     */
+    public synchronized Transition update(List<Place> placesInside, long now) {
+        ensureLoaded(now);
+
+        Transition transition = new Transition();
+        List<GeofenceState> changed = new ArrayList<>();
+        Set<String> insideIds = new HashSet<>();
+
+        for (Place place : placesInside) {
+            String id = PlaceCatalog.keyOf(place);
+            if (!insideIds.add(id)) continue;
+            GeofenceState state = states.get(id);
+            if (state != null && state.isInside()) continue;
+
+            transition.entered.add(place);
+            boolean firstVisit = state == null;
+            if (firstVisit) {
+                state = new GeofenceState(id, true, now);
+                states.put(id, state);
+            }
+            state.setInside(true);
+            if (firstVisit || now - state.getLastNotifiedTime() >= cooldownMs) {
+                state.setLastNotifiedTime(now);
+                transition.notifiable.add(place);
+            }
+            changed.add(state);
+        }
+
+        Iterator<GeofenceState> iterator = states.values().iterator();
+        while (iterator.hasNext()) {
+            GeofenceState state = iterator.next();
+            if (!state.isInside()) {
+                // Cooldown over: forget it in memory, the row is pruned on the next load
+                if (now - state.getLastNotifiedTime() >= cooldownMs) iterator.remove();
+                continue;
+            }
+            if (insideIds.contains(state.getPlaceId())) continue;
+            transition.exitedIds.add(state.getPlaceId());
+            state.setInside(false);
+            changed.add(state);
+        }
+
+        if (!changed.isEmpty()) {
+            try {
+                geofenceStateDao.upsertAll(changed);
+            } catch (Exception e) {
+                Log.e(TAG, "Error saving geofence state", e);
+            }
+        }
+        return transition;
+    }
+
+    private void ensureLoaded(long now) {
+        if (loaded) return;
+        loaded = true;
+        try {
+            geofenceStateDao.deleteExpired(now - cooldownMs);
+            for (GeofenceState state : geofenceStateDao.getAllSync()) {
+                states.put(state.getPlaceId(), state);
+            }
+            Log.d(TAG, "Restored " + states.size() + " geofence states");
+        } catch (Exception e) {
+            Log.e(TAG, "Error loading geofence state", e);
+        }
+    }
+
+    public static class Transition {
+        private final List<Place> entered = new ArrayList<>();
+        private final List<Place> notifiable = new ArrayList<>();
+        private final List<String> exitedIds = new ArrayList<>();
+
+        public List<Place> getEntered() { return entered; }
+        // Entered places that are past their cooldown
+        public List<Place> getNotifiable() { return notifiable; }
+        public List<String> getExitedIds() { return exitedIds; }
+    }
+}
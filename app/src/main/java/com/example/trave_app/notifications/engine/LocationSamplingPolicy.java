@@ -0,0 +1,19 @@
+package com.example.trave_app.notifications.engine;
+
+/**
+ * Decides the location request and detection threshold for RealTimeLocationService.
+ * Implementations must not touch Android APIs so they can be replayed in SamplingSimulator.
+ */
+public interface LocationSamplingPolicy {
+    SamplingSpec initialSpec();
+
+    /**
+     * Called for every fix. speedMps is NaN when the provider did not report a speed.
+     */
+    SamplingSpec onFix(double latitude, double longitude, long timeMs, float speedMps);
+
+    /**
+     * Called after each detection run with the number of places found around the fix.
+     */
+    void onNearbyPlaceCount(int count);
+}
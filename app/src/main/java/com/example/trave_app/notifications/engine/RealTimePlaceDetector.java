@@ -10,24 +10,29 @@ import android.util.Log;
 import androidx.core.app.NotificationCompat;
 
 import com.example.trave_app.R;
-import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.data.PlaceCatalog;
 import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.geo.GeoMath;
+import com.example.trave_app.geo.GeoPoint;
 import com.example.trave_app.MapActivity;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 public class RealTimePlaceDetector {
     private static final String TAG = "RealTimePlaceDetector";
     private static final String CHANNEL_ID = "realtime_places_channel";
-    private static final double SEARCH_RADIUS_KM = 1.0; // 1 km radius
+    private static final double DEFAULT_SEARCH_RADIUS_KM = 1.0;
     
     private Context context;
-    private TravelDatabase database;
+    private PlaceCatalog placeCatalog;
     private NotificationManager notificationManager;
     private Random random;
+    private volatile double searchRadiusKm = DEFAULT_SEARCH_RADIUS_KM;
     
     // All place categories to detect
     private final List<String> PLACE_CATEGORIES = Arrays.asList(
@@ -36,28 +41,26 @@ public class RealTimePlaceDetector {
 
     public RealTimePlaceDetector(Context context) {
         this.context = context;
-        this.database = TravelDatabase.getInstance(context);
+        this.placeCatalog = PlaceCatalog.getInstance(context);
         this.notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
         this.random = new Random();
     }
 
+    /**
+     * Radius used by all detection queries, normally NotificationPreference.locationRadiusKm.
+     */
+    public void setSearchRadiusKm(double radiusKm) {
+        if (radiusKm > 0) searchRadiusKm = radiusKm;
+    }
+
     public List<Place> detectNearbyPlaces(double latitude, double longitude) {
         Log.d(TAG, "Detecting places near: " + latitude + ", " + longitude);
         
         List<Place> nearbyPlaces = new ArrayList<>();
         
         try {
-            // Get places from database within radius
-            List<Place> allPlaces = database.placeDao().getAllPlacesSync();
-            
-            for (Place place : allPlaces) {
-                double distance = calculateDistance(latitude, longitude, 
-                    place.getLatitude(), place.getLongitude());
-                
-                if (distance <= SEARCH_RADIUS_KM) {
-                    nearbyPlaces.add(place);
-                }
-            }
+            // Only the grid cells overlapping the search radius are visited
+            nearbyPlaces = placeCatalog.getPlacesWithinRadius(latitude, longitude, searchRadiusKm);
             
             // If no places in database, use curated Vashi places for demonstration
             if (nearbyPlaces.isEmpty()) {
@@ -73,19 +76,70 @@ public class RealTimePlaceDetector {
         return nearbyPlaces;
     }
 
-    public void generateRealTimeNotifications(List<Place> nearbyPlaces, Location userLocation) {
-        Log.d(TAG, "Generating real-time notifications for " + nearbyPlaces.size() + " places");
+    /**
+     * Places within the search radius of any point on the path through the given fixes,
+     * so a batch of fixes needs one catalog query instead of one per fix.
+     */
+    public List<Place> detectAlongPath(List<GeoPoint> path) {
+        if (path.size() == 1) {
+            return detectNearbyPlaces(path.get(0).latitude, path.get(0).longitude);
+        }
         
-        // Group places by category and send notifications
-        for (String category : PLACE_CATEGORIES) {
-            List<Place> categoryPlaces = new ArrayList<>();
-            for (Place place : nearbyPlaces) {
-                if (place.getCategory().equals(category)) {
-                    categoryPlaces.add(place);
+        List<Place> nearbyPlaces = new ArrayList<>();
+        try {
+            // One circle around the path's bounding box, then keep places close to a segment
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            for (GeoPoint point : path) {
+                minLat = Math.min(minLat, point.latitude);
+                maxLat = Math.max(maxLat, point.latitude);
+                minLon = Math.min(minLon, point.longitude);
+                maxLon = Math.max(maxLon, point.longitude);
+            }
+            double centerLat = (minLat + maxLat) / 2;
+            double centerLon = (minLon + maxLon) / 2;
+            double halfDiagonalKm = GeoMath.distanceKm(centerLat, centerLon, maxLat, maxLon);
+            double spanKm = Math.max(halfDiagonalKm, GeoMath.distanceKm(centerLat, centerLon, minLat, maxLon));
+            
+            for (Place place : placeCatalog.getPlacesWithinRadius(centerLat, centerLon, spanKm + searchRadiusKm)) {
+                GeoPoint point = new GeoPoint(place.getLatitude(), place.getLongitude());
+                for (int i = 1; i < path.size(); i++) {
+                    if (GeoMath.distanceToSegmentKm(point, path.get(i - 1), path.get(i)) <= searchRadiusKm) {
+                        nearbyPlaces.add(place);
+                        break;
+                    }
                 }
             }
             
-            if (!categoryPlaces.isEmpty()) {
+            if (nearbyPlaces.isEmpty()) {
+                GeoPoint last = path.get(path.size() - 1);
+                nearbyPlaces = detectNearbyPlaces(last.latitude, last.longitude);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error detecting places along path", e);
+            nearbyPlaces = getCuratedVashiPlaces();
+        }
+        
+        return nearbyPlaces;
+    }
+
+    public void generateRealTimeNotifications(List<Place> nearbyPlaces, Location userLocation) {
+        Log.d(TAG, "Generating real-time notifications for " + nearbyPlaces.size() + " places");
+        
+        // Group places by category in one pass and send notifications
+        Map<String, List<Place>> placesByCategory = new HashMap<>();
+        for (Place place : nearbyPlaces) {
+            List<Place> categoryPlaces = placesByCategory.get(place.getCategory());
+            if (categoryPlaces == null) {
+                categoryPlaces = new ArrayList<>();
+                placesByCategory.put(place.getCategory(), categoryPlaces);
+            }
+            categoryPlaces.add(place);
+        }
+        
+        for (String category : PLACE_CATEGORIES) {
+            List<Place> categoryPlaces = placesByCategory.get(category);
+            if (categoryPlaces != null) {
                 sendCategoryNotification(category, categoryPlaces, userLocation);
             }
         }
@@ -103,7 +157,7 @@ public class RealTimePlaceDetector {
         }
         
         // Calculate distance to best place
-        double distance = calculateDistance(
+        double distance = GeoMath.distanceKm(
             userLocation.getLatitude(), userLocation.getLongitude(),
             bestPlace.getLatitude(), bestPlace.getLongitude()
         );
@@ -204,19 +258,6 @@ public class RealTimePlaceDetector {
         }
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Radius of the earth in km
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c; // Distance in km
-    }
-
     private List<Place> getCuratedVashiPlaces() {
         try {
             List<com.example.trave_app.database.entity.Place> all = com.example.trave_app.data.VashiPlacesProvider.getAllPlaces(context);
@@ -0,0 +1,98 @@
+package com.example.trave_app.notifications.engine;
+
+import com.example.trave_app.geo.GeoMath;
+import com.google.android.gms.location.Priority;
+
+import java.util.List;
+
+/**
+ * Replays a recorded trace through a LocationSamplingPolicy the way RealTimeLocationService
+ * drives it: a fix every policy interval, detection when the fix is minDistance away from the
+ * last detection. Pure Java, so policies can be compared in a plain JVM unit test.
+ */
+public class SamplingSimulator {
+
+    public interface NearbyPlaceCounter {
+        int countNear(double latitude, double longitude);
+    }
+
+    public static class TracePoint {
+        public final long timeMs;
+        public final double latitude;
+        public final double longitude;
+
+        public TracePoint(long timeMs, double latitude, double longitude) {
+            this.timeMs = timeMs;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    public static class Report {
+        public final int fixes;
+        public final int detectorInvocations;
+        public final int requestChanges;
+        public final int highAccuracyFixes;
+
+        Report(int fixes, int detectorInvocations, int requestChanges, int highAccuracyFixes) {
+            this.fixes = fixes;
+            this.detectorInvocations = detectorInvocations;
+            this.requestChanges = requestChanges;
+            this.highAccuracyFixes = highAccuracyFixes;
+        }
+
+        @Override
+        public String toString() {
+            return "fixes=" + fixes + ", detections=" + detectorInvocations
+                    + ", requestChanges=" + requestChanges + ", highAccuracyFixes=" + highAccuracyFixes;
+        }
+    }
+
+    private final NearbyPlaceCounter counter;
+
+    public SamplingSimulator(NearbyPlaceCounter counter) {
+        this.counter = counter;
+    }
+
+    /**
+     * The trace must be ordered by time; positions between points are interpolated linearly.
+     */
+    public Report run(LocationSamplingPolicy policy, List<TracePoint> trace) {
+        if (trace.isEmpty()) return new Report(0, 0, 0, 0);
+        long end = trace.get(trace.size() - 1).timeMs;
+        SamplingSpec spec = policy.initialSpec();
+        int fixes = 0;
+        int detections = 0;
+        int requestChanges = 0;
+        int highAccuracyFixes = 0;
+        double lastLat = Double.NaN;
+        double lastLon = Double.NaN;
+        int segment = 0;
+
+        for (long t = trace.get(0).timeMs; t <= end; t += spec.intervalMs) {
+            while (segment < trace.size() - 2 && trace.get(segment + 1).timeMs <= t) segment++;
+            TracePoint a = trace.get(segment);
+            TracePoint b = trace.get(Math.min(segment + 1, trace.size() - 1));
+            double f = b.timeMs > a.timeMs ? (double) (t - a.timeMs) / (b.timeMs - a.timeMs) : 0;
+            f = Math.max(0, Math.min(1, f));
+            double lat = a.latitude + (b.latitude - a.latitude) * f;
+            double lon = a.longitude + (b.longitude - a.longitude) * f;
+
+            fixes++;
+            if (spec.priority == Priority.PRIORITY_HIGH_ACCURACY) {
+                highAccuracyFixes++;
+            }
+            SamplingSpec next = policy.onFix(lat, lon, t, Float.NaN);
+            if (Double.isNaN(lastLat)
+                    || GeoMath.distanceKm(lastLat, lastLon, lat, lon) * 1000 >= next.minDistanceMeters) {
+                detections++;
+                lastLat = lat;
+                lastLon = lon;
+                policy.onNearbyPlaceCount(counter.countNear(lat, lon));
+            }
+            if (!next.sameRequestAs(spec)) requestChanges++;
+            spec = next;
+        }
+        return new Report(fixes, detections, requestChanges, highAccuracyFixes);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.trave_app.notifications.engine;
+
+/**
+ * How often and how precisely to sample location, and how far the user must move
+ * before nearby-place detection runs again.
+ */
+public final class SamplingSpec {
+    public final long intervalMs;
+    public final long fastestIntervalMs;
+    public final int priority; // com.google.android.gms.location.Priority value
+    public final float minDistanceMeters;
+
+    public SamplingSpec(long intervalMs, long fastestIntervalMs, int priority, float minDistanceMeters) {
+        this.intervalMs = intervalMs;
+        this.fastestIntervalMs = fastestIntervalMs;
+        this.priority = priority;
+        this.minDistanceMeters = minDistanceMeters;
+    }
+
+    // Whether switching from this spec to the other needs a new location request
+    public boolean sameRequestAs(SamplingSpec other) {
+        return other != null
+                && intervalMs == other.intervalMs
+                && fastestIntervalMs == other.fastestIntervalMs
+                && priority == other.priority;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SamplingSpec)) return false;
+        SamplingSpec other = (SamplingSpec) o;
+        return sameRequestAs(other) && Float.compare(minDistanceMeters, other.minDistanceMeters) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Long.hashCode(intervalMs);
+        result = 31 * result + Long.hashCode(fastestIntervalMs);
+        result = 31 * result + priority;
+        result = 31 * result + Float.hashCode(minDistanceMeters);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingSpec{interval=" + intervalMs + "ms, fastest=" + fastestIntervalMs
+                + "ms, priority=" + priority + ", minDistance=" + minDistanceMeters + "m}";
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.trave_app.notifications.model;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+// Last known enter/exit state of one place around the user, kept across service restarts
+@Entity(tableName = "geofence_states")
+public class GeofenceState {
+    @PrimaryKey
+    @NonNull
+    private String placeId;
+
+    private boolean inside;
+    private long lastNotifiedTime;
+
+    public GeofenceState() {
+        this.placeId = "";
+    }
+
+    @Ignore
+    public GeofenceState(@NonNull String placeId, boolean inside, long lastNotifiedTime) {
+        this.placeId = placeId;
+        this.inside = inside;
+        this.lastNotifiedTime = lastNotifiedTime;
+    }
+
+    @NonNull
+    public String getPlaceId() { return placeId; }
+    public void setPlaceId(@NonNull String placeId) { this.placeId = placeId; }
+
+    public boolean isInside() { return inside; }
+    public void setInside(boolean inside) { this.inside = inside; }
+
+    public long getLastNotifiedTime() { return lastNotifiedTime; }
+    public void setLastNotifiedTime(long lastNotifiedTime) { this.lastNotifiedTime = lastNotifiedTime; }
+}
@@ -2,7 +2,10 @@ package com.example.trave_app.notifications.service;
 
 import android.content.Context;
 import android.location.Location;
+import com.example.trave_app.data.FavoriteIndex;
+import com.example.trave_app.data.PlaceCatalog;
 import com.example.trave_app.database.TravelDatabase;
+import com.example.trave_app.database.dao.SearchHistoryDao;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.SearchHistory;
@@ -22,6 +25,8 @@ public class AINotificationService {
     private static AINotificationService instance;
     private final Context context;
     private final TravelDatabase database;
+    private final PlaceCatalog placeCatalog;
+    private final FavoriteIndex favoriteIndex;
     private final AINotificationEngine notificationEngine;
     private final NotificationScheduler scheduler;
     private final ExecutorService executorService;
@@ -29,6 +34,8 @@ public class AINotificationService {
     private AINotificationService(Context context) {
         this.context = context.getApplicationContext();
         this.database = TravelDatabase.getDatabase(context);
+        this.placeCatalog = PlaceCatalog.getInstance(context);
+        this.favoriteIndex = FavoriteIndex.getInstance(context);
         this.notificationEngine = AINotificationEngine.getInstance(context);
         this.scheduler = NotificationScheduler.getInstance(context);
         this.executorService = Executors.newFixedThreadPool(2);
@@ -69,8 +76,11 @@ public class AINotificationService {
 
                 // Pattern-based alerts
                 if (preferences.isPatternAlertsEnabled()) {
+                    SearchHistoryDao searchHistoryDao = database.searchHistoryDao();
                     List<AINotification> patternAlerts = notificationEngine.generatePatternBasedAlerts(
-                            searchHistory, favorites, userPreference);
+                            searchHistoryDao.getCategoryHourFrequenciesSync(),
+                            searchHistoryDao.getCategoryDayFrequenciesSync(),
+                            favorites, userPreference);
                     allNotifications.addAll(patternAlerts);
                 }
 
@@ -113,10 +123,8 @@ public class AINotificationService {
                 }
 
                 List<Place> nearbyPlaces = getNearbyPlacesSync(currentLocation, preferences.getLocationRadiusKm());
-                List<Favorite> favorites = getAllFavoritesSync();
-
                 List<AINotification> locationNotifications = notificationEngine.generateLocationAwareNotifications(
-                        currentLocation, nearbyPlaces, favorites);
+                        currentLocation, nearbyPlaces, favoriteIndex);
 
                 if (!locationNotifications.isEmpty()) {
                     database.aiNotificationDao().insertAll(locationNotifications);
@@ -225,7 +233,7 @@ public class AINotificationService {
 
     private List<Place> getNearbyPlacesSync(Location location, double radiusKm) {
         try {
-            return new ArrayList<>(); // Placeholder
+            return placeCatalog.getPlacesWithinRadius(location.getLatitude(), location.getLongitude(), radiusKm);
         } catch (Exception e) {
             return new ArrayList<>();
         }
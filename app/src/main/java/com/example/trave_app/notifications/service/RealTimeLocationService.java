@@ -17,30 +17,49 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.app.NotificationCompat;
 
 import com.example.trave_app.R;
+import com.example.trave_app.data.PlaceCatalog;
 import com.example.trave_app.database.TravelDatabase;
 import com.example.trave_app.database.entity.Place;
+import com.example.trave_app.geo.GeoMath;
+import com.example.trave_app.geo.GeoPoint;
+import com.example.trave_app.ml.engine.VisitDetector;
+import com.example.trave_app.ml.engine.VisitRecorder;
+import com.example.trave_app.ml.service.IntelligentSearchService;
+import com.example.trave_app.notifications.engine.AdaptiveSamplingPolicy;
+import com.example.trave_app.notifications.engine.ConflatingPipeline;
+import com.example.trave_app.notifications.engine.GeofenceTracker;
+import com.example.trave_app.notifications.engine.LocationSamplingPolicy;
 import com.example.trave_app.notifications.engine.RealTimePlaceDetector;
+import com.example.trave_app.notifications.engine.SamplingSpec;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationCallback;
 import com.google.android.gms.location.LocationRequest;
 import com.google.android.gms.location.LocationResult;
 import com.google.android.gms.location.LocationServices;
-import com.google.android.gms.location.Priority;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class RealTimeLocationService extends Service {
     private static final String TAG = "RealTimeLocationService";
     private static final String CHANNEL_ID = "location_tracking_channel";
     private static final int NOTIFICATION_ID = 1001;
-    private static final long UPDATE_INTERVAL = 30000; // 30 seconds
-    private static final long FASTEST_INTERVAL = 15000; // 15 seconds
-    private static final float MIN_DISTANCE = 50.0f; // 50 meters
+    private static final double DENSITY_RADIUS_KM = 1.0;
+    // Longer catch-up bursts are thinned; next to the user's locationRadiusKm, dense paths are redundant
+    private static final int MAX_PATH_FIXES = 32;
+    private static final int METRICS_LOG_EVERY = 20;
 
     private FusedLocationProviderClient fusedLocationClient;
     private LocationCallback locationCallback;
     private RealTimePlaceDetector placeDetector;
+    private GeofenceTracker geofenceTracker;
+    private LocationSamplingPolicy samplingPolicy;
+    private SamplingSpec currentSpec;
     private Location lastKnownLocation;
+    private ConflatingPipeline<Location> detectionPipeline;
+    private Location lastProcessedFix; // pipeline thread only
+    private VisitDetector visitDetector;
+    private IntelligentSearchService searchService;
 
     @Override
     public void onCreate() {
@@ -49,6 +68,12 @@ public class RealTimeLocationService extends Service {
         
         fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
         placeDetector = new RealTimePlaceDetector(this);
+        geofenceTracker = new GeofenceTracker(this);
+        samplingPolicy = new AdaptiveSamplingPolicy();
+        currentSpec = samplingPolicy.initialSpec();
+        detectionPipeline = new ConflatingPipeline<>(this::detectAlongPath, MAX_PATH_FIXES);
+        visitDetector = new VisitDetector(new VisitRecorder(this));
+        searchService = IntelligentSearchService.getInstance(this);
         
         createNotificationChannel();
         setupLocationCallback();
@@ -76,6 +101,9 @@ public class RealTimeLocationService extends Service {
         super.onDestroy();
         Log.d(TAG, "RealTimeLocationService destroyed");
         stopLocationUpdates();
+        visitDetector.flush();
+        detectionPipeline.shutdown();
+        Log.d(TAG, "Detection pipeline: " + detectionPipeline.getMetrics());
     }
 
     private void createNotificationChannel() {
@@ -108,9 +136,10 @@ public class RealTimeLocationService extends Service {
             public void onLocationResult(LocationResult locationResult) {
                 if (locationResult == null) return;
                 
-                Location location = locationResult.getLastLocation();
-                if (location != null) {
-                    handleLocationUpdate(location);
+                // With batching several fixes arrive at once; all of them describe the path taken
+                List<Location> locations = locationResult.getLocations();
+                if (!locations.isEmpty()) {
+                    handleLocationBatch(locations);
                 }
             }
         };
@@ -123,14 +152,15 @@ public class RealTimeLocationService extends Service {
             return;
         }
 
-        LocationRequest locationRequest = new LocationRequest.Builder(Priority.PRIORITY_HIGH_ACCURACY, UPDATE_INTERVAL)
+        // Requesting again with the same callback replaces the previous request in place
+        LocationRequest locationRequest = new LocationRequest.Builder(currentSpec.priority, currentSpec.intervalMs)
             .setWaitForAccurateLocation(false)
-            .setMinUpdateIntervalMillis(FASTEST_INTERVAL)
-            .setMaxUpdateDelayMillis(UPDATE_INTERVAL * 2)
+            .setMinUpdateIntervalMillis(currentSpec.fastestIntervalMs)
+            .setMaxUpdateDelayMillis(currentSpec.intervalMs * 2)
             .build();
 
         fusedLocationClient.requestLocationUpdates(locationRequest, locationCallback, Looper.getMainLooper());
-        Log.d(TAG, "Location updates started");
+        Log.d(TAG, "Location updates started: " + currentSpec);
     }
 
     private void stopLocationUpdates() {
@@ -140,35 +170,76 @@ public class RealTimeLocationService extends Service {
         }
     }
 
-    private void handleLocationUpdate(Location newLocation) {
-        Log.d(TAG, "New location: " + newLocation.getLatitude() + ", " + newLocation.getLongitude());
-        
-        // Check if we've moved enough to warrant checking for new places
-        if (lastKnownLocation != null) {
-            float distance = lastKnownLocation.distanceTo(newLocation);
-            if (distance < MIN_DISTANCE) {
-                Log.d(TAG, "Location change too small, skipping place detection");
-                return;
+    private void handleLocationBatch(List<Location> locations) {
+        List<Location> accepted = new ArrayList<>();
+        SamplingSpec spec = currentSpec;
+        for (Location newLocation : locations) {
+            Log.d(TAG, "New location: " + newLocation.getLatitude() + ", " + newLocation.getLongitude());
+            spec = samplingPolicy.onFix(newLocation.getLatitude(), newLocation.getLongitude(),
+                newLocation.getTime(), newLocation.hasSpeed() ? newLocation.getSpeed() : Float.NaN);
+            // Dwell detection needs every fix, including the ones filtered out below
+            visitDetector.onFix(newLocation.getLatitude(), newLocation.getLongitude(), newLocation.getTime());
+            
+            // Check if we've moved enough to warrant checking for new places
+            if (lastKnownLocation != null) {
+                double distance = GeoMath.distanceKm(lastKnownLocation.getLatitude(), lastKnownLocation.getLongitude(),
+                    newLocation.getLatitude(), newLocation.getLongitude()) * 1000;
+                if (distance < spec.minDistanceMeters) continue;
             }
+            lastKnownLocation = newLocation;
+            accepted.add(newLocation);
         }
         
-        lastKnownLocation = newLocation;
+        // Searches such as "cafes near me" and "within 2 km" are around the latest fix
+        Location latest = locations.get(locations.size() - 1);
+        searchService.setUserLocation(new GeoPoint(latest.getLatitude(), latest.getLongitude()));
+
+        boolean requestChanged = !spec.sameRequestAs(currentSpec);
+        currentSpec = spec;
+        if (requestChanged) {
+            startLocationUpdates();
+        }
         
-        // Detect nearby places in background thread
-        new Thread(() -> {
-            try {
-                List<Place> nearbyPlaces = placeDetector.detectNearbyPlaces(
-                    newLocation.getLatitude(), 
-                    newLocation.getLongitude()
-                );
-                
-                if (!nearbyPlaces.isEmpty()) {
-                    Log.d(TAG, "Found " + nearbyPlaces.size() + " nearby places");
-                    placeDetector.generateRealTimeNotifications(nearbyPlaces, newLocation);
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Error detecting nearby places", e);
-            }
-        }).start();
+        if (accepted.size() < locations.size()) {
+            Log.d(TAG, "Location change too small for " + (locations.size() - accepted.size()) + " fixes");
+            detectionPipeline.recordDropped(locations.size() - accepted.size());
+        }
+        // One serial detection pass per burst; bursts arriving mid-pass are merged into the next one
+        detectionPipeline.submit(accepted);
+    }
+
+    // Runs on the pipeline thread
+    private void detectAlongPath(List<Location> fixes) {
+        // Start the path where the previous pass ended so the stretch in between is covered too
+        List<GeoPoint> path = new ArrayList<>(fixes.size() + 1);
+        if (lastProcessedFix != null) {
+            path.add(new GeoPoint(lastProcessedFix.getLatitude(), lastProcessedFix.getLongitude()));
+        }
+        for (Location fix : fixes) {
+            path.add(new GeoPoint(fix.getLatitude(), fix.getLongitude()));
+        }
+        Location latest = fixes.get(fixes.size() - 1);
+        lastProcessedFix = latest;
+        
+        // Picked up every pass so a changed preference applies without restarting the service
+        placeDetector.setSearchRadiusKm(TravelDatabase.getDatabase(this)
+            .notificationPreferenceDao().getLocationRadiusKmSync());
+        List<Place> nearbyPlaces = placeDetector.detectAlongPath(path);
+        samplingPolicy.onNearbyPlaceCount(PlaceCatalog.getInstance(this)
+            .getPlacesWithinRadius(latest.getLatitude(), latest.getLongitude(), DENSITY_RADIUS_KM).size());
+        
+        // Only places entered since the last pass (and past their cooldown) notify
+        GeofenceTracker.Transition transition = geofenceTracker.update(nearbyPlaces, System.currentTimeMillis());
+        Log.d(TAG, "Found " + nearbyPlaces.size() + " places along " + fixes.size() + " fixes, "
+            + transition.getEntered().size() + " entered, " + transition.getExitedIds().size() + " exited");
+        
+        if (!transition.getNotifiable().isEmpty()) {
+            placeDetector.generateRealTimeNotifications(transition.getNotifiable(), latest);
+        }
+        
+        ConflatingPipeline.Metrics metrics = detectionPipeline.getMetrics();
+        if (metrics.processedBatches % METRICS_LOG_EVERY == 0) {
+            Log.d(TAG, "Detection pipeline: " + metrics);
+        }
     }
 }
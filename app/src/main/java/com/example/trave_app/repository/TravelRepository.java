@@ -2,7 +2,13 @@ package com.example.trave_app.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
+import com.example.trave_app.data.FavoriteIndex;
+import com.example.trave_app.data.PlaceCatalog;
+import com.example.trave_app.database.SearchIndexSchema;
 import com.example.trave_app.database.TravelDatabase;
 import com.example.trave_app.database.dao.FavoriteDao;
 import com.example.trave_app.database.dao.PlaceDao;
@@ -10,8 +16,13 @@ import com.example.trave_app.database.dao.SearchHistoryDao;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.SearchHistory;
+import com.example.trave_app.database.search.Bm25;
+import com.example.trave_app.database.search.FavoriteSearchHit;
+import com.example.trave_app.database.search.PlaceSearchHit;
 import com.example.trave_app.firebase.sync.DataSyncService;
+import com.example.trave_app.ml.service.IntelligentSearchService;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class TravelRepository {
@@ -22,6 +33,9 @@ public class TravelRepository {
     private LiveData<List<SearchHistory>> allSearchHistory;
     private LiveData<List<Favorite>> allFavorites;
     private DataSyncService dataSyncService;
+    private PlaceCatalog placeCatalog;
+    private FavoriteIndex favoriteIndex;
+    private IntelligentSearchService searchService;
 
     public TravelRepository(Application application) {
         TravelDatabase db = TravelDatabase.getDatabase(application);
@@ -32,6 +46,9 @@ public class TravelRepository {
         allSearchHistory = searchHistoryDao.getAllSearchHistory();
         allFavorites = favoriteDao.getAllFavorites();
         dataSyncService = DataSyncService.getInstance(application);
+        placeCatalog = PlaceCatalog.getInstance(application);
+        favoriteIndex = FavoriteIndex.getInstance(application);
+        searchService = IntelligentSearchService.getInstance(application);
     }
 
     // Place operations
@@ -49,7 +66,8 @@ public class TravelRepository {
 
     public void insert(Place place) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
-            placeDao.insert(place);
+            place.setId((int) placeDao.insert(place));
+            placeCatalog.onPlaceUpserted(place);
             // Sync to cloud in background (non-blocking)
             dataSyncService.syncSinglePlace(place).exceptionally(throwable -> {
                 // Log error but don't fail the local operation
@@ -60,7 +78,11 @@ public class TravelRepository {
 
     public void insertAllPlaces(List<Place> places) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
-            placeDao.insertAll(places);
+            List<Long> ids = placeDao.insertAll(places);
+            for (int i = 0; i < places.size(); i++) {
+                places.get(i).setId(ids.get(i).intValue());
+            }
+            placeCatalog.onPlacesUpserted(places);
             // Sync all places to cloud in background
             for (Place place : places) {
                 dataSyncService.syncSinglePlace(place).exceptionally(throwable -> {
@@ -73,6 +95,7 @@ public class TravelRepository {
     public void updatePlace(Place place) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             placeDao.update(place);
+            placeCatalog.onPlaceUpserted(place);
             // Sync updated place to cloud
             dataSyncService.syncSinglePlace(place).exceptionally(throwable -> {
                 return null;
@@ -83,17 +106,35 @@ public class TravelRepository {
     public void deletePlace(Place place) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             placeDao.delete(place);
+            placeCatalog.onPlaceDeleted(place);
         });
     }
 
     public void updateFavoriteStatus(String placeId, boolean isFavorite) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             placeDao.updateFavoriteStatus(placeId, isFavorite);
+            placeCatalog.onFavoriteStatusChanged(placeId, isFavorite);
         });
     }
 
+    // Prefix full-text search over name, address and category, best match first
     public LiveData<List<Place>> searchPlacesByName(String searchQuery) {
-        return placeDao.searchPlacesByName(searchQuery);
+        SupportSQLiteQuery query = SearchIndexSchema.placeSearchQuery(searchQuery);
+        if (query == null) return allPlaces;
+        return Transformations.map(placeDao.searchPlaces(query), hits -> {
+            List<Place> places = new ArrayList<>();
+            for (PlaceSearchHit hit : Bm25.rank(hits, Bm25.PLACE_WEIGHTS)) {
+                places.add(hit.getPlace());
+            }
+            return places;
+        });
+    }
+
+    // Same search with BM25 scores and match offsets for highlighting
+    public LiveData<List<PlaceSearchHit>> searchPlacesRanked(String searchQuery) {
+        SupportSQLiteQuery query = SearchIndexSchema.placeSearchQuery(searchQuery);
+        if (query == null) return new MutableLiveData<>(new ArrayList<>());
+        return Transformations.map(placeDao.searchPlaces(query), hits -> Bm25.rank(hits, Bm25.PLACE_WEIGHTS));
     }
 
     // Search History operations
@@ -112,6 +153,7 @@ public class TravelRepository {
     public void insertSearchHistory(SearchHistory searchHistory) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             searchHistoryDao.insert(searchHistory);
+            searchService.onSearchHistoryChanged();
             // Sync to cloud in background
             dataSyncService.syncSingleSearchHistory(searchHistory).exceptionally(throwable -> {
                 return null;
@@ -122,12 +164,14 @@ public class TravelRepository {
     public void deleteSearchHistory(SearchHistory searchHistory) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             searchHistoryDao.delete(searchHistory);
+            searchService.onSearchHistoryChanged();
         });
     }
 
     public void deleteOldSearchHistory(long timestamp) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             searchHistoryDao.deleteOldSearchHistory(timestamp);
+            searchService.onSearchHistoryChanged();
         });
     }
 
@@ -143,6 +187,7 @@ public class TravelRepository {
     public void insertFavorite(Favorite favorite) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             favoriteDao.insert(favorite);
+            favoriteIndex.onFavoriteUpserted(favorite);
             // Sync to cloud in background
             dataSyncService.syncSingleFavorite(favorite).exceptionally(throwable -> {
                 return null;
@@ -153,6 +198,7 @@ public class TravelRepository {
     public void updateFavorite(Favorite favorite) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             favoriteDao.update(favorite);
+            favoriteIndex.onFavoriteUpserted(favorite);
             // Sync updated favorite to cloud
             dataSyncService.syncSingleFavorite(favorite).exceptionally(throwable -> {
                 return null;
@@ -163,6 +209,7 @@ public class TravelRepository {
     public void deleteFavorite(Favorite favorite) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             favoriteDao.delete(favorite);
+            favoriteIndex.onFavoriteDeleted(favorite.getPlaceId());
             // Delete from cloud as well
             dataSyncService.deleteFavoriteFromCloud(favorite.getPlaceId()).exceptionally(throwable -> {
                 return null;
@@ -173,6 +220,7 @@ public class TravelRepository {
     public void deleteFavoriteByPlaceId(String placeId) {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             favoriteDao.deleteByPlaceId(placeId);
+            favoriteIndex.onFavoriteDeleted(placeId);
             // Delete from cloud as well
             dataSyncService.deleteFavoriteFromCloud(placeId).exceptionally(throwable -> {
                 return null;
@@ -180,8 +228,23 @@ public class TravelRepository {
         });
     }
 
+    // Prefix full-text search over name, notes and address, best match first
     public LiveData<List<Favorite>> searchFavoritesByName(String searchQuery) {
-        return favoriteDao.searchFavoritesByName(searchQuery);
+        SupportSQLiteQuery query = SearchIndexSchema.favoriteSearchQuery(searchQuery);
+        if (query == null) return allFavorites;
+        return Transformations.map(favoriteDao.searchFavorites(query), hits -> {
+            List<Favorite> favorites = new ArrayList<>();
+            for (FavoriteSearchHit hit : Bm25.rank(hits, Bm25.FAVORITE_WEIGHTS)) {
+                favorites.add(hit.getFavorite());
+            }
+            return favorites;
+        });
+    }
+
+    public LiveData<List<FavoriteSearchHit>> searchFavoritesRanked(String searchQuery) {
+        SupportSQLiteQuery query = SearchIndexSchema.favoriteSearchQuery(searchQuery);
+        if (query == null) return new MutableLiveData<>(new ArrayList<>());
+        return Transformations.map(favoriteDao.searchFavorites(query), hits -> Bm25.rank(hits, Bm25.FAVORITE_WEIGHTS));
     }
 
     // Cloud synchronization methods
@@ -199,8 +262,11 @@ public class TravelRepository {
     public void clearAllData() {
         TravelDatabase.databaseWriteExecutor.execute(() -> {
             placeDao.deleteAllPlaces();
+            placeCatalog.onAllPlacesDeleted();
             searchHistoryDao.deleteAllSearchHistory();
+            searchService.onSearchHistoryChanged();
             favoriteDao.deleteAllFavorites();
+            favoriteIndex.onAllFavoritesDeleted();
         });
     }
 }
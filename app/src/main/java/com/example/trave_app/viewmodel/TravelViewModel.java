@@ -8,6 +8,8 @@ import androidx.lifecycle.LiveData;
 import com.example.trave_app.database.entity.Favorite;
 import com.example.trave_app.database.entity.Place;
 import com.example.trave_app.database.entity.SearchHistory;
+import com.example.trave_app.database.search.FavoriteSearchHit;
+import com.example.trave_app.database.search.PlaceSearchHit;
 import com.example.trave_app.repository.TravelRepository;
 
 import java.util.List;
@@ -63,6 +65,10 @@ public class TravelViewModel extends AndroidViewModel {
         return repository.searchPlacesByName(searchQuery);
     }
 
+    public LiveData<List<PlaceSearchHit>> searchPlacesRanked(String searchQuery) {
+        return repository.searchPlacesRanked(searchQuery);
+    }
+
     // Search History operations
     public LiveData<List<SearchHistory>> getAllSearchHistory() {
         return allSearchHistory;
@@ -117,6 +123,10 @@ public class TravelViewModel extends AndroidViewModel {
         return repository.searchFavoritesByName(searchQuery);
     }
 
+    public LiveData<List<FavoriteSearchHit>> searchFavoritesRanked(String searchQuery) {
+        return repository.searchFavoritesRanked(searchQuery);
+    }
+
     // Utility methods
     public void clearAllData() {
         repository.clearAllData();
@@ -0,0 +1,136 @@
+package com.example.trave_app.data.pack;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opening a PlacePack and reading one category's rows, against parsing the same list from JSON
+ * with Gson as PlaceDirectoryActivity used to. Run main() from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacePackBenchmark {
+    private static final String[] CATEGORIES = {"beach", "hotel", "restaurant", "park"};
+    private static final Type LIST_TYPE = new TypeToken<List<JsonPlace>>(){}.getType();
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private byte[] json;
+    private File packFile;
+
+    // Same fields as PlaceDirectoryActivity.PlaceItem
+    static class JsonPlace {
+        @SerializedName(value = "place_id", alternate = {"placeId"})
+        String placeId;
+        String name;
+        String category;
+        String state;
+        double latitude;
+        double longitude;
+        String address;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            for (int i = 0; i < size; i++) {
+                writer.beginObject()
+                        .name("place_id").value("india_" + i)
+                        .name("name").value("Place " + i)
+                        .name("category").value(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                        .name("state").value("State " + random.nextInt(30))
+                        .name("latitude").value(8 + random.nextDouble() * 25)
+                        .name("longitude").value(68 + random.nextDouble() * 28)
+                        .name("address").value(i + " Main Road, District " + random.nextInt(700))
+                        .endObject();
+            }
+            writer.endArray();
+        }
+        json = bytes.toByteArray();
+
+        PlacePackWriter packWriter = new PlacePackWriter();
+        packWriter.addJson(new ByteArrayInputStream(json));
+        packFile = File.createTempFile("places", ".pack");
+        try (OutputStream out = new FileOutputStream(packFile)) {
+            packWriter.write(out, PlacePackWriter.sourceStamp(new ByteArrayInputStream(json)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        packFile.delete();
+    }
+
+    @Benchmark
+    public List<JsonPlace> parseJson() throws IOException {
+        List<JsonPlace> hotels = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+            List<JsonPlace> all = new Gson().fromJson(reader, LIST_TYPE);
+            for (JsonPlace place : all) {
+                if ("hotel".equals(place.category)) hotels.add(place);
+            }
+        }
+        return hotels;
+    }
+
+    @Benchmark
+    public int openPack() throws IOException {
+        return PlacePack.open(packFile).size();
+    }
+
+    @Benchmark
+    public List<String> readPackCategory() throws IOException {
+        PlacePack pack = PlacePack.open(packFile);
+        List<String> names = new ArrayList<>();
+        for (int row : pack.rowsInCategory("hotel")) {
+            names.add(pack.name(row));
+        }
+        return names;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PlacePackBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.trave_app.geo;
+
+import com.example.trave_app.database.entity.Place;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Radius queries through CellIndex's CellCoverer covering, against the uniform 0.01 degree grid
+ * it replaced, which probed every cell overlapping the circle's bounding box. Dense places fill
+ * a 0.3 degree square around Mumbai; sparse ones are spread over India. Run main() from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellCovererBenchmark {
+    private static final int PLACES = 100_000;
+    private static final int QUERIES = 256;
+
+    @Param({"0.1", "1", "25", "50"})
+    public double radiusKm;
+
+    @Param({"dense", "sparse"})
+    public String spread;
+
+    private CellIndex cellIndex;
+    private UniformGrid grid;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double minLat = 19.0, minLon = 72.8, span = 0.3;
+        if (spread.equals("sparse")) {
+            minLat = 8.0;
+            minLon = 68.0;
+            span = 25.0;
+        }
+        cellIndex = new CellIndex();
+        grid = new UniformGrid();
+        for (int i = 0; i < PLACES; i++) {
+            Place place = new Place("p" + i, "p" + i, "restaurants", minLat + random.nextDouble() * span,
+                    minLon + random.nextDouble() * span, "", 4f, false, 0);
+            cellIndex.put(place.getPlaceId(), place);
+            grid.put(place);
+        }
+        queries = new double[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = new double[]{minLat + random.nextDouble() * span, minLon + random.nextDouble() * span};
+        }
+        cellIndex.queryRadius(queries[0][0], queries[0][1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Place> cellIndex() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        return cellIndex.queryRadius(query[0], query[1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Place> uniformGrid() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        return grid.queryRadius(query[0], query[1], radiusKm);
+    }
+
+    // The query path of the removed SpatialGridIndex
+    static class UniformGrid {
+        private static final double CELL_SIZE_DEG = 0.01;
+        private final Map<Long, List<Place>> cells = new HashMap<>();
+
+        void put(Place place) {
+            long key = cellKey(cellIndex(place.getLatitude()), cellIndex(place.getLongitude()));
+            List<Place> cell = cells.get(key);
+            if (cell == null) {
+                cell = new ArrayList<>();
+                cells.put(key, cell);
+            }
+            cell.add(place);
+        }
+
+        List<Place> queryRadius(double latitude, double longitude, double radiusKm) {
+            List<Place> result = new ArrayList<>();
+            GeoMath.Circle circle = new GeoMath.Circle(latitude, longitude, radiusKm);
+            int maxLatCell = cellIndex(circle.maxLat);
+            int maxLonCell = cellIndex(circle.maxLon);
+            for (int latCell = cellIndex(circle.minLat); latCell <= maxLatCell; latCell++) {
+                for (int lonCell = cellIndex(circle.minLon); lonCell <= maxLonCell; lonCell++) {
+                    List<Place> cell = cells.get(cellKey(latCell, lonCell));
+                    if (cell == null) continue;
+                    for (Place place : cell) {
+                        if (circle.contains(place.getLatitude(), place.getLongitude())) {
+                            result.add(place);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static int cellIndex(double degrees) {
+            return (int) Math.floor(degrees / CELL_SIZE_DEG);
+        }
+
+        private static long cellKey(int latCell, int lonCell) {
+            return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CellCovererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.trave_app.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class CellCovererTest {
+    private static final double[] RADII = {0.01, 0.1, 0.5, 2, 10, 50, 300};
+
+    @Test
+    public void leafIdsNestInEveryLevel() {
+        Random random = new Random(21);
+        for (int i = 0; i < 10_000; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            long leaf = CellId.leafOf(latitude, longitude);
+            for (int level = 0; level <= CellId.MAX_LEVEL; level++) {
+                long x = CellId.coordAt(level, longitude + 180.0);
+                long y = CellId.coordAt(level, latitude + 90.0);
+                assertTrue(leaf >= CellId.rangeStart(level, x, y));
+                assertTrue(leaf < CellId.rangeEnd(level, x, y));
+            }
+        }
+    }
+
+    @Test
+    public void childrenSplitTheParentRange() {
+        for (int level = 0; level < CellId.MAX_LEVEL; level++) {
+            long x = (1L << level) / 3;
+            long y = (1L << level) / 5;
+            long start = CellId.rangeStart(level, x, y);
+            long end = CellId.rangeEnd(level, x, y);
+            long covered = 0;
+            for (int child = 0; child < 4; child++) {
+                long childStart = CellId.rangeStart(level + 1, 2 * x + (child & 1), 2 * y + (child >> 1));
+                long childEnd = CellId.rangeEnd(level + 1, 2 * x + (child & 1), 2 * y + (child >> 1));
+                assertTrue(childStart >= start && childEnd <= end);
+                covered += childEnd - childStart;
+            }
+            assertEquals(end - start, covered);
+        }
+    }
+
+    @Test
+    public void coveringHoldsEveryPointInTheCircle() {
+        Random random = new Random(22);
+        for (int q = 0; q < 500; q++) {
+            double radiusKm = RADII[q % RADII.length];
+            GeoMath.Circle circle = new GeoMath.Circle(random.nextDouble() * 140 - 70,
+                    random.nextDouble() * 300 - 150, radiusKm);
+            List<CellCoverer.Cell> covering = CellCoverer.cover(circle);
+            assertTrue(covering.size() <= CellCoverer.DEFAULT_MAX_CELLS);
+            assertDisjoint(covering);
+            for (int i = 0; i < 400; i++) {
+                // Uniform over the bounding box, so points just outside the edge are tried too
+                double latitude = circle.minLat + random.nextDouble() * (circle.maxLat - circle.minLat);
+                double longitude = circle.minLon + random.nextDouble() * (circle.maxLon - circle.minLon);
+                boolean inCircle = circle.contains(latitude, longitude);
+                CellCoverer.Cell cell = find(covering, CellId.leafOf(latitude, longitude));
+                if (inCircle) {
+                    assertTrue("point in circle " + q + " not covered", cell != null);
+                }
+                if (cell != null && cell.inside) {
+                    assertTrue("point outside circle " + q + " in an inside cell",
+                            GeoMath.distanceKm(circle.center.latitude, circle.center.longitude, latitude, longitude)
+                                    <= radiusKm * (1 + 1e-9));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void smallerBudgetsStillCover() {
+        Random random = new Random(23);
+        for (int maxCells : new int[]{4, 8, 32}) {
+            for (int q = 0; q < 100; q++) {
+                GeoMath.Circle circle = new GeoMath.Circle(19 + random.nextDouble(), 73 + random.nextDouble(),
+                        RADII[q % RADII.length]);
+                List<CellCoverer.Cell> covering = CellCoverer.cover(circle, maxCells);
+                assertTrue(covering.size() <= Math.max(4, maxCells));
+                for (int i = 0; i < 100; i++) {
+                    double bearing = random.nextDouble() * 2 * Math.PI;
+                    double km = circle.radiusKm * random.nextDouble();
+                    double latitude = circle.center.latitude + Math.cos(bearing) * km / GeoMath.KM_PER_DEGREE;
+                    double longitude = circle.center.longitude
+                            + Math.sin(bearing) * km / GeoMath.KM_PER_DEGREE / circle.center.cosLat;
+                    if (circle.contains(latitude, longitude)) {
+                        assertTrue(find(covering, CellId.leafOf(latitude, longitude)) != null);
+                    }
+                }
+            }
+        }
+    }
+
+    private static CellCoverer.Cell find(List<CellCoverer.Cell> covering, long leaf) {
+        for (CellCoverer.Cell cell : covering) {
+            if (leaf >= cell.rangeStart && leaf < cell.rangeEnd) return cell;
+        }
+        return null;
+    }
+
+    private static void assertDisjoint(List<CellCoverer.Cell> covering) {
+        List<CellCoverer.Cell> sorted = new ArrayList<>(covering);
+        sorted.sort(Comparator.comparingLong(cell -> cell.rangeStart));
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(sorted.get(i - 1).rangeEnd <= sorted.get(i).rangeStart);
+        }
+    }
+}
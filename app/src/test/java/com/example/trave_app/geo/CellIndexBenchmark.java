@@ -0,0 +1,90 @@
+package com.example.trave_app.geo;
+
+import com.example.trave_app.database.entity.Place;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CellIndex.queryRadius against the scan over every place it replaced, for random 1 km queries
+ * over the Mumbai area. Run main() from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellIndexBenchmark {
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "100000", "1000000"})
+    public int places;
+
+    @Param({"1"})
+    public double radiusKm;
+
+    private List<Place> all;
+    private CellIndex index;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        all = new ArrayList<>(places);
+        index = new CellIndex();
+        for (int i = 0; i < places; i++) {
+            Place place = new Place("p" + i, "p" + i, "restaurants",
+                    19.0 + random.nextDouble() * 0.3, 72.8 + random.nextDouble() * 0.3, "", 4f, false, 0);
+            all.add(place);
+            index.put(place.getPlaceId(), place);
+        }
+        queries = new double[QUERIES][];
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = new double[]{19.0 + random.nextDouble() * 0.3, 72.8 + random.nextDouble() * 0.3};
+        }
+        // The first query sorts the index; keep that out of the measurement
+        index.queryRadius(queries[0][0], queries[0][1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Place> cellIndex() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        return index.queryRadius(query[0], query[1], radiusKm);
+    }
+
+    @Benchmark
+    public List<Place> scanAll() {
+        double[] query = queries[next++ & (QUERIES - 1)];
+        GeoMath.Circle circle = new GeoMath.Circle(query[0], query[1], radiusKm);
+        List<Place> result = new ArrayList<>();
+        for (Place place : all) {
+            if (circle.contains(place.getLatitude(), place.getLongitude())) {
+                result.add(place);
+            }
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CellIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.trave_app.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trave_app.database.entity.Place;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CellIndexTest {
+    private static final String[] CATEGORIES = {"restaurants", "hotels", "parks", "Hotels"};
+
+    @Test
+    public void radiusQueryMatchesBruteForce() {
+        Random random = new Random(7);
+        List<Place> places = randomPlaces(random, 20_000, 19.03, 73.02, 0.6);
+        CellIndex index = new CellIndex();
+        for (Place place : places) {
+            index.put(place.getPlaceId(), place);
+        }
+        double[] radii = {0.05, 0.3, 1, 2.5, 10, 50};
+        for (int q = 0; q < 200; q++) {
+            double latitude = 19.03 + (random.nextDouble() - 0.5) * 0.8;
+            double longitude = 73.02 + (random.nextDouble() - 0.5) * 0.8;
+            double radiusKm = radii[q % radii.length];
+            assertEquals("query " + q, bruteForce(places, latitude, longitude, radiusKm, null),
+                    ids(index.queryRadius(latitude, longitude, radiusKm)));
+            assertEquals("query " + q + " hotels", bruteForce(places, latitude, longitude, radiusKm, "hotels"),
+                    ids(index.queryRadius(latitude, longitude, radiusKm, "hotels")));
+        }
+    }
+
+    @Test
+    public void pointsOnCellBoundariesAreFound() {
+        // Coordinates on coarse cell edges (multiples of 360 / 2^L degrees) straddle ranges
+        Random random = new Random(8);
+        List<Place> places = new ArrayList<>();
+        double step = CellId.sizeDegrees(12);
+        for (int i = 0; i < 400; i++) {
+            double latitude = Math.floor((19.0 + random.nextDouble() * 0.1) / step) * step;
+            double longitude = Math.floor((73.0 + random.nextDouble() * 0.1) / step) * step;
+            places.add(new Place("p" + i, "p" + i, "parks", latitude, longitude, "", 4f, false, 0));
+        }
+        CellIndex index = new CellIndex();
+        for (Place place : places) {
+            index.put(place.getPlaceId(), place);
+        }
+        for (int q = 0; q < 100; q++) {
+            Place center = places.get(q);
+            double radiusKm = 0.2 + q * 0.05;
+            assertEquals(bruteForce(places, center.getLatitude(), center.getLongitude(), radiusKm, null),
+                    ids(index.queryRadius(center.getLatitude(), center.getLongitude(), radiusKm)));
+        }
+    }
+
+    @Test
+    public void putMovesAndRemoveDrops() {
+        CellIndex index = new CellIndex();
+        index.put("a", new Place("a", "a", "parks", 19.0, 73.0, "", 4f, false, 0));
+        index.put("b", new Place("b", "b", "parks", 19.001, 73.0, "", 4f, false, 0));
+        assertEquals(2, index.queryRadius(19.0, 73.0, 1).size());
+
+        index.put("a", new Place("a", "a", "parks", 20.0, 74.0, "", 4f, false, 0));
+        assertEquals(Set.of("b"), ids(index.queryRadius(19.0, 73.0, 1)));
+        assertEquals(Set.of("a"), ids(index.queryRadius(20.0, 74.0, 1)));
+        assertEquals(2, index.size());
+
+        index.remove("b");
+        assertTrue(index.queryRadius(19.0, 73.0, 1).isEmpty());
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.queryRadius(20.0, 74.0, 1).isEmpty());
+    }
+
+    private static List<Place> randomPlaces(Random random, int count, double latitude, double longitude, double spread) {
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            places.add(new Place("p" + i, "Place " + i, CATEGORIES[i % CATEGORIES.length],
+                    latitude + (random.nextDouble() - 0.5) * spread,
+                    longitude + (random.nextDouble() - 0.5) * spread, "", 4f, false, 0));
+        }
+        return places;
+    }
+
+    private static Set<String> bruteForce(List<Place> places, double latitude, double longitude,
+                                          double radiusKm, String category) {
+        Set<String> ids = new HashSet<>();
+        for (Place place : places) {
+            if (category != null && !category.equalsIgnoreCase(place.getCategory())) continue;
+            if (GeoMath.distanceKm(latitude, longitude, place.getLatitude(), place.getLongitude()) <= radiusKm) {
+                ids.add(place.getPlaceId());
+            }
+        }
+        return ids;
+    }
+
+    private static Set<String> ids(List<Place> places) {
+        Set<String> ids = new HashSet<>();
+        for (Place place : places) {
+            assertTrue("returned twice: " + place.getPlaceId(), ids.add(place.getPlaceId()));
+        }
+        return ids;
+    }
+}
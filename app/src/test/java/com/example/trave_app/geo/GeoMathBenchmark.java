@@ -0,0 +1,90 @@
+package com.example.trave_app.geo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeoMath.Circle.contains against a haversine test on every point, over places spread 0.5
+ * degrees around Mumbai. Run main() from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoMathBenchmark {
+    private static final double LATITUDE = 19.07;
+    private static final double LONGITUDE = 72.88;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"1", "5", "25"})
+    public double radiusKm;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private GeoPoint[] points;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[size];
+        longitudes = new double[size];
+        points = new GeoPoint[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = LATITUDE + (random.nextDouble() - 0.5);
+            longitudes[i] = LONGITUDE + (random.nextDouble() - 0.5);
+            points[i] = new GeoPoint(latitudes[i], longitudes[i]);
+        }
+    }
+
+    @Benchmark
+    public int circleContains() {
+        GeoMath.Circle circle = new GeoMath.Circle(LATITUDE, LONGITUDE, radiusKm);
+        int hits = 0;
+        for (GeoPoint point : points) {
+            if (circle.contains(point)) hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int circleContainsCoordinates() {
+        GeoMath.Circle circle = new GeoMath.Circle(LATITUDE, LONGITUDE, radiusKm);
+        int hits = 0;
+        for (int i = 0; i < size; i++) {
+            if (circle.contains(latitudes[i], longitudes[i])) hits++;
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int haversine() {
+        int hits = 0;
+        for (int i = 0; i < size; i++) {
+            if (GeoMath.distanceKm(LATITUDE, LONGITUDE, latitudes[i], longitudes[i]) <= radiusKm) hits++;
+        }
+        return hits;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GeoMathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.trave_app.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class GeoMathTest {
+
+    @Test
+    public void haversineKnownDistances() {
+        assertEquals(GeoMath.KM_PER_DEGREE, GeoMath.distanceKm(10, 20, 11, 20), 1e-9);
+        assertEquals(GeoMath.KM_PER_DEGREE, GeoMath.distanceKm(0, 20, 0, 21), 1e-9);
+        assertEquals(Math.PI * GeoMath.EARTH_RADIUS_KM, GeoMath.distanceKm(0, 0, 0, 180), 1e-9);
+        assertEquals(0, GeoMath.distanceKm(19.07, 72.88, 19.07, 72.88), 0);
+        GeoPoint a = new GeoPoint(19.07, 72.88);
+        GeoPoint b = new GeoPoint(18.52, 73.86);
+        assertEquals(GeoMath.distanceKm(19.07, 72.88, 18.52, 73.86), GeoMath.distanceKm(a, b), 1e-9);
+    }
+
+    @Test
+    public void approximationStaysWithinDocumentedBound() {
+        // Class doc: within 0.05% of haversine up to 100 km around centers within +/-80 degrees
+        Random random = new Random(3);
+        double worst = 0;
+        for (int i = 0; i < 200_000; i++) {
+            double latitude = (random.nextDouble() * 2 - 1) * 80;
+            GeoPoint center = new GeoPoint(latitude, random.nextDouble() * 360 - 180);
+            GeoPoint point = randomPointNear(random, center, 100);
+            double exact = GeoMath.distanceKm(center, point);
+            if (exact == 0 || exact > 100) continue;
+            worst = Math.max(worst, Math.abs(GeoMath.approxDistanceKm(center, point) - exact) / exact);
+        }
+        assertTrue("worst relative error " + worst, worst < 0.0005);
+    }
+
+    @Test
+    public void circleContainsMatchesHaversine() {
+        Random random = new Random(4);
+        double[] radii = {0.05, 1, 5, 25, 99, 100, 150, 500};
+        for (int i = 0; i < 400_000; i++) {
+            double latitude = (random.nextDouble() * 2 - 1) * 89;
+            double radiusKm = radii[i % radii.length];
+            GeoMath.Circle circle = new GeoMath.Circle(latitude, random.nextDouble() * 300 - 150, radiusKm);
+            // Mostly within 10% of the edge, where the layers can disagree
+            double distance = radiusKm * (0.9 + random.nextDouble() * 0.2);
+            GeoPoint point = pointAt(circle.center, distance, random.nextDouble() * 2 * Math.PI);
+            boolean expected = GeoMath.distanceKm(circle.center, point) <= radiusKm;
+            assertEquals("center " + circle.center.latitude + ", r " + radiusKm, expected, circle.contains(point));
+            assertEquals(expected, circle.contains(point.latitude, point.longitude));
+        }
+    }
+
+    @Test
+    public void boundingBoxHoldsTheCircleAtHighLatitudes() {
+        // The old linear longitude span rejected points inside the circle here
+        GeoMath.Circle circle = new GeoMath.Circle(74.9, 10, 99);
+        for (int i = 0; i < 3600; i++) {
+            GeoPoint edge = pointAt(circle.center, 99 * (1 - 1e-9), i * Math.PI / 1800);
+            assertTrue("bearing " + i / 10.0, circle.inBoundingBox(edge.latitude, edge.longitude));
+            assertTrue(circle.contains(edge));
+        }
+        // The tangent meridian is exactly as far east as the circle reaches
+        double span = GeoMath.longitudeSpan(74.9, 99);
+        double widest = 0;
+        for (int i = 0; i < 36_000; i++) {
+            GeoPoint edge = pointAt(circle.center, 99, i * Math.PI / 18_000);
+            widest = Math.max(widest, edge.longitude - 10);
+        }
+        assertEquals(span, widest, 1e-6);
+    }
+
+    @Test
+    public void longitudeSpanCoversEverythingNearThePoles() {
+        assertEquals(180.0, GeoMath.longitudeSpan(89.9, 50), 0);
+        assertEquals(180.0, GeoMath.longitudeSpan(-90, 1), 0);
+        assertEquals(180.0, GeoMath.longitudeSpan(0, 20_000), 0);
+        assertEquals(GeoMath.latitudeSpan(10), GeoMath.longitudeSpan(0, 10), 1e-9);
+    }
+
+    @Test
+    public void distanceToSegment() {
+        GeoPoint a = new GeoPoint(19.0, 73.0);
+        GeoPoint b = new GeoPoint(19.0, 73.1);
+        // Beside the middle of the segment: the perpendicular distance
+        assertEquals(GeoMath.KM_PER_DEGREE * 0.01,
+                GeoMath.distanceToSegmentKm(new GeoPoint(19.01, 73.05), a, b), 0.01);
+        // Past an end: the distance to that end
+        GeoPoint beyond = new GeoPoint(19.0, 73.2);
+        assertEquals(GeoMath.approxDistanceKm(beyond, b), GeoMath.distanceToSegmentKm(beyond, a, b), 1e-6);
+        // Degenerate segment
+        assertEquals(GeoMath.approxDistanceKm(beyond, a), GeoMath.distanceToSegmentKm(beyond, a, a), 1e-6);
+    }
+
+    private static GeoPoint randomPointNear(Random random, GeoPoint center, double maxKm) {
+        return pointAt(center, random.nextDouble() * maxKm, random.nextDouble() * 2 * Math.PI);
+    }
+
+    // Destination point on the sphere at the given distance and bearing
+    private static GeoPoint pointAt(GeoPoint from, double km, double bearing) {
+        double angle = km / GeoMath.EARTH_RADIUS_KM;
+        double lat = Math.asin(Math.sin(from.latRad) * Math.cos(angle)
+                + Math.cos(from.latRad) * Math.sin(angle) * Math.cos(bearing));
+        double lon = from.lonRad + Math.atan2(Math.sin(bearing) * Math.sin(angle) * Math.cos(from.latRad),
+                Math.cos(angle) - Math.sin(from.latRad) * Math.sin(lat));
+        return new GeoPoint(Math.toDegrees(lat), Math.toDegrees(lon));
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.trave_app.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class GridClustererTest {
+    private static final float ZOOM = 12f;
+
+    @Test
+    public void clustersDoNotChangeWhenPanning() {
+        GridClusterer clusterer = new GridClusterer();
+        clusterer.addItems(randomItems(new Random(3), 5_000));
+        double cellSize = cellSize();
+
+        Map<Long, String> base = keysByCell(clusterer.cluster(19.0, 72.9, 19.1, 73.0, ZOOM), cellSize);
+        for (int step = 1; step <= 20; step++) {
+            double shift = step * 0.0007;
+            Map<Long, String> panned = keysByCell(
+                    clusterer.cluster(19.0 + shift, 72.9 + shift, 19.1 + shift, 73.0 + shift, ZOOM), cellSize);
+            for (Map.Entry<Long, String> entry : panned.entrySet()) {
+                String key = base.get(entry.getKey());
+                if (key != null) {
+                    assertEquals("shift " + shift, key, entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void clustersCountWholeCells() {
+        GridClusterer clusterer = new GridClusterer();
+        List<GridClusterer.Item> items = randomItems(new Random(4), 5_000);
+        clusterer.addItems(items);
+        double cellSize = cellSize();
+
+        Map<Long, Integer> expected = new HashMap<>();
+        for (GridClusterer.Item item : items) {
+            expected.merge(cellOf(item, cellSize), 1, Integer::sum);
+        }
+        List<GridClusterer.Cluster> clusters = clusterer.cluster(19.01, 72.91, 19.07, 72.97, ZOOM);
+        assertTrue(clusters.size() > 1);
+        for (GridClusterer.Cluster cluster : clusters) {
+            long cell = cellOf(cluster.items.get(0), cellSize);
+            for (GridClusterer.Item item : cluster.items) {
+                assertEquals(cell, cellOf(item, cellSize));
+            }
+            assertEquals((int) expected.get(cell), cluster.size());
+        }
+    }
+
+    @Test
+    public void maxZoomShowsOnlyVisibleItems() {
+        GridClusterer clusterer = new GridClusterer();
+        List<GridClusterer.Item> items = new ArrayList<>();
+        items.add(new GridClusterer.Item("in", "in", 19.05, 72.95));
+        items.add(new GridClusterer.Item("out", "out", 19.2, 72.95));
+        clusterer.addItems(items);
+
+        List<GridClusterer.Cluster> clusters = clusterer.cluster(19.0, 72.9, 19.1, 73.0,
+                GridClusterer.MAX_CLUSTER_ZOOM);
+        assertEquals(1, clusters.size());
+        assertEquals("p:in", clusters.get(0).key);
+    }
+
+    private static List<GridClusterer.Item> randomItems(Random random, int count) {
+        List<GridClusterer.Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new GridClusterer.Item("p" + i, "p" + i,
+                    18.95 + random.nextDouble() * 0.2, 72.85 + random.nextDouble() * 0.2));
+        }
+        return items;
+    }
+
+    private static Map<Long, String> keysByCell(List<GridClusterer.Cluster> clusters, double cellSize) {
+        Map<Long, String> keys = new HashMap<>();
+        for (GridClusterer.Cluster cluster : clusters) {
+            keys.put(cellOf(cluster.items.get(0), cellSize), cluster.key);
+        }
+        return keys;
+    }
+
+    private static double cellSize() {
+        return GridClusterer.CELL_SIZE_PX / (256.0 * Math.pow(2, (int) ZOOM));
+    }
+
+    private static long cellOf(GridClusterer.Item item, double cellSize) {
+        return ((long) (item.x / cellSize) << 32) | (long) (item.y / cellSize);
+    }
+}
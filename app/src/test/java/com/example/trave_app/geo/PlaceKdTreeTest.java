@@ -0,0 +1,122 @@
+package com.example.trave_app.geo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trave_app.database.entity.Place;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PlaceKdTreeTest {
+
+    @Test
+    public void nearestMatchesBruteForce() {
+        Random random = new Random(11);
+        List<String> ids = new ArrayList<>();
+        List<Place> places = randomPlaces(random, 5000, ids);
+        PlaceKdTree tree = new PlaceKdTree(ids, places);
+        int[] ks = {1, 5, 20, 200};
+        double[] limits = {0.5, 3, 25, Double.MAX_VALUE};
+        for (int q = 0; q < 300; q++) {
+            double latitude = 19.03 + (random.nextDouble() - 0.5) * 0.8;
+            double longitude = 73.02 + (random.nextDouble() - 0.5) * 0.8;
+            int k = ks[q % ks.length];
+            double maxKm = limits[(q / ks.length) % limits.length];
+            assertSameNeighbors(latitude, longitude, bruteForce(places, null, latitude, longitude, k, maxKm),
+                    search(tree, latitude, longitude, k, maxKm));
+        }
+    }
+
+    @Test
+    public void removedPlacesAreSkipped() {
+        Random random = new Random(12);
+        List<String> ids = new ArrayList<>();
+        List<Place> places = randomPlaces(random, 2000, ids);
+        PlaceKdTree tree = new PlaceKdTree(ids, places);
+        Set<String> removed = new HashSet<>();
+        for (int i = 0; i < 2000; i += 3) {
+            assertTrue(tree.remove(ids.get(i)));
+            removed.add(ids.get(i));
+        }
+        assertFalse(tree.remove(ids.get(0)));
+        assertFalse(tree.remove("missing"));
+        assertEquals(2000, tree.size());
+        assertEquals(2000 - removed.size(), tree.liveSize());
+        assertEquals(removed.size(), tree.removedCount());
+
+        for (int q = 0; q < 100; q++) {
+            double latitude = 19.03 + (random.nextDouble() - 0.5) * 0.6;
+            double longitude = 73.02 + (random.nextDouble() - 0.5) * 0.6;
+            assertSameNeighbors(latitude, longitude, bruteForce(places, removed, latitude, longitude, 10, 50),
+                    search(tree, latitude, longitude, 10, 50));
+        }
+
+        List<String> liveIds = new ArrayList<>();
+        List<Place> livePlaces = new ArrayList<>();
+        tree.collectLive(liveIds, livePlaces);
+        assertEquals(tree.liveSize(), liveIds.size());
+        assertEquals(liveIds.size(), livePlaces.size());
+        for (String id : liveIds) {
+            assertFalse(removed.contains(id));
+        }
+    }
+
+    @Test
+    public void emptyCollectorsAndTrees() {
+        List<String> ids = new ArrayList<>();
+        List<Place> places = randomPlaces(new Random(13), 100, ids);
+        PlaceKdTree tree = new PlaceKdTree(ids, places);
+        assertTrue(search(tree, 19.0, 73.0, 0, 10).isEmpty());
+        assertTrue(search(tree, 19.0, 73.0, -1, 10).isEmpty());
+        assertTrue(search(new PlaceKdTree(new ArrayList<>(), new ArrayList<>()), 19.0, 73.0, 5, 10).isEmpty());
+    }
+
+    private static List<Place> search(PlaceKdTree tree, double latitude, double longitude, int k, double maxKm) {
+        PlaceKdTree.Neighbors neighbors = new PlaceKdTree.Neighbors(latitude, longitude, k, maxKm);
+        tree.search(neighbors);
+        return neighbors.toSortedList();
+    }
+
+    private static List<Place> bruteForce(List<Place> places, Set<String> removed, double latitude,
+                                          double longitude, int k, double maxKm) {
+        List<Place> inRange = new ArrayList<>();
+        for (Place place : places) {
+            if (removed != null && removed.contains(place.getPlaceId())) continue;
+            if (distance(place, latitude, longitude) <= maxKm) inRange.add(place);
+        }
+        inRange.sort(Comparator.comparingDouble(place -> distance(place, latitude, longitude)));
+        return inRange.subList(0, Math.min(k, inRange.size()));
+    }
+
+    // Compared by distance, so places at exactly the same distance may come in either order
+    private static void assertSameNeighbors(double latitude, double longitude, List<Place> expected, List<Place> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(distance(expected.get(i), latitude, longitude), distance(actual.get(i), latitude, longitude), 1e-9);
+        }
+    }
+
+    private static double distance(Place place, double latitude, double longitude) {
+        return GeoMath.distanceKm(latitude, longitude, place.getLatitude(), place.getLongitude());
+    }
+
+    private static List<Place> randomPlaces(Random random, int count, List<String> idsOut) {
+        List<Place> places = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = "p" + i;
+            idsOut.add(id);
+            places.add(new Place(id, "Place " + i, "parks",
+                    19.03 + (random.nextDouble() - 0.5) * 0.6,
+                    73.02 + (random.nextDouble() - 0.5) * 0.6, "", 4f, false, 0));
+        }
+        return places;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.trave_app.ml.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+public class CompletionTrieTest {
+    private static final String ALPHABET = "abcde ";
+
+    @Test
+    public void completeMatchesBruteForce() {
+        Random random = new Random(41);
+        CompletionTrie.Builder builder = new CompletionTrie.Builder();
+        Map<String, Double> weights = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            String key = randomKey(random);
+            // Few distinct weights, so ties are common
+            double weight = random.nextInt(20);
+            builder.add(key, weight);
+            String normalized = CompletionTrie.normalize(key);
+            if (!normalized.isEmpty()) weights.merge(normalized, weight, Math::max);
+        }
+        for (int topK : new int[]{1, CompletionTrie.DEFAULT_TOP_K, 50}) {
+            CompletionTrie trie = builder.build(topK);
+            assertEquals(weights.size(), trie.size());
+            for (int q = 0; q < 1000; q++) {
+                String key = randomKey(random);
+                String prefix = key.substring(0, Math.min(key.length(), 1 + random.nextInt(3)));
+                int limit = 1 + random.nextInt(60);
+                List<String> expected = bruteForce(weights, prefix, Math.min(limit, topK));
+                List<String> actual = new ArrayList<>();
+                for (String suggestion : trie.complete(prefix, limit)) {
+                    actual.add(CompletionTrie.normalize(suggestion));
+                }
+                assertEquals("'" + prefix + "' top " + topK, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void duplicatesKeepTheHeavierDisplayText() {
+        CompletionTrie trie = new CompletionTrie.Builder()
+                .add("Palm Beach", 3)
+                .add("palm_beach", 5)
+                .add("  PALM   beach ", 4)
+                .add("Palm Springs", 4)
+                .build();
+        assertEquals(2, trie.size());
+        assertEquals(Arrays.asList("palm_beach", "Palm Springs"), trie.complete("PALM", 5));
+        assertEquals(Arrays.asList("palm_beach"), trie.complete("palm  b", 5));
+    }
+
+    @Test
+    public void emptyAndMissingPrefixes() {
+        CompletionTrie trie = new CompletionTrie.Builder().add("cafe", 1).add("", 2).add("   ", 2).build();
+        assertEquals(1, trie.size());
+        assertTrue(trie.complete("", 5).isEmpty());
+        assertTrue(trie.complete("cafes", 5).isEmpty());
+        assertTrue(trie.complete("x", 5).isEmpty());
+        assertTrue(trie.complete("c", 0).isEmpty());
+        assertTrue(new CompletionTrie.Builder().build().complete("c", 5).isEmpty());
+    }
+
+    // Heaviest first; equal weights in key order
+    private static List<String> bruteForce(Map<String, Double> weights, String prefix, int limit) {
+        String key = CompletionTrie.normalize(prefix);
+        List<String> matches = new ArrayList<>();
+        if (key.isEmpty()) return matches;
+        for (String candidate : weights.keySet()) {
+            if (candidate.startsWith(key)) matches.add(candidate);
+        }
+        matches.sort((a, b) -> {
+            int byWeight = Double.compare(weights.get(b), weights.get(a));
+            return byWeight != 0 ? byWeight : a.compareTo(b);
+        });
+        return new ArrayList<>(matches.subList(0, Math.min(limit, matches.size())));
+    }
+
+    private static String randomKey(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 1 + random.nextInt(8);
+        for (int i = 0; i < length; i++) {
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            sb.append(i == 0 && c == ' ' ? 'a' : c);
+        }
+        return random.nextInt(4) == 0 ? sb.toString().toUpperCase(Locale.ROOT) : sb.toString();
+    }
+}
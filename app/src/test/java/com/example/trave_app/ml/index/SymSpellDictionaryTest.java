@@ -0,0 +1,107 @@
+package com.example.trave_app.ml.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trave_app.ml.util.Levenshtein;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class SymSpellDictionaryTest {
+
+    @Test
+    public void lookupMatchesBruteForce() {
+        Random random = new Random(61);
+        SymSpellDictionary.Builder builder = new SymSpellDictionary.Builder();
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> vocabulary = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String word = randomWord(random, 2, 12);
+            int times = 1 + random.nextInt(3);
+            for (int t = 0; t < times; t++) builder.addText(word);
+            counts.merge(word, times, Integer::sum);
+            vocabulary.add(word);
+        }
+        SymSpellDictionary dictionary = builder.build();
+        assertEquals(counts.size(), dictionary.size());
+
+        for (int q = 0; q < 1500; q++) {
+            // Typos of known words, including ones past the indexed prefix, and random strings
+            String input = random.nextInt(4) == 0
+                    ? randomWord(random, 1, 12)
+                    : mutate(random, vocabulary.get(random.nextInt(vocabulary.size())));
+            for (int maxDistance = 0; maxDistance <= SymSpellDictionary.MAX_EDIT_DISTANCE; maxDistance++) {
+                List<SymSpellDictionary.Suggestion> suggestions = dictionary.lookup(input, maxDistance);
+                Set<String> actual = new TreeSet<>();
+                for (int i = 0; i < suggestions.size(); i++) {
+                    SymSpellDictionary.Suggestion s = suggestions.get(i);
+                    actual.add(s.term + ":" + s.distance);
+                    assertEquals(counts.get(s.term).intValue(), s.count);
+                    if (i > 0) {
+                        SymSpellDictionary.Suggestion prev = suggestions.get(i - 1);
+                        assertTrue(prev.distance < s.distance
+                                || (prev.distance == s.distance && prev.count >= s.count));
+                    }
+                }
+                assertEquals(input + " within " + maxDistance, bruteForce(counts, input, maxDistance), actual);
+            }
+        }
+    }
+
+    @Test
+    public void correctPrefersKnownThenClosestThenMostFrequent() {
+        SymSpellDictionary dictionary = new SymSpellDictionary.Builder()
+                .addText("Palm Beach Road, Vashi")
+                .addText("palm beach")
+                .addText("Peach Garden")
+                .build();
+        assertEquals("beach", dictionary.correct("beach", 2));
+        // "beach" (2) and "peach" (1) are both one edit from "beech"
+        assertEquals("beach", dictionary.correct("beech", 2));
+        assertEquals("vashi", dictionary.correct("vashii", 1));
+        assertEquals("garden", dictionary.correct("gardn", 2));
+        assertNull(dictionary.correct("xyzzy", 2));
+        assertTrue(dictionary.lookup("road", 5).size() >= 1);
+    }
+
+    private static Set<String> bruteForce(Map<String, Integer> counts, String input, int maxDistance) {
+        Set<String> result = new TreeSet<>();
+        for (String word : counts.keySet()) {
+            int distance = Levenshtein.distance(input, word, maxDistance);
+            if (distance <= maxDistance) result.add(word + ":" + distance);
+        }
+        return result;
+    }
+
+    private static String randomWord(Random random, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(6)));
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+        int edits = random.nextInt(4);
+        for (int e = 0; e < edits; e++) {
+            int op = random.nextInt(3);
+            if (op == 0 || sb.length() <= 1) {
+                sb.insert(random.nextInt(sb.length() + 1), (char) ('a' + random.nextInt(6)));
+            } else if (op == 1) {
+                sb.deleteCharAt(random.nextInt(sb.length()));
+            } else {
+                sb.setCharAt(random.nextInt(sb.length()), (char) ('a' + random.nextInt(6)));
+            }
+        }
+        return sb.toString();
+    }
+}
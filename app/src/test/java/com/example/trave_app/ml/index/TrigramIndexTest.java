@@ -0,0 +1,159 @@
+package com.example.trave_app.ml.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+public class TrigramIndexTest {
+    private static final String[] WORDS = {
+            "Cafe", "Coffee", "Hyatt", "Park", "Sea-Face", "Vashi", "Nerul", "Belapur", "Mall",
+            "Inorbit", "Dosa", "Plaza", "Sector 17", "Palm Beach", "Road", "Kitchen", "Café", "Hotel"
+    };
+
+    @Test
+    public void searchMatchesBruteForce() {
+        Random random = new Random(31);
+        TrigramIndex<String> index = new TrigramIndex<>();
+        Map<String, String> docs = new LinkedHashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            String text = randomText(random);
+            docs.put("k" + i, text);
+            index.put("k" + i, "k" + i, text);
+        }
+        for (int q = 0; q < 500; q++) {
+            List<String> terms = randomTerms(random);
+            assertEquals(terms.toString(), bruteForce(docs, terms), index.search(terms));
+        }
+    }
+
+    @Test
+    public void updatesRemovalsAndCompaction() {
+        Random random = new Random(32);
+        TrigramIndex<String> index = new TrigramIndex<>();
+        Map<String, String> docs = new LinkedHashMap<>();
+        for (int round = 0; round < 6000; round++) {
+            String key = "k" + random.nextInt(1500);
+            if (random.nextInt(3) == 0) {
+                docs.remove(key);
+                index.remove(key);
+            } else {
+                String text = randomText(random);
+                // A replaced document moves to the end of index order
+                docs.remove(key);
+                docs.put(key, text);
+                index.put(key, key, text);
+            }
+            if (round % 250 == 0) {
+                List<String> terms = randomTerms(random);
+                assertEquals(terms.toString(), bruteForce(docs, terms), index.search(terms));
+            }
+        }
+        assertEquals(docs.size(), index.size());
+        for (int q = 0; q < 200; q++) {
+            List<String> terms = randomTerms(random);
+            assertEquals(terms.toString(), bruteForce(docs, terms), index.search(terms));
+        }
+        index.clear();
+        assertEquals(0, index.size());
+        assertTrue(index.search(Collections.singletonList("cafe")).isEmpty());
+    }
+
+    @Test
+    public void narrowingMatchesAFullSearch() {
+        Random random = new Random(33);
+        TrigramIndex<String> index = new TrigramIndex<>();
+        Map<String, String> docs = new LinkedHashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            String text = randomText(random);
+            docs.put("k" + i, text);
+            index.put("k" + i, "k" + i, text);
+        }
+        // Typing "pal" -> "palm" -> "palm be" -> "palm bea"
+        TrigramIndex.Matches<String> previous = null;
+        for (String typed : new String[]{"pal", "palm", "palm be", "palm bea"}) {
+            List<String> terms = Arrays.asList(typed.split(" "));
+            TrigramIndex.Matches<String> matches = index.match(terms, previous);
+            assertEquals(typed, bruteForce(docs, terms), matches.values);
+            previous = matches;
+        }
+
+        TrigramIndex.Matches<String> first = index.match(Collections.singletonList("vash"), null);
+        TrigramIndex.Matches<String> longer = index.match(Collections.singletonList("vashi"), first);
+        assertTrue(longer.narrowed);
+        assertFalse(index.match(Collections.singletonList("nerul"), first).narrowed);
+
+        index.put("new", "new", "Vashi Lake");
+        TrigramIndex.Matches<String> afterWrite = index.match(Collections.singletonList("vashi"), first);
+        assertFalse(afterWrite.narrowed);
+        assertTrue(afterWrite.values.contains("new"));
+    }
+
+    @Test
+    public void shortTermsAreNotSearchable() {
+        assertFalse(TrigramIndex.isSearchable(Arrays.asList("ab", "c-d")));
+        assertTrue(TrigramIndex.isSearchable(Arrays.asList("ab", "x-cafe")));
+        TrigramIndex<String> index = new TrigramIndex<>();
+        index.put("a", "a", "Ab Cd");
+        assertTrue(index.search(Collections.singletonList("ab")).isEmpty());
+    }
+
+    private static List<String> bruteForce(Map<String, String> docs, List<String> terms) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, String> doc : docs.entrySet()) {
+            String text = TrigramIndex.normalize(doc.getValue());
+            boolean hit = false;
+            for (String term : terms) {
+                for (String token : TrigramIndex.tokens(TrigramIndex.normalize(term))) {
+                    if (token.length() >= TrigramIndex.MIN_TERM_LENGTH && text.contains(token)) hit = true;
+                }
+            }
+            if (hit) result.add(doc.getKey());
+        }
+        return result;
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(random.nextBoolean() ? " " : ", ");
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // Whole words, fragments of them and words that appear nowhere
+    private static List<String> randomTerms(Random random) {
+        List<String> terms = new ArrayList<>();
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)].toUpperCase(Locale.ROOT);
+            switch (random.nextInt(4)) {
+                case 0:
+                    terms.add(word);
+                    break;
+                case 1:
+                    int start = random.nextInt(Math.max(1, word.length() - 2));
+                    terms.add(word.substring(start, Math.min(word.length(), start + 2 + random.nextInt(4))));
+                    break;
+                case 2:
+                    terms.add(word + "x");
+                    break;
+                default:
+                    terms.add("zq" + word);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.trave_app.ml.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trave_app.geo.GeoPoint;
+import com.example.trave_app.ml.index.KeywordDictionary;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.Collections;
+
+public class QueryParserTest {
+    // The categories of assets/travel_keywords.json these queries touch
+    private static final String KEYWORDS = "{\"categories\": ["
+            + "{\"id\": \"restaurants\", \"keywords\": [\"restaurant\", \"food\", \"eat\"]},"
+            + "{\"id\": \"cafes\", \"keywords\": [\"cafe\", \"coffee\"]},"
+            + "{\"id\": \"hotels\", \"keywords\": [\"hotel\", \"stay\"]},"
+            + "{\"id\": \"malls\", \"keywords\": [\"mall\", \"shop\"]},"
+            + "{\"id\": \"parks\", \"keywords\": [\"park\", \"garden\"]}]}";
+
+    private final QueryParser parser = new QueryParser(
+            KeywordDictionary.fromJson(new StringReader(KEYWORDS), Collections.emptyList()));
+
+    @Test
+    public void modifiersAndNearMeKeepTheCategoryFilter() {
+        StructuredQuery query = parser.parse("cheap cafes near me");
+        assertEquals(Collections.singletonList("cafes"), query.categories);
+        assertTrue(query.filterCategories);
+        assertTrue(query.nearUser);
+        assertEquals("cheap", query.text);
+    }
+
+    @Test
+    public void ratingAndDistanceWordsKeepTheCategoryFilter() {
+        StructuredQuery query = parser.parse("hotels rated above 4 within 2 km");
+        assertTrue(query.filterCategories);
+        assertEquals(4.0f, query.minRating, 0);
+        assertEquals(2.0, query.radiusKm, 0);
+        assertEquals("", query.text);
+
+        query = parser.parse("best affordable restaurants nearby");
+        assertTrue(query.filterCategories);
+        assertEquals(StructuredQuery.Sort.RATING, query.sort);
+        assertEquals("affordable", query.text);
+    }
+
+    @Test
+    public void namesWithCategoryWordsDoNotFilter() {
+        StructuredQuery query = parser.parse("Park Hyatt");
+        assertFalse(query.filterCategories);
+        assertEquals("park hyatt", query.text);
+
+        query = parser.parse("shoppers stop near me");
+        assertFalse(query.filterCategories);
+        assertEquals("shoppers stop", query.text);
+    }
+
+    @Test
+    public void nearMeWithoutALocationIsNotAFilter() {
+        StructuredQuery query = parser.parse("near me");
+        assertTrue(query.nearUser);
+        assertFalse(query.hasFilters(null));
+        assertTrue(query.hasFilters(new GeoPoint(19.07, 73.0)));
+
+        // A category still filters without a location
+        assertTrue(parser.parse("cafes near me").hasFilters(null));
+    }
+}
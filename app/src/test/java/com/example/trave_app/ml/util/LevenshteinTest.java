@@ -0,0 +1,80 @@
+package com.example.trave_app.ml.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LevenshteinTest {
+
+    @Test
+    public void matchesFullMatrix() {
+        Random random = new Random(51);
+        for (int i = 0; i < 200_000; i++) {
+            String a = randomWord(random);
+            String b = random.nextBoolean() ? randomWord(random) : mutate(random, a);
+            int max = random.nextInt(4);
+            int full = fullDistance(a, b);
+            assertEquals(a + " / " + b + " max " + max, Math.min(full, max + 1), Levenshtein.distance(a, b, max));
+            assertEquals(Math.min(full, max + 1), Levenshtein.distance(b, a, max));
+        }
+    }
+
+    @Test
+    public void knownDistances() {
+        assertEquals(3, Levenshtein.distance("kitten", "sitting", 3));
+        assertEquals(3, Levenshtein.distance("kitten", "sitting", 2));
+        assertEquals(0, Levenshtein.distance("", "", 0));
+        assertEquals(2, Levenshtein.distance("", "ab", 2));
+        assertEquals(1, Levenshtein.distance("ab", "", 0));
+        assertEquals(1, Levenshtein.distance("starbucks", "starbuck", 2));
+        assertEquals(2, Levenshtein.distance("cafe", "acfe", 2));
+    }
+
+    @Test
+    public void scratchRowsGrowForLongWords() {
+        StringBuilder a = new StringBuilder();
+        for (int i = 0; i < 100; i++) a.append((char) ('a' + i % 26));
+        String b = a.substring(0, 50) + "xy" + a.substring(52);
+        assertEquals(2, Levenshtein.distance(a, b, 2));
+        assertEquals(2, Levenshtein.distance("ab", "ba", 2));
+    }
+
+    private static int fullDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(d[i - 1][j - 1] + cost, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomWord(Random random) {
+        int length = random.nextInt(10);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append((char) ('a' + random.nextInt(4)));
+        return sb.toString();
+    }
+
+    // Up to three random insertions, deletions or substitutions
+    private static String mutate(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+        int edits = random.nextInt(4);
+        for (int e = 0; e < edits; e++) {
+            int op = random.nextInt(3);
+            if (op == 0 || sb.length() == 0) {
+                sb.insert(random.nextInt(sb.length() + 1), (char) ('a' + random.nextInt(4)));
+            } else if (op == 1) {
+                sb.deleteCharAt(random.nextInt(sb.length()));
+            } else {
+                sb.setCharAt(random.nextInt(sb.length()), (char) ('a' + random.nextInt(4)));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.trave_app.ml.util;
+
+import com.example.trave_app.geo.GeoMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParallelTopK on pools of 1 to 8 threads, for the scaling curve. threads=1 is the sequential
+ * path, so each row reads as speedup over it. Run main() from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelTopKBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"20000", "200000"})
+    public int size;
+
+    @Param({"20"})
+    public int k;
+
+    private ForkJoinPool pool;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(threads);
+        Random random = new Random(42);
+        latitudes = new double[size];
+        longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = 18.9 + random.nextDouble() * 0.3;
+            longitudes[i] = 72.8 + random.nextDouble() * 0.3;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    // Scored by distance, which is about what ranking a place costs
+    @Benchmark
+    public List<Integer> select() {
+        return ParallelTopK.select(pool, size, k, i -> i,
+                i -> -GeoMath.distanceKm(19.07, 72.88, latitudes[i], longitudes[i]));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParallelTopKBenchmark.class.getSimpleName()).build()).run();
+    }
+}
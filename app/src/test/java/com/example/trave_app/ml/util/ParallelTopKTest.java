@@ -0,0 +1,104 @@
+package com.example.trave_app.ml.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelTopKTest {
+    private static final int[] POOL_SIZES = {1, 2, 4, 8};
+    private static final List<ForkJoinPool> pools = new ArrayList<>();
+
+    @BeforeClass
+    public static void startPools() {
+        for (int threads : POOL_SIZES) {
+            pools.add(new ForkJoinPool(threads));
+        }
+    }
+
+    @AfterClass
+    public static void stopPools() {
+        for (ForkJoinPool pool : pools) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void matchesStableSortAboveThreshold() {
+        Random random = new Random(1);
+        int size = ParallelTopK.PARALLEL_THRESHOLD * 4 + 123;
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = random.nextDouble();
+        }
+        for (int k : new int[]{1, 10, 100, 5000}) {
+            assertAllPools(scores, k);
+        }
+    }
+
+    @Test
+    public void tiesKeepIndexOrder() {
+        Random random = new Random(2);
+        int size = ParallelTopK.PARALLEL_THRESHOLD * 3;
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = random.nextInt(5); // heavy ties across chunk boundaries
+        }
+        assertAllPools(scores, 50);
+        assertAllPools(scores, 20_000);
+    }
+
+    @Test
+    public void nanScoresAreNotResults() {
+        Random random = new Random(3);
+        int size = ParallelTopK.PARALLEL_THRESHOLD * 2 + 7;
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = i % 3 == 0 ? random.nextDouble() : Double.NaN;
+        }
+        for (ForkJoinPool pool : pools) {
+            List<Integer> top = ParallelTopK.select(pool, size, size, i -> i, i -> scores[i]);
+            assertEquals(expected(scores, size), top);
+            for (int i : top) {
+                assertTrue(i % 3 == 0);
+            }
+        }
+    }
+
+    @Test
+    public void smallInputsAndEmptyK() {
+        double[] scores = {0.5, 2, 2, Double.NaN, 1};
+        for (ForkJoinPool pool : pools) {
+            assertEquals(List.of(1, 2, 4), ParallelTopK.select(pool, scores.length, 3, i -> i, i -> scores[i]));
+            assertTrue(ParallelTopK.select(pool, scores.length, 0, i -> i, i -> scores[i]).isEmpty());
+            assertTrue(ParallelTopK.select(pool, 0, 5, i -> i, i -> 1.0).isEmpty());
+        }
+    }
+
+    private static void assertAllPools(double[] scores, int k) {
+        List<Integer> expected = expected(scores, k);
+        for (ForkJoinPool pool : pools) {
+            assertEquals("threads=" + pool.getParallelism() + " k=" + k, expected,
+                    ParallelTopK.select(pool, scores.length, k, i -> i, i -> scores[i]));
+        }
+    }
+
+    // Indexes with a score, stably sorted best first and cut to k
+    private static List<Integer> expected(double[] scores, int k) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (!Double.isNaN(scores[i])) indexes.add(i);
+        }
+        Collections.sort(indexes, Comparator.comparingDouble((Integer i) -> scores[i]).reversed());
+        return new ArrayList<>(indexes.subList(0, Math.min(k, indexes.size())));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.trave_app.ml.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TopK.select against the sort-then-limit it replaced, on the JVM. Run main() from the IDE
+ * (the test classpath has JMH and its annotation processor).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopKBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int k;
+
+    private List<double[]> items;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new double[]{random.nextDouble() * 5});
+        }
+    }
+
+    @Benchmark
+    public List<double[]> topK() {
+        return TopK.select(items, k, item -> item[0]);
+    }
+
+    @Benchmark
+    public List<double[]> sortThenLimit() {
+        List<double[]> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble((double[] item) -> item[0]).reversed());
+        return new ArrayList<>(sorted.subList(0, Math.min(k, sorted.size())));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TopKBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.trave_app.ml.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TopK against the brute force it replaces: a stable sort of the whole input, best first,
+ * cut to k.
+ */
+public class TopKTest {
+
+    private static final class Item {
+        final int id;
+        final double score;
+        final String name;
+
+        Item(int id, double score, String name) {
+            this.id = id;
+            this.score = score;
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return id + ":" + score + ":" + name;
+        }
+    }
+
+    private static final Comparator<Item> BY_NAME = Comparator.comparing(item -> item.name);
+
+    @Test
+    public void matchesStableSortWithoutTieBreak() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            List<Item> items = randomItems(random, random.nextInt(200));
+            int k = random.nextInt(30);
+            assertEquals(bruteForce(items, k, null), TopK.select(items, k, item -> item.score));
+        }
+    }
+
+    @Test
+    public void matchesStableSortWithTieBreak() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            List<Item> items = randomItems(random, random.nextInt(200));
+            int k = random.nextInt(30);
+            assertEquals(bruteForce(items, k, BY_NAME), TopK.select(items, k, item -> item.score, BY_NAME));
+        }
+    }
+
+    @Test
+    public void keepsEverythingWhenKExceedsSize() {
+        List<Item> items = randomItems(new Random(1), 12);
+        assertEquals(bruteForce(items, 12, null), TopK.select(items, 100, item -> item.score));
+    }
+
+    @Test
+    public void nonPositiveKSelectsNothing() {
+        List<Item> items = randomItems(new Random(3), 20);
+        assertTrue(TopK.select(items, 0, item -> item.score).isEmpty());
+        assertTrue(TopK.select(items, -5, item -> item.score).isEmpty());
+
+        TopK<Item> top = new TopK<>(-1);
+        for (Item item : items) top.offer(item, item.score);
+        assertEquals(0, top.size());
+        assertTrue(top.toList().isEmpty());
+    }
+
+    @Test
+    public void mergedSlicesMatchOneSelector() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            List<Item> items = randomItems(random, 1 + random.nextInt(300));
+            int k = 1 + random.nextInt(20);
+            int cut = random.nextInt(items.size() + 1);
+
+            TopK<Item> left = new TopK<>(k);
+            TopK<Item> right = new TopK<>(k);
+            for (int i = 0; i < items.size(); i++) {
+                (i < cut ? left : right).offer(items.get(i), items.get(i).score, i);
+            }
+            right.merge(left);
+            assertEquals(bruteForce(items, k, null), right.toList());
+        }
+    }
+
+    @Test
+    public void toListEmptiesTheSelector() {
+        TopK<Item> top = new TopK<>(3);
+        for (Item item : randomItems(new Random(5), 10)) top.offer(item, item.score);
+        assertEquals(3, top.toList().size());
+        assertEquals(0, top.size());
+        assertTrue(top.toList().isEmpty());
+    }
+
+    // Few distinct scores and names, so ties are common
+    private static List<Item> randomItems(Random random, int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double score = random.nextInt(10) / 2.0;
+            if (random.nextInt(20) == 0) score = -score;
+            items.add(new Item(i, score, String.valueOf((char) ('a' + random.nextInt(5)))));
+        }
+        return items;
+    }
+
+    private static List<Item> bruteForce(List<Item> items, int k, Comparator<Item> tieBreak) {
+        Comparator<Item> order = Comparator.comparingDouble((Item item) -> item.score).reversed();
+        if (tieBreak != null) order = order.thenComparing(tieBreak);
+        List<Item> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, order); // stable, so equal items keep input order
+        return new ArrayList<>(sorted.subList(0, Math.max(0, Math.min(k, sorted.size()))));
+    }
+
+}
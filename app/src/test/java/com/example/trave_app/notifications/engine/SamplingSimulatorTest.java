@@ -0,0 +1,123 @@
+package com.example.trave_app.notifications.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.trave_app.geo.GeoMath;
+import com.google.android.gms.location.Priority;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SamplingSimulatorTest {
+    private static final long MINUTE = 60_000L;
+    private static final double LAT = 19.03;
+    private static final double LON = 73.02;
+
+    private final SamplingSimulator sparse = new SamplingSimulator((lat, lon) -> 0);
+
+    @Test
+    public void fixedPolicyMatchesAHandReplay() {
+        // 40 min walking north at 1.4 m/s: a fix every 30 s, detection whenever 50 m were covered
+        List<SamplingSimulator.TracePoint> trace = straightLine(40 * MINUTE, 1.4);
+        SamplingSimulator.Report report = sparse.run(new FixedSamplingPolicy(), trace);
+
+        int fixes = 0;
+        int detections = 0;
+        double lastLat = Double.NaN;
+        for (long t = 0; t <= 40 * MINUTE; t += 30_000) {
+            fixes++;
+            double lat = latitudeAt(t, 1.4);
+            if (Double.isNaN(lastLat) || GeoMath.distanceKm(lastLat, LON, lat, LON) * 1000 >= 50) {
+                detections++;
+                lastLat = lat;
+            }
+        }
+        assertEquals(fixes, report.fixes);
+        assertEquals(detections, report.detectorInvocations);
+        assertEquals(fixes, report.highAccuracyFixes);
+        assertEquals(0, report.requestChanges);
+    }
+
+    @Test
+    public void stationaryBacksOff() {
+        List<SamplingSimulator.TracePoint> trace = straightLine(90 * MINUTE, 0);
+        SamplingSimulator.Report fixed = sparse.run(new FixedSamplingPolicy(), trace);
+        AdaptiveSamplingPolicy adaptive = new AdaptiveSamplingPolicy();
+        SamplingSimulator.Report report = sparse.run(adaptive, trace);
+
+        assertEquals(AdaptiveSamplingPolicy.Mode.STATIONARY, adaptive.getMode());
+        assertEquals(181, fixed.fixes);
+        // 3 min of walking-rate fixes before the dwell is recognised, then one every 2 min
+        assertTrue(report.toString(), report.fixes < fixed.fixes / 3);
+        assertTrue(report.toString(), report.highAccuracyFixes <= 8);
+        assertEquals(1, report.detectorInvocations);
+        assertEquals(1, report.requestChanges);
+    }
+
+    @Test
+    public void drivingDetectsAfter200Metres() {
+        // 30 min at 12 m/s: the fixed policy detects every 360 m, the adaptive one every second
+        // 120 m fix, i.e. every 240 m
+        List<SamplingSimulator.TracePoint> trace = straightLine(30 * MINUTE, 12);
+        SamplingSimulator.Report fixed = sparse.run(new FixedSamplingPolicy(), trace);
+        AdaptiveSamplingPolicy adaptive = new AdaptiveSamplingPolicy();
+        SamplingSimulator.Report report = sparse.run(adaptive, trace);
+
+        assertEquals(AdaptiveSamplingPolicy.Mode.DRIVING, adaptive.getMode());
+        assertEquals(61, fixed.detectorInvocations);
+        assertEquals(30 * 60 * 12 / 240, report.detectorInvocations, 2);
+        assertTrue(report.fixes > fixed.fixes * 2);
+    }
+
+    @Test
+    public void densePlacesTightenSampling() {
+        List<SamplingSimulator.TracePoint> trace = straightLine(30 * MINUTE, 1.4);
+        SamplingSimulator.Report sparseReport = sparse.run(new AdaptiveSamplingPolicy(), trace);
+        SamplingSimulator.Report denseReport = new SamplingSimulator((lat, lon) -> 40)
+                .run(new AdaptiveSamplingPolicy(), trace);
+
+        assertEquals(61, sparseReport.fixes);
+        // Halved from the first detection on
+        assertEquals(120, denseReport.fixes, 2);
+        assertTrue(denseReport.detectorInvocations > sparseReport.detectorInvocations);
+        assertEquals(1, denseReport.requestChanges);
+    }
+
+    @Test
+    public void denseModeFollowsTheLatestCount() {
+        AdaptiveSamplingPolicy policy = new AdaptiveSamplingPolicy();
+        policy.onNearbyPlaceCount(15);
+        SamplingSpec dense = policy.onFix(LAT, LON, 0, 1.4f);
+        assertEquals(15_000, dense.intervalMs);
+        assertEquals(25.0f, dense.minDistanceMeters, 0);
+        policy.onNearbyPlaceCount(14);
+        SamplingSpec normal = policy.onFix(LAT, LON, 30_000, 1.4f);
+        assertEquals(30_000, normal.intervalMs);
+        assertEquals(Priority.PRIORITY_HIGH_ACCURACY, normal.priority);
+        assertTrue(!dense.sameRequestAs(normal));
+    }
+
+    @Test
+    public void emptyTrace() {
+        SamplingSimulator.Report report = sparse.run(new AdaptiveSamplingPolicy(), Collections.emptyList());
+        assertEquals(0, report.fixes);
+        assertEquals(0, report.detectorInvocations);
+    }
+
+    // One point per minute heading due north at a constant speed
+    private static List<SamplingSimulator.TracePoint> straightLine(long durationMs, double speedMps) {
+        List<SamplingSimulator.TracePoint> trace = new ArrayList<>();
+        for (long t = 0; t <= durationMs; t += MINUTE) {
+            trace.add(new SamplingSimulator.TracePoint(t, latitudeAt(t, speedMps), LON));
+        }
+        return trace;
+    }
+
+    private static double latitudeAt(long timeMs, double speedMps) {
+        return LAT + speedMps * timeMs / 1000.0 / 1000.0 / GeoMath.KM_PER_DEGREE;
+    }
+}
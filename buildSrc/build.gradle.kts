@@ -0,0 +1,29 @@
+// Build-time tools for the app module
+plugins {
+    java
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+sourceSets {
+    main {
+        java {
+            // The pack writer is shared with the app, which falls back to it on the device.
+            // Includes filter every source dir, so this build's own package is listed too.
+            srcDir("../app/src/main/java")
+            include("com/example/trave_app/build/**")
+            include("com/example/trave_app/data/pack/PlacePack.java")
+            include("com/example/trave_app/data/pack/PlacePackWriter.java")
+            include("com/example/trave_app/geo/GeoMath.java")
+            include("com/example/trave_app/geo/GeoPoint.java")
+        }
+    }
+}
+
+dependencies {
+    implementation(gradleApi())
+    implementation(libs.gson)
+}
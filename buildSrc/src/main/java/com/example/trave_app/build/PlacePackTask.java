@@ -0,0 +1,61 @@
+package com.example.trave_app.build;
+
+import com.example.trave_app.data.pack.PlacePackWriter;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Converts place list JSON files into PlacePack files, one <name>.pack per <name>.json, so the
+ * packs ship as assets and the device only converts when no bundled pack matches its JSON.
+ */
+public abstract class PlacePackTask extends DefaultTask {
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract ConfigurableFileCollection getSources();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    @TaskAction
+    public void writePacks() throws IOException {
+        File dir = getOutputDir().get().getAsFile();
+        File[] stale = dir.listFiles((d, name) -> name.endsWith(".pack"));
+        if (stale != null) {
+            for (File file : stale) {
+                if (!file.delete()) throw new IOException("Could not delete " + file);
+            }
+        }
+        for (File source : getSources()) {
+            String name = source.getName().replaceFirst("\\.json$", "");
+            File target = new File(dir, name + ".pack");
+            PlacePackWriter writer = new PlacePackWriter();
+            long stamp;
+            try (InputStream in = new FileInputStream(source)) {
+                stamp = PlacePackWriter.sourceStamp(in);
+            }
+            try (InputStream in = new FileInputStream(source)) {
+                writer.addJson(in);
+            }
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+                writer.write(out, stamp);
+            }
+            getLogger().info("Wrote {} places to {}", writer.size(), target);
+        }
+    }
+}